@@ -0,0 +1,63 @@
+package com.github.byw.benchmark;
+
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.log.NoopLogOperator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试公共方法
+ * <p>
+ * 测试数据使用固定的随机种子生成，日志统一关闭，保证每次运行的输入完全一致，结果可以直接对比。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+final class BenchmarkSupport {
+
+	/**
+	 * 随机种子
+	 */
+	static final long SEED = 20261018L;
+
+	private BenchmarkSupport() {
+	}
+
+	/**
+	 * 关闭日志的计算配置
+	 *
+	 * @return {@link CalculateConfig}
+	 */
+	static CalculateConfig config() {
+		return new CalculateConfig().setLogOperatorClass(NoopLogOperator.class);
+	}
+
+	/**
+	 * 关闭日志的工厂
+	 *
+	 * @return {@link CalculateFactory}
+	 */
+	static CalculateFactory factory() {
+		return CalculateFactory.createFactory(config());
+	}
+
+	/**
+	 * 生成成绩列表，取值范围 [0, 100]，保留两位小数
+	 *
+	 * @param size 长度
+	 * @param salt 区分不同列表的盐值
+	 * @return {@link List}<{@link BigDecimal}>
+	 */
+	static List<BigDecimal> scores(int size, int salt) {
+		Random random = new Random(SEED + salt);
+		List<BigDecimal> scores = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			scores.add(BigDecimal.valueOf(random.nextInt(10001), 2));
+		}
+		return scores;
+	}
+}
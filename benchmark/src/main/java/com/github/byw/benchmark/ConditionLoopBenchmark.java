@@ -0,0 +1,105 @@
+package com.github.byw.benchmark;
+
+import com.github.byw.exec.CalculateExecutor;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaConditions;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.param.ParamContext;
+import com.github.byw.result.ResultManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 开始条件和结束条件
+ * <p>
+ * 单值公式通过结束条件循环执行 iterations 次；列表公式在每个索引上各循环执行 iterations 次，一共 {@link #LIST_SIZE} 个索引。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ConditionLoopBenchmark {
+
+	/**
+	 * 列表公式的参数长度
+	 */
+	private static final int LIST_SIZE = 1000;
+
+	@Param({"10", "1000"})
+	private int iterations;
+
+	private CalculateFactory factory;
+
+	private CalculateExecutor executor;
+
+	private List<Integer> counters;
+
+	@Setup
+	public void setUp() {
+		factory = BenchmarkSupport.factory();
+		executor = factory.createExecutor();
+		counters = Collections.nCopies(LIST_SIZE, 0);
+	}
+
+	@Benchmark
+	public ResultManager singleValueLoop() {
+		ParamContext param = factory.createParam();
+		param.addNumber("计数", 0);
+		param.addNumber("累计", 0);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		String stopConditions = "计数 == " + iterations;
+		formulaManager.addList(Arrays.asList("累计 = 累计 + 计数 * 2", "计数 = 计数 + 1"), new FormulaConditions() {
+			@Override
+			public String getStartConditions() {
+				return "计数 == 0";
+			}
+
+			@Override
+			public String getStopConditions() {
+				return stopConditions;
+			}
+		});
+		return executor.exec(param, formulaManager);
+	}
+
+	@Benchmark
+	public ResultManager listLoop() {
+		ParamContext param = factory.createParam();
+		// 公式会修改计数，每次调用使用新的副本
+		param.addArray("计数", new ArrayList<>(counters));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		String stopConditions = "计数_index == " + iterations;
+		formulaManager.add("计数_index = 计数_index + 1", new FormulaConditions() {
+			@Override
+			public String getStartConditions() {
+				return "计数_index == 0";
+			}
+
+			@Override
+			public String getStopConditions() {
+				return stopConditions;
+			}
+		});
+		return executor.exec(param, formulaManager);
+	}
+}
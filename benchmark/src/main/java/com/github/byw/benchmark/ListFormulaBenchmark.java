@@ -0,0 +1,80 @@
+package com.github.byw.benchmark;
+
+import com.github.byw.exec.CalculateExecutor;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.param.ParamContext;
+import com.github.byw.result.ResultManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列表公式（_index）
+ * <p>
+ * 测试数据在 Setup 中生成一次，每次调用把同一份数据添加到新的参数上下文中再执行。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ListFormulaBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	private int size;
+
+	private CalculateFactory factory;
+
+	private CalculateExecutor executor;
+
+	private List<BigDecimal> mathScores;
+
+	private List<BigDecimal> chineseScores;
+
+	@Setup
+	public void setUp() {
+		factory = BenchmarkSupport.factory();
+		executor = factory.createExecutor();
+		mathScores = BenchmarkSupport.scores(size, 1);
+		chineseScores = BenchmarkSupport.scores(size, 2);
+	}
+
+	@Benchmark
+	public ResultManager singleLine() {
+		ParamContext param = factory.createParam();
+		param.addArray("数学成绩", mathScores);
+		param.addArray("语文成绩", chineseScores);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("总成绩_index = 数学成绩_index + 语文成绩_index");
+		return executor.exec(param, formulaManager);
+	}
+
+	@Benchmark
+	public ResultManager chained() {
+		ParamContext param = factory.createParam();
+		param.addArray("数学成绩", mathScores);
+		param.addArray("语文成绩", chineseScores);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("总成绩_index = 数学成绩_index + 语文成绩_index");
+		formulaManager.add("平均成绩_index = 总成绩_index / 2");
+		formulaManager.add("是否及格_index = 平均成绩_index >= 60");
+		return executor.exec(param, formulaManager);
+	}
+}
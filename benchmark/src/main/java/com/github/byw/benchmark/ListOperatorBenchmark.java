@@ -0,0 +1,76 @@
+package com.github.byw.benchmark;
+
+import com.github.byw.exec.CalculateExecutor;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.param.ParamContext;
+import com.github.byw.result.ResultManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内置的列表函数 listSum、listMax、listMin
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ListOperatorBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	private int size;
+
+	private CalculateFactory factory;
+
+	private CalculateExecutor executor;
+
+	private List<BigDecimal> scores;
+
+	@Setup
+	public void setUp() {
+		factory = BenchmarkSupport.factory();
+		executor = factory.createExecutor();
+		scores = BenchmarkSupport.scores(size, 6);
+	}
+
+	@Benchmark
+	public ResultManager listSum() {
+		return exec("总成绩 = listSum(成绩)");
+	}
+
+	@Benchmark
+	public ResultManager listMax() {
+		return exec("最高成绩 = listMax(成绩)");
+	}
+
+	@Benchmark
+	public ResultManager listMin() {
+		return exec("最低成绩 = listMin(成绩)");
+	}
+
+	private ResultManager exec(String formula) {
+		ParamContext param = factory.createParam();
+		param.addArray("成绩", scores);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add(formula);
+		return executor.exec(param, formulaManager);
+	}
+}
@@ -0,0 +1,69 @@
+package com.github.byw.benchmark;
+
+import com.github.byw.exec.CalculateExecutor;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.param.ParamContext;
+import com.github.byw.result.ResultManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单值公式
+ * <p>
+ * 每次调用都新建参数上下文和公式管理器，和实际使用方式一致，测量的是一次完整 exec 的开销。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SingleValueBenchmark {
+
+	private CalculateFactory factory;
+
+	private CalculateExecutor executor;
+
+	@Setup
+	public void setUp() {
+		factory = BenchmarkSupport.factory();
+		executor = factory.createExecutor();
+	}
+
+	@Benchmark
+	public ResultManager arithmetic() {
+		ParamContext param = factory.createParam();
+		param.addNumber("小明的数学成绩", 90);
+		param.addNumber("小明的语文成绩", 80);
+		param.addNumber("小明的化学成绩", 70);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("小明的平均成绩 = (小明的数学成绩 + 小明的语文成绩 + 小明的化学成绩)/3");
+		formulaManager.add("小明平均成绩的2倍 = 小明的平均成绩 * 2");
+		return executor.exec(param, formulaManager);
+	}
+
+	@Benchmark
+	public ResultManager compareAndLogic() {
+		ParamContext param = factory.createParam();
+		param.addNumber("小明的数学成绩", 90);
+		param.addNumber("小明的语文成绩", 80);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("小明是否全部及格 = 小明的数学成绩 >= 60 && 小明的语文成绩 >= 60");
+		formulaManager.add("小明是否偏科 = 小明的数学成绩 - 小明的语文成绩 > 20 || 小明的语文成绩 - 小明的数学成绩 > 20");
+		return executor.exec(param, formulaManager);
+	}
+}
@@ -0,0 +1,92 @@
+package com.github.byw.benchmark;
+
+import com.github.byw.exec.CalculateExecutor;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.helper.StringFormatter;
+import com.github.byw.param.ParamContext;
+import com.github.byw.result.ResultManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过模板注册参数和公式
+ * <p>
+ * 和 README 中计算每个学生平均成绩的例子一样，参数名和公式都通过 {@link StringFormatter} 的模板生成。
+ * register 只测量注册，registerAndExec 测量注册加执行。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TemplateRegistrationBenchmark {
+
+	@Param({"100", "10000"})
+	private int students;
+
+	private CalculateFactory factory;
+
+	private CalculateExecutor executor;
+
+	private List<String> names;
+
+	private List<BigDecimal> mathScores;
+
+	private List<BigDecimal> chineseScores;
+
+	@Setup
+	public void setUp() {
+		factory = BenchmarkSupport.factory();
+		executor = factory.createExecutor();
+		names = new ArrayList<>(students);
+		for (int i = 0; i < students; i++) {
+			names.add("学生" + i);
+		}
+		mathScores = BenchmarkSupport.scores(students, 4);
+		chineseScores = BenchmarkSupport.scores(students, 5);
+	}
+
+	@Benchmark
+	public FormulaManager register() {
+		return register(factory.createParam());
+	}
+
+	@Benchmark
+	public ResultManager registerAndExec() {
+		ParamContext param = factory.createParam();
+		FormulaManager formulaManager = register(param);
+		return executor.exec(param, formulaManager);
+	}
+
+	private FormulaManager register(ParamContext param) {
+		FormulaManager formulaManager = factory.createFormulaManager();
+		for (int i = 0; i < students; i++) {
+			String name = names.get(i);
+			param.addNumber("{某同学的数学成绩}", name + "的数学成绩", mathScores.get(i));
+			param.addNumber("{某同学的语文成绩}", name + "的语文成绩", chineseScores.get(i));
+			formulaManager.add("{某同学的平均成绩} = ({某同学的数学成绩} + {某同学的语文成绩})/2",
+					Arrays.asList(name + "的平均成绩", name + "的数学成绩", name + "的语文成绩"));
+		}
+		return formulaManager;
+	}
+}
@@ -0,0 +1,30 @@
+package com.github.byw.exception;
+
+/**
+ * 超出执行预算异常
+ * 循环次数、执行时间或者参数上下文大小超过了 {@link com.github.byw.exec.config.CalculateConfig} 中设置的上限
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class CalculateBudgetException extends CalculateException {
+
+	/**
+	 * 超出的预算（配置属性的名称），例如 maxExecMillis
+	 */
+	private final String budget;
+
+	public CalculateBudgetException(String budget, String s) {
+		super(s);
+		this.budget = budget;
+	}
+
+	public CalculateBudgetException(String budget, String template, String... args) {
+		super(template, args);
+		this.budget = budget;
+	}
+
+	public String getBudget() {
+		return budget;
+	}
+}
@@ -16,4 +16,8 @@ public class CalculateException extends RuntimeException {
 	public CalculateException(String template, String... args) {
 		super(StringFormatter.format(template, args));
 	}
+
+	public CalculateException(String s, Throwable cause) {
+		super(s, cause);
+	}
 }
@@ -0,0 +1,18 @@
+package com.github.byw.exception;
+
+/**
+ * 计算超时异常
+ * 执行时间超过了调用时设置的截止时间或者 {@link com.github.byw.exec.config.CalculateConfig#getMaxExecMillis()}
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class CalculateTimeoutException extends CalculateBudgetException {
+	public CalculateTimeoutException(String budget, String s) {
+		super(budget, s);
+	}
+
+	public CalculateTimeoutException(String budget, String template, String... args) {
+		super(budget, template, args);
+	}
+}
@@ -0,0 +1,26 @@
+package com.github.byw.exec;
+
+import com.github.byw.param.ParamContext;
+import com.github.byw.result.ResultManager;
+
+/**
+ * 批量执行的回调
+ * <p>
+ * 每个参数上下文计算完成之后调用一次。回调在线程池的线程中执行，不同参数上下文的回调可能同时发生，也不保证按照顺序调用，
+ * 需要顺序时可以使用 index。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+@FunctionalInterface
+public interface BatchCallback {
+
+	/**
+	 * 处理一个参数上下文的计算结果
+	 *
+	 * @param index         参数上下文在批量参数中的位置
+	 * @param param         参数上下文
+	 * @param resultManager 计算结果
+	 */
+	void accept(int index, ParamContext param, ResultManager resultManager);
+}
@@ -2,20 +2,29 @@ package com.github.byw.exec;
 
 import com.github.byw.exception.CalculateException;
 import com.github.byw.exec.config.CalculateConfig;
-import com.github.byw.exec.exector.Executor;
-import com.github.byw.exec.exector.ListDataExecutor;
-import com.github.byw.exec.exector.SingleDataExecutor;
+import com.github.byw.exec.exector.CompiledFormula;
+import com.github.byw.exec.exector.ExecutorManager;
 import com.github.byw.formula.Formula;
+import com.github.byw.formula.FormulaAnalysis;
 import com.github.byw.formula.FormulaManager;
-import com.github.byw.param.DefaultParam;
+import com.github.byw.metrics.MetricsListener;
 import com.github.byw.param.ParamContext;
-import com.github.byw.param.ParamManager;
+import com.github.byw.param.ParamStream;
+import com.github.byw.result.BatchResult;
+import com.github.byw.result.BatchStatistics;
 import com.github.byw.result.DefaultResultManager;
 import com.github.byw.result.ResultManager;
-import lombok.SneakyThrows;
+import com.github.byw.result.SweepResult;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * 计算执行者
@@ -29,63 +38,219 @@ public class CalculateExecutor {
 		return new DefaultResultManager(param.getParamContext());
 	}
 
-	private CalculateExecutor(CalculateConfig config) {
+	private CalculateExecutor(CalculateConfig config, ExecutorManager executorManager) {
 		this.config = config;
+		this.executorManager = executorManager;
 	}
 
 	private CalculateConfig config = new CalculateConfig();
 
+	/**
+	 * 执行器管理，多次 exec 调用之间共享
+	 */
+	private final ExecutorManager executorManager;
+
+	/**
+	 * 每个公式管理器最近一次的编译结果，公式和配置都没有变化时 exec 直接使用，不需要重新编译
+	 */
+	private final Cache<FormulaManager, CachedFormulaSet> compiledCache = CacheBuilder.newBuilder().weakKeys().build();
+
 	public static CalculateExecutor getInstance(CalculateConfig config) {
-		return new CalculateExecutor(config);
+		return new CalculateExecutor(config, new ExecutorManager(config));
 	}
 
+	/**
+	 * 获取实例
+	 *
+	 * @param config          配置
+	 * @param executorManager 执行器管理（可以在多个 CalculateExecutor 之间共享）
+	 * @return {@link CalculateExecutor}
+	 */
+	public static CalculateExecutor getInstance(CalculateConfig config, ExecutorManager executorManager) {
+		return new CalculateExecutor(config, executorManager);
+	}
+
+	/**
+	 * 执行公式
+	 * 同一个 FormulaManager 的编译结果会被缓存，公式没有变化（没有添加或者修改公式）时多次调用不会重复编译
+	 *
+	 * @param param          参数
+	 * @param formulaManager 公式管理器
+	 * @return {@link ResultManager}
+	 */
 	public ResultManager exec(ParamContext param, FormulaManager formulaManager) {
-		return CalculateExecutorBean.exec(param, formulaManager, config);
+		if (param == null) {
+			throw new CalculateException("param 参数不能为 null ");
+		}
+		return getCompiled(formulaManager).exec(param);
 	}
 
-	private static class CalculateExecutorBean {
+	/**
+	 * 异步执行
+	 * 公式在调用线程中编译，计算在 {@link CalculateConfig#getAsyncExecutor()} 中执行。
+	 * 取消返回的 CompletableFuture 之后，计算会在下一个检查点（公式之间、列表公式的索引之间以及结束条件的每次循环之间）停止。
+	 *
+	 * @param param          参数
+	 * @param formulaManager 公式管理器
+	 * @return {@link CompletableFuture}
+	 */
+	public CompletableFuture<ResultManager> execAsync(ParamContext param, FormulaManager formulaManager) {
+		return getCompiled(formulaManager).execAsync(param);
+	}
 
-		@SneakyThrows
-		public static ResultManager exec(ParamContext param, FormulaManager formulaManager, CalculateConfig... configs) {
-			if (param == null) {
-				throw new CalculateException("param 参数不能为 null ");
-			}
-			CalculateConfig config = new CalculateConfig();
-			if (configs.length > 0) {
-				config = configs[0];
-			}
-			ParamManager paramContext = param.getParamContext();
-			for (Formula formulaInstance : formulaManager.getFormulaList()) {
-				Executor executor = CalculateExecutor.ExecutorManage.getInstance().get(formulaInstance);
-				if (config.getFunctionConfig() != null) {
-					config.getFunctionConfig().getOperatorMap().forEach(executor::registerFunction);
-				}
-				executor.exec(formulaInstance, param, config);
-			}
-			return new DefaultResultManager(paramContext);
+	/**
+	 * 异步执行，并且限制执行时间
+	 * 超时是协作式的，返回的 CompletableFuture 在计算到达下一个检查点之后才以
+	 * {@link com.github.byw.exception.CalculateTimeoutException} 异常结束，详见 {@link CompiledFormulaSet#execAsync(ParamContext, long, TimeUnit)}。
+	 *
+	 * @param param          参数
+	 * @param formulaManager 公式管理器
+	 * @param timeout        超时时间，从调用时开始计算
+	 * @param unit           超时时间单位
+	 * @return {@link CompletableFuture}
+	 */
+	public CompletableFuture<ResultManager> execAsync(ParamContext param, FormulaManager formulaManager, long timeout, TimeUnit unit) {
+		return getCompiled(formulaManager).execAsync(param, timeout, unit);
+	}
+
+	/**
+	 * 编译公式
+	 * 同一个 FormulaManager 需要针对不同的参数上下文反复执行时使用，编译一次，多次执行。
+	 * 每次调用都会重新编译，得到的编译结果不会随着之后添加的公式变化。
+	 *
+	 * @param formulaManager 公式管理器
+	 * @return {@link CompiledFormulaSet}
+	 */
+	public CompiledFormulaSet compile(FormulaManager formulaManager) {
+		return CalculateExecutorBean.compile(formulaManager, executorManager, config);
+	}
+
+	/**
+	 * 批量执行
+	 * 同一套公式针对大量参数上下文计算时使用，公式只编译一次，参数上下文在线程池中并行计算
+	 *
+	 * @param formulaManager 公式管理器
+	 * @param params         参数上下文
+	 * @return {@link BatchResult} 计算结果的顺序和参数上下文的顺序一致
+	 */
+	public BatchResult execBatch(FormulaManager formulaManager, Iterable<ParamContext> params) {
+		return getCompiled(formulaManager).execBatch(params);
+	}
+
+	/**
+	 * 批量执行，计算结果通过回调返回
+	 *
+	 * @param formulaManager 公式管理器
+	 * @param params         参数上下文
+	 * @param callback       回调
+	 * @return {@link BatchStatistics}
+	 */
+	public BatchStatistics execBatch(FormulaManager formulaManager, Iterable<ParamContext> params, BatchCallback callback) {
+		return getCompiled(formulaManager).execBatch(params, callback);
+	}
+
+	/**
+	 * 场景计算
+	 * 在同一个基础参数上下文上分别应用每一组参数修改并行计算，没有受到修改影响的公式只计算一次
+	 *
+	 * @param formulaManager 公式管理器
+	 * @param base           基础参数上下文
+	 * @param overrides      每个场景的参数修改，key：参数名称 value：数值或者数值列表
+	 * @return {@link SweepResult} 场景的顺序和参数修改的顺序一致
+	 */
+	public SweepResult execSweep(FormulaManager formulaManager, ParamContext base, List<? extends Map<String, ?>> overrides) {
+		return getCompiled(formulaManager).execSweep(base, overrides);
+	}
+
+	/**
+	 * 流式执行
+	 * 列表参数通过迭代器分段读取，每一段的计算结果交给 sink，适合无法一次放入内存的超长列表
+	 *
+	 * @param formulaManager 公式管理器
+	 * @param stream         流式参数
+	 * @param sink           每一段计算结果的输出
+	 * @return long 计算的元素总数
+	 */
+	public long execStream(FormulaManager formulaManager, ParamStream stream, StreamSink sink) {
+		return getCompiled(formulaManager).execStream(stream, sink);
+	}
+
+	/**
+	 * 获取缓存的编译结果，公式或者配置发生变化时重新编译
+	 *
+	 * @param formulaManager 公式管理器
+	 * @return {@link CompiledFormulaSet}
+	 */
+	private CompiledFormulaSet getCompiled(FormulaManager formulaManager) {
+		if (formulaManager == null) {
+			throw new CalculateException("formulaManager 参数不能为 null ");
 		}
+		CachedFormulaSet cached = compiledCache.getIfPresent(formulaManager);
+		if (cached != null && cached.matches(formulaManager, executorManager, config)) {
+			return cached.compiledFormulaSet;
+		}
+		long version = executorManager.getVersion();
+		CachedFormulaSet compiled = new CachedFormulaSet(formulaManager, version, config.getRetainDecimal(), compile(formulaManager));
+		compiledCache.put(formulaManager, compiled);
+		return compiled.compiledFormulaSet;
 	}
 
-	private static class ExecutorManage {
+	/**
+	 * 缓存的编译结果，以及编译时的公式和配置
+	 * 公式被修改时会重新解析（{@link Formula#getAnalysis()} 返回新的对象），所以比较公式和解析结果是否是同一个对象就可以判断公式是否变化
+	 */
+	private static class CachedFormulaSet {
+
+		private final List<Formula> formulaList;
+
+		private final List<FormulaAnalysis> analysisList;
+
+		private final long executorVersion;
 
-		private final List<Executor> executorList = new ArrayList<>();
+		private final Integer retainDecimal;
 
-		{
-			executorList.add(new ListDataExecutor());
-			executorList.add(new SingleDataExecutor());
+		private final CompiledFormulaSet compiledFormulaSet;
+
+		private CachedFormulaSet(FormulaManager formulaManager, long executorVersion, Integer retainDecimal, CompiledFormulaSet compiledFormulaSet) {
+			this.formulaList = new ArrayList<>(formulaManager.getFormulaList());
+			this.analysisList = formulaList.stream().map(Formula::getAnalysis).collect(Collectors.toList());
+			this.executorVersion = executorVersion;
+			this.retainDecimal = retainDecimal;
+			this.compiledFormulaSet = compiledFormulaSet;
 		}
 
-		public Executor get(Formula formulaInstance) {
-			for (Executor executor : executorList) {
-				if (executor.canHandle(formulaInstance)) {
-					return executor;
+		private boolean matches(FormulaManager formulaManager, ExecutorManager executorManager, CalculateConfig config) {
+			List<Formula> currentList = formulaManager.getFormulaList();
+			if (currentList.size() != formulaList.size() || executorVersion != executorManager.getVersion()
+					|| !Objects.equals(retainDecimal, config.getRetainDecimal())) {
+				return false;
+			}
+			for (int i = 0; i < formulaList.size(); i++) {
+				Formula formula = currentList.get(i);
+				if (formula != formulaList.get(i) || formula.getAnalysis() != analysisList.get(i)) {
+					return false;
 				}
 			}
-			throw new RuntimeException("无法处理公式：" + formulaInstance);
+			return true;
 		}
+	}
+
+	private static class CalculateExecutorBean {
 
-		public static ExecutorManage getInstance() {
-			return new ExecutorManage();
+		public static CompiledFormulaSet compile(FormulaManager formulaManager, ExecutorManager executorManager, CalculateConfig config) {
+			if (formulaManager == null) {
+				throw new CalculateException("formulaManager 参数不能为 null ");
+			}
+			List<CompiledFormula> compiledFormulaList = new ArrayList<>();
+			MetricsListener metricsListener = config.getMetricsListener();
+			for (Formula formulaInstance : formulaManager.getFormulaList()) {
+				long start = metricsListener == null ? 0 : System.nanoTime();
+				compiledFormulaList.add(executorManager.compile(formulaInstance, config));
+				if (metricsListener != null) {
+					metricsListener.onCompile(formulaInstance, System.nanoTime() - start);
+				}
+			}
+			return new CompiledFormulaSet(compiledFormulaList, executorManager, config);
 		}
 	}
 }
@@ -0,0 +1,641 @@
+package com.github.byw.exec;
+
+import com.github.byw.exception.CalculateException;
+import com.github.byw.exception.CalculateTimeoutException;
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.exec.exector.CompiledFormula;
+import com.github.byw.exec.exector.ExecutionContext;
+import com.github.byw.exec.exector.ExecutorManager;
+import com.github.byw.exec.exector.ListDataExecutor;
+import com.github.byw.formula.FormulaDependency;
+import com.github.byw.metrics.MetricsListener;
+import com.github.byw.param.ParamContext;
+import com.github.byw.param.ParamManager;
+import com.github.byw.param.ParamStream;
+import com.github.byw.param.SynchronizedParamContext;
+import com.github.byw.result.BatchResult;
+import com.github.byw.result.BatchStatistics;
+import com.github.byw.result.DefaultResultManager;
+import com.github.byw.result.ResultManager;
+import com.github.byw.result.SweepResult;
+import com.google.common.collect.Lists;
+import lombok.SneakyThrows;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 编译后的公式集合
+ * <p>
+ * 由 {@link CalculateExecutor#compile} 创建，保存了每个公式的预解析结果和负责执行它的执行器。
+ * 同一套公式需要针对不同的参数上下文反复执行时，编译一次之后多次调用 {@link #exec(ParamContext)} 即可，执行时只需要绑定参数。
+ * <p>
+ * 配置了 {@link CalculateConfig#getFormulaPool()} 时，按照编译时分析出的依赖关系并行执行互不依赖的公式。
+ * <p>
+ * 同一个参数上下文修改了部分参数之后，可以调用 {@link #execIncremental(ParamContext)} 只重新计算受影响的公式。
+ * 列表参数太大无法一次放入内存时，可以调用 {@link #execStream(ParamStream, StreamSink)} 分段计算。
+ * 需要比较同一组参数在不同取值下的结果时，可以调用 {@link #execSweep(ParamContext, List)}。
+ * <p>
+ * ps: 编译结果是 FormulaManager 在编译时刻的快照，之后再向 FormulaManager 添加公式不会影响已经编译好的结果。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class CompiledFormulaSet {
+
+	/**
+	 * 批量执行时每个任务包含的参数上下文数量
+	 */
+	private static final int BATCH_CHUNK_SIZE = 64;
+
+	/**
+	 * 编译后的公式，顺序和公式添加的顺序一致
+	 */
+	private final List<CompiledFormula> compiledFormulaList;
+
+	/**
+	 * 每个公式读写的参数
+	 */
+	private final List<FormulaDependency> dependencyList;
+
+	/**
+	 * 每个公式必须等待哪些公式（索引）执行完成之后才能执行
+	 */
+	private final List<int[]> predecessorList;
+
+	/**
+	 * 不能增量计算的原因，为 null 说明可以增量计算
+	 */
+	private final String incrementalUnsupportedReason;
+
+	/**
+	 * 是否存在可以并行执行的公式。每个公式都依赖前一个公式时只能依次执行
+	 */
+	private final boolean parallelizable;
+
+	private final ExecutorManager executorManager;
+
+	private final CalculateConfig config;
+
+	CompiledFormulaSet(List<CompiledFormula> compiledFormulaList, ExecutorManager executorManager, CalculateConfig config) {
+		this.compiledFormulaList = Collections.unmodifiableList(compiledFormulaList);
+		this.executorManager = executorManager;
+		this.config = config;
+		this.dependencyList = compiledFormulaList.stream().map(t -> t.getFormula().getAnalysis().getDependency()).collect(Collectors.toList());
+		this.predecessorList = analyzePredecessors(dependencyList);
+		this.incrementalUnsupportedReason = analyzeIncremental(compiledFormulaList, dependencyList);
+		boolean parallelizable = false;
+		for (int i = 1; i < predecessorList.size(); i++) {
+			int[] predecessors = predecessorList.get(i);
+			if (predecessors.length == 0 || predecessors[predecessors.length - 1] != i - 1) {
+				parallelizable = true;
+				break;
+			}
+		}
+		this.parallelizable = parallelizable;
+	}
+
+	/**
+	 * 执行公式
+	 * 可以被多个线程同时调用，只要每个线程使用各自的参数上下文即可
+	 *
+	 * @param param 参数
+	 * @return {@link ResultManager}
+	 */
+	public ResultManager exec(ParamContext param) {
+		if (param == null) {
+			throw new CalculateException("param 参数不能为 null ");
+		}
+		return exec(new ExecutionContext(param, config));
+	}
+
+	/**
+	 * 异步执行
+	 * 在 {@link CalculateConfig#getAsyncExecutor()} 中执行，没有设置时运行环境支持虚拟线程则每次调用使用一个虚拟线程，否则使用公共线程池。
+	 * <p>
+	 * 取消返回的 CompletableFuture 之后，计算会在下一个检查点（公式之间、列表公式的索引之间以及结束条件的每次循环之间）停止。
+	 *
+	 * @param param 参数
+	 * @return {@link CompletableFuture}
+	 */
+	public CompletableFuture<ResultManager> execAsync(ParamContext param) {
+		if (param == null) {
+			throw new CalculateException("param 参数不能为 null ");
+		}
+		return execAsync(new ExecutionContext(param, config));
+	}
+
+	/**
+	 * 异步执行，并且限制执行时间
+	 * 超时时间从调用时开始计算（包括在线程池中等待的时间）。超时是协作式的：到达截止时间时返回的 CompletableFuture 不会立即结束，
+	 * 计算在下一个检查点（公式之间、列表公式的索引之间以及结束条件的每次循环之间）发现超时之后停止，
+	 * 这时 CompletableFuture 才以 {@link CalculateTimeoutException} 异常结束。单个表达式（包括自定义函数）执行期间不会被打断。
+	 *
+	 * @param param   参数
+	 * @param timeout 超时时间
+	 * @param unit    超时时间单位
+	 * @return {@link CompletableFuture}
+	 */
+	public CompletableFuture<ResultManager> execAsync(ParamContext param, long timeout, TimeUnit unit) {
+		if (param == null) {
+			throw new CalculateException("param 参数不能为 null ");
+		}
+		if (unit == null) {
+			throw new CalculateException("unit 参数不能为 null ");
+		}
+		return execAsync(new ExecutionContext(param, config, timeout, unit));
+	}
+
+	private CompletableFuture<ResultManager> execAsync(ExecutionContext context) {
+		Executor asyncExecutor = Optional.ofNullable(config.getAsyncExecutor()).orElseGet(DefaultAsyncExecutor::get);
+		CompletableFuture<ResultManager> future = CompletableFuture.supplyAsync(() -> exec(context), asyncExecutor);
+		future.whenComplete((result, e) -> {
+			if (future.isCancelled()) {
+				context.cancel();
+			}
+		});
+		return future;
+	}
+
+	private ResultManager exec(ExecutionContext context) {
+		ParamContext param = context.getParam();
+		MetricsListener metricsListener = config.getMetricsListener();
+		long start = metricsListener == null ? 0 : System.nanoTime();
+		ForkJoinPool formulaPool = config.getFormulaPool();
+		if (formulaPool != null && parallelizable) {
+			parallelExec(context, formulaPool, null);
+		} else {
+			for (CompiledFormula compiledFormula : compiledFormulaList) {
+				exec(compiledFormula, context);
+			}
+		}
+		if (metricsListener != null) {
+			metricsListener.onExec(compiledFormulaList.size(), param.getParamContext().size(), System.nanoTime() - start);
+		}
+		return new DefaultResultManager(param.getParamContext());
+	}
+
+	/**
+	 * 增量计算
+	 * <p>
+	 * 和电子表格一样，第一次调用时执行所有公式，之后每次调用只重新执行直接或者间接依赖了变化参数（{@link ParamContext#getChangedParamNames()}）的公式，
+	 * 其它公式的结果沿用上一次计算的结果。重新执行的公式会先删除上一次的结果，计算结果和使用新的参数上下文执行 {@link #exec(ParamContext)} 一致。
+	 * <p>
+	 * ps: 每个参数最多只能由一个公式写入，并且公式不能读取自身或者之后的公式写入的参数（例如 a = a + 1），否则抛出 {@link CalculateException}。
+	 * 参数上下文不记录变化（{@link ParamContext#getChangedParamNames()} 返回 null）时每次都执行所有公式。
+	 *
+	 * @param param 参数，多次调用时需要使用同一个参数上下文
+	 * @return {@link ResultManager}
+	 */
+	public ResultManager execIncremental(ParamContext param) {
+		if (param == null) {
+			throw new CalculateException("param 参数不能为 null ");
+		}
+		if (incrementalUnsupportedReason != null) {
+			throw new CalculateException("不能增量计算：" + incrementalUnsupportedReason);
+		}
+		Set<String> changedParamNames = param.getChangedParamNames();
+		if (changedParamNames == null) {
+			ResultManager resultManager = exec(param);
+			param.markCalculated();
+			return resultManager;
+		}
+		boolean[] dirty = analyzeDirty(changedParamNames);
+		removeDirtyResults(param, dirty, changedParamNames);
+		execSelected(param, dirty, config.getFormulaPool());
+		param.markCalculated();
+		return new DefaultResultManager(param.getParamContext());
+	}
+
+	/**
+	 * 流式执行
+	 * <p>
+	 * 每次从流式参数中读取一段数据放入新的参数上下文，执行所有公式之后把这一段的结果交给 sink，然后丢弃这一段的参数上下文，
+	 * 内存占用只和每一段的长度有关。每一段内部的执行方式和 {@link #exec(ParamContext)} 相同（包括 parallelList）。
+	 * <p>
+	 * ps: 每一段是独立计算的，所以公式不能直接读取整个流式列表或者列表公式的结果（例如 listSum(a)），否则抛出 {@link CalculateException}。
+	 *
+	 * @param stream 流式参数
+	 * @param sink   每一段计算结果的输出
+	 * @return long 计算的元素总数
+	 */
+	public long execStream(ParamStream stream, StreamSink sink) {
+		if (stream == null) {
+			throw new CalculateException("stream 参数不能为 null ");
+		}
+		if (sink == null) {
+			throw new CalculateException("sink 参数不能为 null ");
+		}
+		Set<String> listNames = new HashSet<>(stream.getListParamNames());
+		for (int i = 0; i < compiledFormulaList.size(); i++) {
+			if (compiledFormulaList.get(i).getExecutorClass() == ListDataExecutor.class) {
+				listNames.addAll(dependencyList.get(i).getWriteSet());
+			}
+		}
+		for (int i = 0; i < compiledFormulaList.size(); i++) {
+			for (String name : dependencyList.get(i).getWholeReadSet()) {
+				if (listNames.contains(name)) {
+					throw new CalculateException("不能流式执行：" + compiledFormulaList.get(i).getFormula().getFormulaList() + " 读取了整个列表 " + name);
+				}
+			}
+		}
+		while (true) {
+			long offset = stream.getOffset();
+			ParamContext param = createParam();
+			int size = stream.readChunk(param);
+			if (size == 0) {
+				return offset;
+			}
+			sink.accept(offset, size, exec(param));
+		}
+	}
+
+	/**
+	 * 是否可以增量计算
+	 *
+	 * @return boolean
+	 */
+	public boolean isIncrementalSupported() {
+		return incrementalUnsupportedReason == null;
+	}
+
+	/**
+	 * 批量执行
+	 * 参数上下文在线程池（{@link CalculateConfig#getFormulaPool()}，没有设置时使用公共线程池）中并行计算，所有参数上下文共用同一份编译结果
+	 *
+	 * @param params 参数上下文，每个参数上下文只能出现一次
+	 * @return {@link BatchResult} 计算结果的顺序和参数上下文的顺序一致
+	 */
+	public BatchResult execBatch(Iterable<ParamContext> params) {
+		if (params == null) {
+			throw new CalculateException("params 参数不能为 null ");
+		}
+		List<ParamContext> paramList = Lists.newArrayList(params);
+		ResultManager[] results = new ResultManager[paramList.size()];
+		BatchStatistics statistics = execBatch(paramList, (index, param, resultManager) -> results[index] = resultManager);
+		return new BatchResult(Arrays.asList(results), statistics);
+	}
+
+	/**
+	 * 批量执行
+	 * 计算结果通过回调返回，不会保存所有结果，适合参数上下文数量很大或者逐个生成的场景。
+	 * 同一时刻提交到线程池的任务数量有上限，参数上下文按需从 params 中读取。任何一个参数上下文计算失败都会停止读取新的参数上下文，
+	 * 等待已经提交的任务结束后抛出异常。
+	 *
+	 * @param params   参数上下文
+	 * @param callback 回调
+	 * @return {@link BatchStatistics}
+	 */
+	public BatchStatistics execBatch(Iterable<ParamContext> params, BatchCallback callback) {
+		if (params == null) {
+			throw new CalculateException("params 参数不能为 null ");
+		}
+		if (callback == null) {
+			throw new CalculateException("callback 参数不能为 null ");
+		}
+		ForkJoinPool pool = Optional.ofNullable(config.getFormulaPool()).orElse(ForkJoinPool.commonPool());
+		// 同时提交的任务数量上限，所有许可都归还说明已经提交的任务全部结束。不保存任务本身，计算完成的参数上下文可以立刻被回收
+		int maxInFlight = pool.getParallelism() * 2;
+		Semaphore permits = new Semaphore(maxInFlight);
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		AtomicLong count = new AtomicLong();
+		long start = System.nanoTime();
+		Iterator<ParamContext> iterator = params.iterator();
+		int index = 0;
+		while (iterator.hasNext() && error.get() == null) {
+			List<ParamContext> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+			while (iterator.hasNext() && chunk.size() < BATCH_CHUNK_SIZE) {
+				chunk.add(iterator.next());
+			}
+			int startIndex = index;
+			index += chunk.size();
+			permits.acquireUninterruptibly();
+			pool.execute(() -> {
+				try {
+					for (int i = 0; i < chunk.size() && error.get() == null; i++) {
+						ParamContext param = chunk.get(i);
+						callback.accept(startIndex + i, param, exec(param));
+						count.incrementAndGet();
+					}
+				} catch (Throwable e) {
+					error.compareAndSet(null, e);
+				} finally {
+					permits.release();
+				}
+			});
+		}
+		permits.acquireUninterruptibly(maxInFlight);
+		Throwable throwable = error.get();
+		if (throwable instanceof RuntimeException) {
+			throw (RuntimeException) throwable;
+		}
+		if (throwable instanceof Error) {
+			throw (Error) throwable;
+		}
+		return new BatchStatistics(count.get(), System.nanoTime() - start, pool.getParallelism());
+	}
+
+	/**
+	 * 场景计算（what-if）
+	 * <p>
+	 * 在同一个基础参数上下文上分别应用每一组参数修改，得到每个场景的计算结果。所有场景共用同一份编译结果，
+	 * 在线程池（{@link CalculateConfig#getFormulaPool()}，没有设置时使用公共线程池）中并行计算。
+	 * <p>
+	 * 可以增量计算（{@link #isIncrementalSupported()}）时，至少在一个场景中没有受到修改影响的公式只在共用的参数上下文中执行一次，
+	 * 每个场景通过 {@link ParamContext#fork()} 共用这些结果，只重新执行受到自己的修改影响的公式。否则每个场景执行所有公式。
+	 * <p>
+	 * ps: 基础参数上下文不会被修改。
+	 *
+	 * @param base      基础参数上下文，需要支持 {@link ParamContext#fork()}
+	 * @param overrides 每个场景的参数修改，key：参数名称 value：数值或者数值列表
+	 * @return {@link SweepResult} 场景的顺序和参数修改的顺序一致
+	 */
+	public SweepResult execSweep(ParamContext base, List<? extends Map<String, ?>> overrides) {
+		if (base == null) {
+			throw new CalculateException("base 参数不能为 null ");
+		}
+		if (overrides == null) {
+			throw new CalculateException("overrides 参数不能为 null ");
+		}
+		long start = System.nanoTime();
+		int scenarioCount = overrides.size();
+		boolean[][] dirtyList = new boolean[scenarioCount][];
+		for (int i = 0; i < scenarioCount; i++) {
+			Map<String, ?> override = overrides.get(i);
+			if (override == null) {
+				throw new CalculateException("第 " + i + " 个场景的参数修改为 null");
+			}
+			if (incrementalUnsupportedReason == null) {
+				dirtyList[i] = analyzeDirty(override.keySet());
+			} else {
+				dirtyList[i] = new boolean[compiledFormulaList.size()];
+				Arrays.fill(dirtyList[i], true);
+			}
+		}
+		// 至少在一个场景中没有受到影响的公式，在共用的参数上下文中执行一次
+		boolean[] shared = new boolean[compiledFormulaList.size()];
+		boolean[] sharedByAll = new boolean[compiledFormulaList.size()];
+		for (int j = 0; j < shared.length; j++) {
+			sharedByAll[j] = scenarioCount > 0;
+			for (boolean[] dirty : dirtyList) {
+				shared[j] |= !dirty[j];
+				sharedByAll[j] &= !dirty[j];
+			}
+		}
+		ParamContext sharedParam = base.fork();
+		int sharedFormulaCount = count(shared);
+		if (sharedFormulaCount > 0) {
+			execSelected(sharedParam, shared, config.getFormulaPool());
+		}
+
+		Set<String> columnNameSet = new LinkedHashSet<>();
+		Set<String> sharedColumnNames = new HashSet<>();
+		for (int j = 0; j < dependencyList.size(); j++) {
+			for (String name : dependencyList.get(j).getWriteSet()) {
+				if (FormulaDependency.isConditionResult(name)) {
+					continue;
+				}
+				columnNameSet.add(name);
+				if (sharedByAll[j]) {
+					sharedColumnNames.add(name);
+				}
+			}
+		}
+		List<String> columnNames = new ArrayList<>(columnNameSet);
+		Object[][] values = new Object[scenarioCount][];
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(scenarioCount);
+		for (int i = 0; i < scenarioCount; i++) {
+			int scenario = i;
+			tasks.add(ForkJoinTask.adapt(() -> {
+				// fork 只读取共用的参数上下文，每个场景在自己的任务中创建
+				ParamContext param = sharedParam.fork();
+				Map<String, ?> override = overrides.get(scenario);
+				if (incrementalUnsupportedReason == null) {
+					removeDirtyResults(param, dirtyList[scenario], override.keySet());
+				}
+				override.forEach((name, value) -> applyOverride(param, name, value));
+				execSelected(param, dirtyList[scenario], null);
+				ParamManager paramManager = param.getParamContext();
+				Object[] row = new Object[columnNames.size()];
+				for (int j = 0; j < row.length; j++) {
+					String name = columnNames.get(j);
+					row[j] = paramManager.containsKey(name) ? paramManager.get(name) : null;
+				}
+				values[scenario] = row;
+			}));
+		}
+		ForkJoinPool pool = Optional.ofNullable(config.getFormulaPool()).orElse(ForkJoinPool.commonPool());
+		pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+		long scenarioFormulaCount = Arrays.stream(dirtyList).mapToLong(CompiledFormulaSet::count).sum();
+		return new SweepResult(columnNames, values, sharedColumnNames, sharedFormulaCount, scenarioFormulaCount, System.nanoTime() - start);
+	}
+
+	/**
+	 * 执行选中的公式
+	 *
+	 * @param param       参数
+	 * @param selected    需要执行的公式
+	 * @param formulaPool 线程池，为 null 时依次执行
+	 */
+	private void execSelected(ParamContext param, boolean[] selected, ForkJoinPool formulaPool) {
+		MetricsListener metricsListener = config.getMetricsListener();
+		long start = metricsListener == null ? 0 : System.nanoTime();
+		ExecutionContext context = new ExecutionContext(param, config);
+		int selectedCount = count(selected);
+		if (formulaPool != null && selectedCount > 1) {
+			parallelExec(context, formulaPool, selected);
+		} else {
+			for (int i = 0; i < selected.length; i++) {
+				if (selected[i]) {
+					exec(compiledFormulaList.get(i), context);
+				}
+			}
+		}
+		if (metricsListener != null) {
+			metricsListener.onExec(selectedCount, param.getParamContext().size(), System.nanoTime() - start);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void applyOverride(ParamContext param, String name, Object value) {
+		if (value instanceof Number) {
+			param.addNumber(name, (Number) value);
+		} else if (value instanceof List) {
+			param.addArray(name, (List<Number>) value);
+		} else {
+			throw new CalculateException("场景参数 " + name + " 只能是数值或者数值列表，实际为 " + value);
+		}
+	}
+
+	/**
+	 * 按照依赖关系并行执行，公式在所有前置公式执行完成之后才会提交到线程池
+	 *
+	 * @param context     执行上下文
+	 * @param formulaPool 线程池
+	 * @param selected    需要执行的公式，为 null 时执行所有公式
+	 */
+	private void parallelExec(ExecutionContext context, ForkJoinPool formulaPool, boolean[] selected) {
+		ExecutionContext synchronizedContext = context.withParam(new SynchronizedParamContext(context.getParam()));
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[compiledFormulaList.size()];
+		for (int i = 0; i < futures.length; i++) {
+			if (selected != null && !selected[i]) {
+				futures[i] = CompletableFuture.completedFuture(null);
+				continue;
+			}
+			CompiledFormula compiledFormula = compiledFormulaList.get(i);
+			Runnable task = () -> exec(compiledFormula, synchronizedContext);
+			int[] predecessors = predecessorList.get(i);
+			if (predecessors.length == 0) {
+				futures[i] = CompletableFuture.runAsync(task, formulaPool);
+				continue;
+			}
+			CompletableFuture<?>[] predecessorFutures = new CompletableFuture<?>[predecessors.length];
+			for (int j = 0; j < predecessors.length; j++) {
+				predecessorFutures[j] = futures[predecessors[j]];
+			}
+			futures[i] = CompletableFuture.allOf(predecessorFutures).thenRunAsync(task, formulaPool);
+		}
+		try {
+			CompletableFuture.allOf(futures).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * 分析哪些公式直接或者间接依赖了发生变化的参数，需要重新执行
+	 *
+	 * @param changedParamNames 发生变化的参数
+	 * @return boolean[] 和公式的顺序一致
+	 */
+	private boolean[] analyzeDirty(Set<String> changedParamNames) {
+		boolean[] dirty = new boolean[compiledFormulaList.size()];
+		Set<String> dirtyNames = new HashSet<>(changedParamNames);
+		for (int i = 0; i < dirty.length; i++) {
+			FormulaDependency dependency = dependencyList.get(i);
+			if (!Collections.disjoint(dependency.getReadSet(), dirtyNames) || !Collections.disjoint(dependency.getWriteSet(), changedParamNames)) {
+				dirty[i] = true;
+				dirtyNames.addAll(dependency.getWriteSet());
+			}
+		}
+		return dirty;
+	}
+
+	/**
+	 * 清除需要重新执行的公式上一次的结果，避免这一次不满足执行条件时读到旧的结果。使用者直接设置的参数不清除
+	 *
+	 * @param param             参数
+	 * @param dirty             需要重新执行的公式
+	 * @param changedParamNames 发生变化的参数
+	 */
+	private void removeDirtyResults(ParamContext param, boolean[] dirty, Set<String> changedParamNames) {
+		for (int i = 0; i < dirty.length; i++) {
+			if (dirty[i]) {
+				dependencyList.get(i).getWriteSet().stream().filter(t -> !changedParamNames.contains(t)).forEach(param::remove);
+			}
+		}
+	}
+
+	private static int count(boolean[] selected) {
+		int count = 0;
+		for (boolean b : selected) {
+			if (b) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@SneakyThrows
+	private ParamContext createParam() {
+		ParamContext paramContext = (ParamContext) config.getParamContextClass().newInstance();
+		paramContext.setCalculateConfig(config);
+		return paramContext;
+	}
+
+	private void exec(CompiledFormula compiledFormula, ExecutionContext context) {
+		context.checkCancelled();
+		executorManager.get(compiledFormula.getExecutorClass()).exec(compiledFormula, context);
+		context.checkContextEntries();
+	}
+
+	private static List<int[]> analyzePredecessors(List<FormulaDependency> dependencyList) {
+		List<int[]> predecessorList = new ArrayList<>();
+		for (int i = 0; i < dependencyList.size(); i++) {
+			FormulaDependency dependency = dependencyList.get(i);
+			predecessorList.add(IntStream.range(0, i).filter(j -> dependency.dependsOn(dependencyList.get(j))).toArray());
+		}
+		return predecessorList;
+	}
+
+	/**
+	 * 分析是否可以增量计算：每个参数最多由一个公式写入，并且写入的参数没有被当前或者之前的公式读取
+	 *
+	 * @return {@link String} 不能增量计算的原因，可以增量计算时返回 null
+	 */
+	private static String analyzeIncremental(List<CompiledFormula> compiledFormulaList, List<FormulaDependency> dependencyList) {
+		Set<String> readNames = new HashSet<>();
+		Set<String> writeNames = new HashSet<>();
+		for (int i = 0; i < dependencyList.size(); i++) {
+			FormulaDependency dependency = dependencyList.get(i);
+			readNames.addAll(dependency.getReadSet());
+			for (String name : dependency.getWriteSet()) {
+				if (FormulaDependency.isConditionResult(name)) {
+					continue;
+				}
+				if (readNames.contains(name)) {
+					return compiledFormulaList.get(i).getFormula().getFormulaList() + " 写入的参数 " + name + " 被当前或者之前的公式读取";
+				}
+				if (!writeNames.add(name)) {
+					return compiledFormulaList.get(i).getFormula().getFormulaList() + " 写入的参数 " + name + " 已经被其它公式写入";
+				}
+			}
+		}
+		return null;
+	}
+
+	public List<CompiledFormula> getCompiledFormulaList() {
+		return compiledFormulaList;
+	}
+
+	/**
+	 * 默认的异步执行线程池，第一次使用时创建
+	 * 运行环境（JDK 21 及以上）支持虚拟线程时每个任务使用一个虚拟线程，否则使用公共线程池
+	 *
+	 * @author byw
+	 * @date 2026/10/18
+	 */
+	private static class DefaultAsyncExecutor {
+
+		private static final Executor INSTANCE = create();
+
+		static Executor get() {
+			return INSTANCE;
+		}
+
+		private static Executor create() {
+			try {
+				return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException e) {
+				return ForkJoinPool.commonPool();
+			}
+		}
+	}
+}
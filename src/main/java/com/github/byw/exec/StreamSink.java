@@ -0,0 +1,24 @@
+package com.github.byw.exec;
+
+import com.github.byw.result.ResultManager;
+
+/**
+ * 流式执行的输出
+ * <p>
+ * 每一段计算完成之后按顺序调用一次，调用结束后这一段的参数上下文就会被丢弃，需要的结果要在回调中取出或者写出。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+@FunctionalInterface
+public interface StreamSink {
+
+	/**
+	 * 处理一段的计算结果
+	 *
+	 * @param offset        这一段第一个元素在整个列表中的索引
+	 * @param size          这一段的元素数量
+	 * @param resultManager 这一段的计算结果，列表结果的长度等于 size
+	 */
+	void accept(long offset, int size, ResultManager resultManager);
+}
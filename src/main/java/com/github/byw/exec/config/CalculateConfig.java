@@ -1,13 +1,18 @@
 package com.github.byw.exec.config;
 
+import com.github.byw.exception.CalculateException;
 import com.github.byw.formula.DefaultFormulaManager;
 import com.github.byw.formula.FormulaManager;
 import com.github.byw.log.LogOperator;
 import com.github.byw.log.PrintLogOperator;
+import com.github.byw.metrics.MetricsListener;
 import com.github.byw.param.DefaultParam;
 import com.github.byw.param.ParamContext;
 import lombok.Data;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * 计算配置
  *
@@ -64,6 +69,100 @@ public class CalculateConfig {
 	 */
 	private Class<?> paramContextClass = DefaultParam.class;
 
+	/**
+	 * 是否启用原生表达式。默认启用。
+	 * <p>
+	 * 启用后只包含四则运算、比较、逻辑运算、round 以及内置函数的公式直接在 Java 中计算，计算规则和 QLExpress 的高精度模式一致，
+	 * 其它公式（包括调用了自定义函数的公式）仍然交给 QLExpress。关闭后所有公式都交给 QLExpress。
+	 */
+	private boolean nativeExpression = true;
+
+	/**
+	 * 数值模式。默认是高精度模式 {@link NumericMode#DECIMAL}。
+	 * <p>
+	 * {@link NumericMode#DOUBLE} 模式下列表参数和列表结果保存在 double[] 中（{@link com.github.byw.param.DoubleList}），
+	 * 原生表达式直接使用 double 计算，适合可以接受 double 精度的统计分析场景。
+	 * ps: 这个模式下列表公式的结果只能是数值。
+	 */
+	private NumericMode numericMode = NumericMode.DECIMAL;
+
+	/**
+	 * 并行执行公式使用的线程池。默认不设置，所有公式按照添加顺序依次执行。
+	 * <p>
+	 * 设置之后会根据公式读写的参数分析出公式之间的依赖关系，互不依赖的公式在线程池中并行执行，计算结果和依次执行一致。
+	 * 写入同一个参数的公式仍然按照添加顺序执行。
+	 */
+	private ForkJoinPool formulaPool;
+
+	/**
+	 * 此属性只在参数是列表类型的时候生效。默认关闭。
+	 * <p>
+	 * 开启后列表公式会把索引分成多段，在线程池（{@link #formulaPool}，没有设置时使用公共线程池）中并行计算，全部完成后再写入结果列表。
+	 * 公式有结束条件、读取了其它索引的结果（例如 listSum(a) 而 a 是当前公式的结果）或者指定了 currentIndex 时自动按顺序执行。
+	 */
+	private boolean parallelList = false;
+
+	/**
+	 * 此属性只在开启 parallelList 的时候生效。
+	 * <p>
+	 * 并行计算时每一段包含的索引数量，参数长度不超过这个数量时按顺序执行。
+	 */
+	private int parallelListChunkSize = 10000;
+
+	/**
+	 * 执行指标监听器。默认不设置，不采集任何指标。
+	 * <p>
+	 * 设置之后会报告每个公式的编译耗时、执行耗时、执行的索引数量、结束条件导致的循环次数，以及每次执行的参数上下文大小和编译缓存的命中情况。
+	 * 可以使用内置的 {@link com.github.byw.metrics.HistogramMetricsListener}。
+	 * ps: 编译缓存的命中情况只对设置监听器之后创建的 CalculateExecutor 生效。
+	 */
+	private MetricsListener metricsListener;
+
+	/**
+	 * 此属性只在公式设置了结束条件的时候生效。默认不限制。
+	 * <p>
+	 * 公式不满足结束条件时最多循环执行的次数（列表公式是每个索引的次数），超过之后抛出异常，避免条件永远无法满足时死循环。
+	 * 单个公式可以通过 {@link com.github.byw.formula.FormulaConditions#maxIterations()} 单独设置。
+	 */
+	private Integer maxIterations;
+
+	/**
+	 * 执行预算：每个公式在一次执行中不满足结束条件时最多循环执行的总次数（列表公式是所有索引的次数之和）。默认不限制。
+	 * <p>
+	 * 和 {@link #maxIterations} 不同，这里限制的是整个公式的循环次数，列表很长时即使每个索引的循环次数都不多也会被限制。
+	 * 超过之后抛出 {@link com.github.byw.exception.CalculateBudgetException}。
+	 */
+	private Long maxFormulaIterations;
+
+	/**
+	 * 执行预算：每次执行（exec、execIncremental、execAsync 以及批量执行中的每个参数上下文）最长的执行时间，单位毫秒。默认不限制。
+	 * <p>
+	 * 在公式之间、列表公式的索引之间以及结束条件的每次循环之间检查，超过之后抛出 {@link com.github.byw.exception.CalculateTimeoutException}。
+	 * execAsync 同时设置了超时时间时以先到的时间为准。
+	 */
+	private Long maxExecMillis;
+
+	/**
+	 * 执行预算：参数上下文中最多的参数数量（包括计算结果）。默认不限制。
+	 * <p>
+	 * 每个公式执行之后检查，超过之后抛出 {@link com.github.byw.exception.CalculateBudgetException}。
+	 */
+	private Integer maxContextEntries;
+
+	/**
+	 * 执行预算：列表公式的最大长度（包括通过 paramTotalSize 指定的长度）。默认不限制。
+	 * <p>
+	 * 在创建结果列表之前检查，超过之后抛出 {@link com.github.byw.exception.CalculateBudgetException}，避免一次分配过多的内存。
+	 */
+	private Integer maxListSize;
+
+	/**
+	 * 异步执行（{@link com.github.byw.exec.CalculateExecutor#execAsync}）使用的线程池。默认不设置。
+	 * <p>
+	 * 没有设置时，运行环境支持虚拟线程（JDK 21 及以上）则每次调用使用一个虚拟线程，否则使用公共线程池。
+	 */
+	private Executor asyncExecutor;
+
 	public CalculateConfig() {
 	}
 
@@ -102,4 +201,82 @@ public class CalculateConfig {
 		this.paramContextClass = paramContextClass;
 		return this;
 	}
+
+	public CalculateConfig setNativeExpression(boolean nativeExpression) {
+		this.nativeExpression = nativeExpression;
+		return this;
+	}
+
+	public CalculateConfig setFormulaPool(ForkJoinPool formulaPool) {
+		this.formulaPool = formulaPool;
+		return this;
+	}
+
+	public CalculateConfig setParallelList(boolean parallelList) {
+		this.parallelList = parallelList;
+		return this;
+	}
+
+	public CalculateConfig setParallelListChunkSize(int parallelListChunkSize) {
+		if (parallelListChunkSize <= 0) {
+			throw new CalculateException("parallelListChunkSize 必须大于 0");
+		}
+		this.parallelListChunkSize = parallelListChunkSize;
+		return this;
+	}
+
+	public CalculateConfig setNumericMode(NumericMode numericMode) {
+		this.numericMode = numericMode;
+		return this;
+	}
+
+	public CalculateConfig setMetricsListener(MetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+		return this;
+	}
+
+	public CalculateConfig setMaxIterations(Integer maxIterations) {
+		if (maxIterations != null && maxIterations < 0) {
+			throw new CalculateException("maxIterations 不能小于 0");
+		}
+		this.maxIterations = maxIterations;
+		return this;
+	}
+
+	public CalculateConfig setAsyncExecutor(Executor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+		return this;
+	}
+
+	public CalculateConfig setMaxFormulaIterations(Long maxFormulaIterations) {
+		if (maxFormulaIterations != null && maxFormulaIterations < 0) {
+			throw new CalculateException("maxFormulaIterations 不能小于 0");
+		}
+		this.maxFormulaIterations = maxFormulaIterations;
+		return this;
+	}
+
+	public CalculateConfig setMaxExecMillis(Long maxExecMillis) {
+		if (maxExecMillis != null && maxExecMillis <= 0) {
+			throw new CalculateException("maxExecMillis 必须大于 0");
+		}
+		this.maxExecMillis = maxExecMillis;
+		return this;
+	}
+
+	public CalculateConfig setMaxContextEntries(Integer maxContextEntries) {
+		if (maxContextEntries != null && maxContextEntries <= 0) {
+			throw new CalculateException("maxContextEntries 必须大于 0");
+		}
+		this.maxContextEntries = maxContextEntries;
+		return this;
+	}
+
+	public CalculateConfig setMaxListSize(Integer maxListSize) {
+		if (maxListSize != null && maxListSize <= 0) {
+			throw new CalculateException("maxListSize 必须大于 0");
+		}
+		this.maxListSize = maxListSize;
+		return this;
+	}
 }
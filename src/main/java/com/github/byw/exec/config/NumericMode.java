@@ -0,0 +1,21 @@
+package com.github.byw.exec.config;
+
+/**
+ * 数值模式
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public enum NumericMode {
+
+	/**
+	 * 高精度模式，数值使用 BigDecimal 计算，和 QLExpress 的高精度模式一致
+	 */
+	DECIMAL,
+
+	/**
+	 * double 模式，列表参数和结果保存在 double[] 中，原生表达式直接使用 double 计算。
+	 * 适合可以接受 double 精度的统计分析场景，内存占用和 GC 压力都小很多
+	 */
+	DOUBLE
+}
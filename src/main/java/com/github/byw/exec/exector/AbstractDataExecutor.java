@@ -1,20 +1,26 @@
 package com.github.byw.exec.exector;
 
+import com.github.byw.exception.CalculateBudgetException;
+import com.github.byw.exception.CalculateException;
 import com.github.byw.exec.config.CalculateConfig;
-import com.github.byw.exec.operator.*;
+import com.github.byw.exec.expression.CompiledExpression;
+import com.github.byw.exec.expression.ExpressionCompiler;
 import com.github.byw.formula.Formula;
-import com.github.byw.log.LogOperator;
+import com.github.byw.formula.FormulaConditions;
+import com.github.byw.metrics.MetricsListener;
 import com.github.byw.param.ParamContext;
-import com.github.byw.param.ParamContext;
-import com.ql.util.express.ExpressRunner;
 import com.ql.util.express.Operator;
-import lombok.SneakyThrows;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.Supplier;
+
 /**
  * 抽象数据执行程序
+ * <p>
+ * 执行器不保存任何执行状态：一次 exec 调用共用的状态保存在 {@link ExecutionContext} 中，
+ * 每个公式自己的执行状态保存在 {@link ExecutionFrame} 中，它们沿着调用链向下传递，所以同一个执行器可以同时被多个线程使用。
  *
  * @author byw
  * @date 2023/02/01
@@ -23,68 +29,151 @@ public abstract class AbstractDataExecutor implements Executor {
 
 	protected static final Logger LOGGER = LoggerFactory.getLogger(AbstractDataExecutor.class);
 
-	private final ExpressRunner RUNNER = new ExpressRunner(true, false);
+	private final ExpressionCompiler COMPILER;
 
 	protected static final char EQUAL = '=';
 
-	protected ParamContext param;
-
-	protected CalculateConfig config;
-
-	private LogOperator logOperator;
+	protected AbstractDataExecutor() {
+		this(new ExpressionCompiler(true));
+	}
 
-	{
-		RUNNER.addFunction("listMax", new ListMax());
-		RUNNER.addFunction("listMin", new ListMin());
-		RUNNER.addFunction("listSum", new ListSum());
-		RUNNER.addFunction("defaultZero", new DefaultZero());
-		RUNNER.addFunction("default", new Default());
+	/**
+	 * @param compiler 共享的表达式编译器，由 {@link ExecutorManager} 统一创建
+	 */
+	protected AbstractDataExecutor(ExpressionCompiler compiler) {
+		this.COMPILER = compiler;
 	}
 
-	@SneakyThrows
 	@Override
 	public void exec(Formula formulaInstance, ParamContext param, CalculateConfig config) {
-		this.param = param;
-		this.config = config;
-		this.logOperator = (LogOperator) config.getLogOperatorClass().newInstance();
-		doExec(formulaInstance);
+		exec(compile(formulaInstance, config), new ExecutionContext(param, config));
+	}
+
+	@Override
+	public void exec(CompiledFormula compiledFormula, ExecutionContext context) {
+		if (compiledFormula.getExecutorClass() != getClass()) {
+			throw new CalculateException(compiledFormula + " 不是由 " + getClass().getSimpleName() + " 编译的");
+		}
+		ExecutionFrame frame = createFrame(context);
+		MetricsListener metricsListener = context.getConfig().getMetricsListener();
+		if (metricsListener == null) {
+			doExec(compiledFormula, frame);
+			return;
+		}
+		long start = System.nanoTime();
+		doExec(compiledFormula, frame);
+		long nanos = System.nanoTime() - start;
+		if (frame.loopCount > 0) {
+			metricsListener.onLoop(compiledFormula.getFormula(), frame.loopIterationCount);
+		}
+		metricsListener.onEvaluate(compiledFormula.getFormula(), nanos, frame.evaluatedIndexCount, frame.loopIterationCount);
+	}
+
+	/**
+	 * 创建公式的执行状态，需要保存额外状态的执行器可以返回 {@link ExecutionFrame} 的子类
+	 *
+	 * @param context 执行上下文
+	 * @return {@link ExecutionFrame}
+	 */
+	protected ExecutionFrame createFrame(ExecutionContext context) {
+		return new ExecutionFrame(context);
 	}
 
 	/**
 	 * 执行计算操作
 	 *
-	 * @param formulaInstance 公式实例
+	 * @param compiledFormula 编译后的公式
+	 * @param frame           当前公式的执行状态
 	 */
-	protected abstract void doExec(Formula formulaInstance);
+	protected abstract void doExec(CompiledFormula compiledFormula, ExecutionFrame frame);
 
 	@Override
 	public void registerFunction(String name, Operator operator) {
-		RUNNER.addFunction(name, operator);
+		COMPILER.addFunction(name, operator);
 	}
 
 	/**
-	 * 执行公式，并获取 bool 类型的结果
+	 * 编译表达式
+	 * 属于常见子集的公式直接在 Java 中求值，其它公式交给 QLExpress
 	 *
 	 * @param formula 公式
-	 * @param param   参数
+	 * @return {@link CompiledExpression}
+	 */
+	protected CompiledExpression compileExpression(String formula) {
+		return COMPILER.compile(formula);
+	}
+
+	/**
+	 * 执行编译后的表达式，并获取 bool 类型的结果
+	 *
+	 * @param expression 编译后的表达式
+	 * @param param      参数
 	 * @return {@link Boolean}
 	 */
-	@SneakyThrows
-	protected Boolean executeForBool(String formula, ParamContext param) {
-		return (Boolean) RUNNER.execute(formula, param.getParamContext(), null, true, false);
+	protected Boolean executeForBool(CompiledExpression expression, ParamContext param) {
+		return (Boolean) expression.execute(param.getParamContext());
+	}
+
+	/**
+	 * 执行编译后的表达式
+	 *
+	 * @param expression 编译后的表达式
+	 * @param param      参数
+	 */
+	protected void execute(CompiledExpression expression, ParamContext param) {
+		expression.execute(param.getParamContext());
 	}
 
 	/**
-	 * 执行
+	 * 得到公式的最大循环次数，公式没有单独设置时使用配置中的数值
 	 *
+	 * @param frame   当前公式的执行状态
 	 * @param formula 公式
-	 * @param param   参数
+	 * @return {@link Integer}，为 null 时不限制
+	 */
+	protected Integer maxIterations(ExecutionFrame frame, Formula formula) {
+		FormulaConditions conditions = formula.getConditions();
+		Integer maxIterations = conditions == null ? null : conditions.maxIterations();
+		return maxIterations != null ? maxIterations : frame.getConfig().getMaxIterations();
+	}
+
+	/**
+	 * 开始一次循环之前的检查
+	 * 检查计算是否已经取消或者超时、当前循环的次数是否超过了最大循环次数，以及整个公式的循环次数是否超过了
+	 * {@link CalculateConfig#getMaxFormulaIterations()}
+	 *
+	 * @param frame         当前公式的执行状态
+	 * @param formula       公式
+	 * @param iterations    当前的循环次数
+	 * @param maxIterations 最大循环次数，为 null 时不限制
+	 * @param position      循环的位置（用于异常信息），例如列表公式的索引
 	 */
-	@SneakyThrows
-	protected void execute(String formula, ParamContext param) {
-		RUNNER.execute(formula, param.getParamContext(), null, true, false);
+	protected void checkIterations(ExecutionFrame frame, Formula formula, long iterations, Integer maxIterations, String position) {
+		frame.getContext().checkCancelled();
+		frame.loopIterationCount++;
+		if (maxIterations != null && iterations > maxIterations) {
+			throw new CalculateBudgetException("maxIterations", "公式 {0} {1}循环了 {2} 次仍然没有满足结束条件", String.valueOf(formula.getFormulaList()),
+					position, String.valueOf(maxIterations));
+		}
+		Long maxFormulaIterations = frame.getConfig().getMaxFormulaIterations();
+		if (maxFormulaIterations != null && frame.loopIterationCount > maxFormulaIterations) {
+			throw new CalculateBudgetException("maxFormulaIterations", "公式 {0} 一共循环了 {1} 次，超过了上限", String.valueOf(formula.getFormulaList()),
+					String.valueOf(maxFormulaIterations));
+		}
 	}
 
+	/**
+	 * 报告一次循环的次数
+	 * 执行指标不在这里报告，公式执行完成后按照整个公式汇总报告一次，不会每个索引回调一次
+	 *
+	 * @param frame      当前公式的执行状态
+	 * @param formula    公式
+	 * @param iterations 满足结束条件之前额外执行的次数
+	 */
+	protected void reportLoop(ExecutionFrame frame, Formula formula, long iterations) {
+		frame.loopCount++;
+		printFormulaLog(frame, () -> "公式循环 " + iterations + " 次后满足结束条件：" + formula.getFormulaList());
+	}
 
 	/**
 	 * 修改公式
@@ -112,11 +201,15 @@ public abstract class AbstractDataExecutor implements Executor {
 	/**
 	 * 打印公式的执行日志
 	 *
+	 * @param frame               当前公式的执行状态
 	 * @param toBeExecutedFormula 要执行公式
 	 * @param startCondition      开始条件
 	 * @param stopCondition       停止条件
 	 */
-	protected void printFormulaLog(String toBeExecutedFormula, String startCondition, String stopCondition) {
+	protected void printFormulaLog(ExecutionFrame frame, String toBeExecutedFormula, String startCondition, String stopCondition) {
+		if (!isLogEnabled(frame)) {
+			return;
+		}
 		StringBuilder builder = new StringBuilder("正在执行公式：");
 		String logMessage = builder.append(toBeExecutedFormula)
 				.append("；开始执行条件：")
@@ -124,11 +217,74 @@ public abstract class AbstractDataExecutor implements Executor {
 				.append("；结束执行条件：")
 				.append(StringUtils.isBlank(stopCondition) ? "无约束" : stopCondition)
 				.toString();
-		this.logOperator.operate(logMessage);
+		frame.getContext().getLogOperator().operate(logMessage);
+	}
+
+	protected void printFormulaLog(ExecutionFrame frame, String message){
+		frame.getContext().getLogOperator().operate(message);
 	}
 
-	protected void printFormulaLog(String message){
-		this.logOperator.operate(message);
+	/**
+	 * 打印日志，日志关闭时不会生成日志字符串
+	 *
+	 * @param frame           当前公式的执行状态
+	 * @param messageSupplier 日志
+	 */
+	protected void printFormulaLog(ExecutionFrame frame, Supplier<String> messageSupplier) {
+		frame.getContext().getLogOperator().operate(messageSupplier);
+	}
+
+	/**
+	 * 是否需要打印日志
+	 *
+	 * @param frame 当前公式的执行状态
+	 * @return boolean
+	 */
+	protected boolean isLogEnabled(ExecutionFrame frame) {
+		return frame.getContext().getLogOperator().isEnabled();
 	}
 
+	/**
+	 * 单个公式的执行状态
+	 * <p>
+	 * 每次执行公式时创建，只在执行这个公式的线程中使用（列表公式分段并行计算时只在调用线程中修改）。
+	 *
+	 * @author byw
+	 * @date 2026/10/18
+	 */
+	protected static class ExecutionFrame {
+
+		private final ExecutionContext context;
+
+		/**
+		 * 本次执行的索引数量，用于报告执行指标
+		 */
+		protected long evaluatedIndexCount;
+
+		/**
+		 * 本次执行由于不满足结束条件而额外循环的次数，用于报告执行指标以及检查循环次数的预算
+		 */
+		protected long loopIterationCount;
+
+		/**
+		 * 本次执行中判断过结束条件的循环数量（列表公式每个索引一次），大于 0 时报告 {@link MetricsListener#onLoop}
+		 */
+		protected long loopCount;
+
+		protected ExecutionFrame(ExecutionContext context) {
+			this.context = context;
+		}
+
+		public ExecutionContext getContext() {
+			return context;
+		}
+
+		public ParamContext getParam() {
+			return context.getParam();
+		}
+
+		public CalculateConfig getConfig() {
+			return context.getConfig();
+		}
+	}
 }
@@ -0,0 +1,46 @@
+package com.github.byw.exec.exector;
+
+import com.github.byw.formula.Formula;
+
+/**
+ * 编译后的公式
+ * <p>
+ * 保存公式的预解析结果以及负责执行它的执行器类型，执行的时候只需要绑定参数就可以了。
+ * 具体保存哪些预解析结果由各个执行器自己决定。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class CompiledFormula {
+
+	/**
+	 * 原始公式
+	 */
+	private final Formula formula;
+
+	/**
+	 * 负责执行此公式的执行器类型
+	 */
+	private final Class<? extends Executor> executorClass;
+
+	public CompiledFormula(Formula formula, Class<? extends Executor> executorClass) {
+		this.formula = formula;
+		this.executorClass = executorClass;
+	}
+
+	public Formula getFormula() {
+		return formula;
+	}
+
+	public Class<? extends Executor> getExecutorClass() {
+		return executorClass;
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledFormula{" +
+				"formula=" + formula +
+				", executorClass=" + executorClass.getSimpleName() +
+				'}';
+	}
+}
@@ -0,0 +1,186 @@
+package com.github.byw.exec.exector;
+
+import com.github.byw.exception.CalculateBudgetException;
+import com.github.byw.exception.CalculateException;
+import com.github.byw.exception.CalculateTimeoutException;
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.log.LogOperator;
+import com.github.byw.param.ParamContext;
+import lombok.SneakyThrows;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 执行上下文
+ * <p>
+ * 保存一次 exec 调用中所有公式共用的状态（参数上下文、配置以及日志处理类），由调用方创建之后沿着调用链传递给执行器。
+ * 执行器本身不保存任何执行状态，所以同一组执行器可以同时被任意多个线程使用。
+ * <p>
+ * ps: 并行执行公式时多个线程会同时使用同一个执行上下文，所以这里只保存执行过程中不会变化的状态，
+ * 每个公式自己的执行状态保存在 {@link AbstractDataExecutor.ExecutionFrame} 中。
+ * <p>
+ * 执行上下文同时负责取消和超时：执行器在每个公式执行之前、列表公式的每个索引执行之前以及结束条件的每次循环之前
+ * 调用 {@link #checkCancelled()}，调用 {@link #cancel()} 或者超过截止时间（调用时设置的超时时间和
+ * {@link CalculateConfig#getMaxExecMillis()} 中先到的一个）之后计算会在下一个检查点停止。
+ * 取消和超时都是协作式的：到达截止时间时不会打断正在执行的表达式（包括自定义函数），只有执行到检查点时才会结束。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class ExecutionContext {
+
+	/**
+	 * 参数
+	 */
+	private final ParamContext param;
+
+	/**
+	 * 配置
+	 */
+	private final CalculateConfig config;
+
+	/**
+	 * 日志处理类，每次 exec 调用创建一个
+	 */
+	private final LogOperator logOperator;
+
+	/**
+	 * 截止时间（{@link System#nanoTime()}），只在 timed 为 true 时生效
+	 */
+	private final long deadline;
+
+	private final boolean timed;
+
+	/**
+	 * 超时时间（纳秒），用于异常信息
+	 */
+	private final long timeoutNanos;
+
+	/**
+	 * 超时时间的来源，用于异常信息
+	 */
+	private final String timeoutBudget;
+
+	/**
+	 * 是否已经取消，和通过 {@link #withParam(ParamContext)} 创建的执行上下文共用
+	 */
+	private final AtomicBoolean cancelled;
+
+	public ExecutionContext(ParamContext param, CalculateConfig config) {
+		this(param, config, 0, null);
+	}
+
+	/**
+	 * @param param   参数
+	 * @param config  配置
+	 * @param timeout 超时时间，从创建执行上下文开始计算
+	 * @param unit    超时时间单位，为 null 时不限制执行时间
+	 */
+	@SneakyThrows
+	public ExecutionContext(ParamContext param, CalculateConfig config, long timeout, TimeUnit unit) {
+		if (param == null) {
+			throw new CalculateException("param 参数不能为 null ");
+		}
+		if (config == null) {
+			throw new CalculateException("config 参数不能为 null ");
+		}
+		if (unit != null && timeout <= 0) {
+			throw new CalculateException("timeout 必须大于 0");
+		}
+		this.param = param;
+		this.config = config;
+		this.logOperator = (LogOperator) config.getLogOperatorClass().newInstance();
+		long timeoutNanos = unit == null ? -1 : unit.toNanos(timeout);
+		String timeoutBudget = "timeout";
+		Long maxExecMillis = config.getMaxExecMillis();
+		if (maxExecMillis != null && (timeoutNanos < 0 || TimeUnit.MILLISECONDS.toNanos(maxExecMillis) < timeoutNanos)) {
+			timeoutNanos = TimeUnit.MILLISECONDS.toNanos(maxExecMillis);
+			timeoutBudget = "maxExecMillis";
+		}
+		this.timed = timeoutNanos >= 0;
+		this.timeoutNanos = timeoutNanos;
+		this.timeoutBudget = timeoutBudget;
+		this.deadline = System.nanoTime() + timeoutNanos;
+		this.cancelled = new AtomicBoolean();
+	}
+
+	private ExecutionContext(ExecutionContext context, ParamContext param) {
+		this.param = param;
+		this.config = context.config;
+		this.logOperator = context.logOperator;
+		this.timed = context.timed;
+		this.timeoutNanos = context.timeoutNanos;
+		this.timeoutBudget = context.timeoutBudget;
+		this.deadline = context.deadline;
+		this.cancelled = context.cancelled;
+	}
+
+	/**
+	 * 取消计算，正在执行的公式会在下一个检查点停止
+	 */
+	public void cancel() {
+		cancelled.set(true);
+	}
+
+	public boolean isCancelled() {
+		return cancelled.get();
+	}
+
+	/**
+	 * 检查计算是否已经取消或者超时
+	 * 执行器在公式之间、列表公式的索引之间以及结束条件的每次循环之间调用
+	 *
+	 * @throws CancellationException     已经取消
+	 * @throws CalculateTimeoutException 超过了截止时间
+	 */
+	public void checkCancelled() {
+		if (cancelled.get()) {
+			throw new CancellationException("计算已经取消");
+		}
+		if (timed && System.nanoTime() - deadline > 0) {
+			throw new CalculateTimeoutException(timeoutBudget, "计算超时，执行时间超过了 {0} 毫秒", String.valueOf(TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+		}
+	}
+
+	/**
+	 * 检查参数上下文中的参数数量是否超过了 {@link CalculateConfig#getMaxContextEntries()}
+	 *
+	 * @throws CalculateBudgetException 超过了上限
+	 */
+	public void checkContextEntries() {
+		Integer maxContextEntries = config.getMaxContextEntries();
+		if (maxContextEntries == null) {
+			return;
+		}
+		int size = param.getParamContext().size();
+		if (size > maxContextEntries) {
+			throw new CalculateBudgetException("maxContextEntries", "参数上下文中有 {0} 个参数，超过了上限 {1}", String.valueOf(size),
+					String.valueOf(maxContextEntries));
+		}
+	}
+
+	/**
+	 * 使用其它参数上下文，其余状态和当前执行上下文共用
+	 * 例如并行执行公式时使用线程安全的参数上下文
+	 *
+	 * @param param 参数
+	 * @return {@link ExecutionContext}
+	 */
+	public ExecutionContext withParam(ParamContext param) {
+		return new ExecutionContext(this, param);
+	}
+
+	public ParamContext getParam() {
+		return param;
+	}
+
+	public CalculateConfig getConfig() {
+		return config;
+	}
+
+	public LogOperator getLogOperator() {
+		return logOperator;
+	}
+}
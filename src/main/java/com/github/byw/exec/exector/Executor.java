@@ -8,6 +8,8 @@ import com.ql.util.express.Operator;
 
 /**
  * 公式执行器
+ * <p>
+ * 执行器是无状态的，一组执行器由 {@link ExecutorManager} 创建之后供所有线程、所有 exec 调用共用。
  *
  * @author byw
  * @date 2023/02/01
@@ -32,6 +34,39 @@ public interface Executor {
 	 */
 	void exec(Formula formulaInstance, ParamContext param, CalculateConfig config);
 
+	/**
+	 * 编译公式
+	 * 对公式进行预解析，编译结果可以在多次执行之间复用
+	 *
+	 * @param formulaInstance 公式实例
+	 * @param config          配置
+	 * @return {@link CompiledFormula}
+	 */
+	CompiledFormula compile(Formula formulaInstance, CalculateConfig config);
+
+	/**
+	 * 执行编译后的公式
+	 * 这里不会返回任何数据，公式执行输出的结果会存储到上下文中
+	 * <p>
+	 * 执行过程中的所有状态都保存在执行上下文以及方法内部，实现类不能把执行状态保存在自己的字段中，
+	 * 同一个执行器会被多个线程同时调用。
+	 *
+	 * @param compiledFormula 编译后的公式，必须是由当前类型的执行器编译的
+	 * @param context         执行上下文
+	 */
+	void exec(CompiledFormula compiledFormula, ExecutionContext context);
+
+	/**
+	 * 执行编译后的公式
+	 * 这里不会返回任何数据，公式执行输出的结果会存储到上下文中
+	 *
+	 * @param compiledFormula 编译后的公式，必须是由当前类型的执行器编译的
+	 * @param param           参数
+	 * @param config          配置
+	 */
+	default void exec(CompiledFormula compiledFormula, ParamContext param, CalculateConfig config) {
+		exec(compiledFormula, new ExecutionContext(param, config));
+	}
 
 	/**
 	 * 注册函数
@@ -0,0 +1,186 @@
+package com.github.byw.exec.exector;
+
+import com.github.byw.exception.CalculateException;
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.exec.config.FunctionConfig;
+import com.github.byw.exec.config.NumericMode;
+import com.github.byw.exec.expression.ExpressionCompiler;
+import com.github.byw.formula.Formula;
+import com.github.byw.metrics.MetricsListener;
+import com.google.common.collect.Lists;
+import com.ql.util.express.Operator;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 执行器管理
+ * <p>
+ * 生命周期和 CalculateExecutor 相同，所有公式以及每一次 exec 调用共用同一个表达式编译器，
+ * 这样编译好的表达式以及 QLExpress 的指令缓存就不会因为重新创建执行器而丢失。
+ * <p>
+ * ps: 执行器不保存执行状态（执行状态保存在 {@link ExecutionContext} 中），所以所有线程共用同一组执行器和表达式编译器。
+ * 配置中的函数、nativeExpression、numericMode 或者 metricsListener 发生变化时，下一次编译公式之前重新创建编译器和执行器。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class ExecutorManager {
+
+	private final CalculateConfig config;
+
+	/**
+	 * 通过 {@link #registerFunction(String, Operator)} 注册的函数，重新创建编译器时需要重新注册
+	 */
+	private final Map<String, Operator> registeredFunctions = new ConcurrentHashMap<>();
+
+	/**
+	 * 当前的编译器和执行器
+	 */
+	private volatile ExecutorState state;
+
+	/**
+	 * 版本号，重新创建编译器或者注册函数之后加一，之前编译的公式需要重新编译
+	 */
+	private volatile long version;
+
+	public ExecutorManager(CalculateConfig config) {
+		this.config = config;
+		this.state = new ExecutorState(config, registeredFunctions);
+	}
+
+	/**
+	 * 获取当前的编译器和执行器
+	 * 创建之后修改了配置中的函数、nativeExpression、numericMode 或者 metricsListener 时重新创建，之后编译的公式使用新的配置
+	 *
+	 * @return {@link ExecutorState}
+	 */
+	private ExecutorState state() {
+		ExecutorState current = state;
+		if (current.matches(config)) {
+			return current;
+		}
+		synchronized (this) {
+			if (!state.matches(config)) {
+				state = new ExecutorState(config, registeredFunctions);
+				version++;
+			}
+			return state;
+		}
+	}
+
+	/**
+	 * 获取可以处理当前公式的执行器
+	 *
+	 * @param formulaInstance 公式实例
+	 * @return {@link Executor}
+	 */
+	public Executor get(Formula formulaInstance) {
+		for (Executor executor : state().executorList) {
+			if (executor.canHandle(formulaInstance)) {
+				return executor;
+			}
+		}
+		throw new CalculateException("无法处理公式：" + formulaInstance);
+	}
+
+	/**
+	 * 获取指定类型的执行器
+	 *
+	 * @param executorClass 执行器类型
+	 * @return {@link Executor}
+	 */
+	public Executor get(Class<? extends Executor> executorClass) {
+		for (Executor executor : state().executorList) {
+			if (executor.getClass() == executorClass) {
+				return executor;
+			}
+		}
+		throw new CalculateException("不存在执行器：" + executorClass);
+	}
+
+	/**
+	 * 编译公式
+	 *
+	 * @param formulaInstance 公式实例
+	 * @param config          配置
+	 * @return {@link CompiledFormula}
+	 */
+	public CompiledFormula compile(Formula formulaInstance, CalculateConfig config) {
+		return get(formulaInstance).compile(formulaInstance, config);
+	}
+
+	/**
+	 * 注册函数，注册之后对所有线程都生效
+	 *
+	 * @param name     名字
+	 * @param operator 函数
+	 */
+	public synchronized void registerFunction(String name, Operator operator) {
+		registeredFunctions.put(name, operator);
+		state().compiler.addFunction(name, operator);
+		version++;
+	}
+
+	/**
+	 * 获取版本号，版本号变化说明之前编译的公式已经过期
+	 *
+	 * @return long
+	 */
+	public long getVersion() {
+		state();
+		return version;
+	}
+
+	/**
+	 * 编译器和执行器，以及创建它们时使用的配置
+	 */
+	private static class ExecutorState {
+
+		private final boolean nativeExpression;
+
+		private final NumericMode numericMode;
+
+		private final MetricsListener metricsListener;
+
+		/**
+		 * 创建时 {@link CalculateConfig#getFunctionConfig()} 中的函数
+		 */
+		private final Map<String, Operator> functions;
+
+		/**
+		 * 共享的表达式编译器
+		 */
+		private final ExpressionCompiler compiler;
+
+		/**
+		 * 执行器列表，按照优先级排序
+		 */
+		private final List<Executor> executorList;
+
+		private ExecutorState(CalculateConfig config, Map<String, Operator> registeredFunctions) {
+			this.nativeExpression = config.isNativeExpression();
+			this.numericMode = config.getNumericMode();
+			this.metricsListener = config.getMetricsListener();
+			this.functions = new HashMap<>(configFunctions(config));
+			this.compiler = new ExpressionCompiler(nativeExpression, numericMode);
+			compiler.setMetricsListener(metricsListener);
+			functions.forEach(compiler::addFunction);
+			registeredFunctions.forEach(compiler::addFunction);
+			this.executorList = Collections.unmodifiableList(Lists.newArrayList(new ListDataExecutor(compiler), new SingleDataExecutor(compiler)));
+		}
+
+		private boolean matches(CalculateConfig config) {
+			return nativeExpression == config.isNativeExpression() && numericMode == config.getNumericMode()
+					&& metricsListener == config.getMetricsListener() && functions.equals(configFunctions(config));
+		}
+
+		private static Map<String, Operator> configFunctions(CalculateConfig config) {
+			FunctionConfig functionConfig = config.getFunctionConfig();
+			return functionConfig == null ? Collections.emptyMap() : functionConfig.getOperatorMap();
+		}
+	}
+}
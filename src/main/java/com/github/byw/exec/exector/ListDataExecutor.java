@@ -1,19 +1,29 @@
 package com.github.byw.exec.exector;
 
+import com.github.byw.exception.CalculateBudgetException;
 import com.github.byw.exception.CalculateException;
 import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.exec.config.NumericMode;
+import com.github.byw.exec.expression.CompiledExpression;
+import com.github.byw.exec.expression.ExpressionCompiler;
 import com.github.byw.formula.Formula;
+import com.github.byw.formula.FormulaAnalysis;
 import com.github.byw.formula.FormulaConditions;
+import com.github.byw.formula.FormulaDependency;
+import com.github.byw.formula.FormulaStatement;
+import com.github.byw.helper.NumberHelper;
+import com.github.byw.param.DoubleList;
+import com.github.byw.param.IndexedParamView;
 import com.github.byw.param.ParamConfig;
+import com.github.byw.param.ParamContext;
 import com.github.byw.param.ParamManager;
-import com.google.common.collect.Lists;
 import lombok.Data;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang.StringUtils;
 
 import java.math.BigDecimal;
 import java.util.*;
-import java.util.function.Function;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
 /**
@@ -23,106 +33,332 @@ import java.util.stream.Collectors;
  * @date 2023/02/01
  */
 public class ListDataExecutor extends AbstractDataExecutor {
-	/**
-	 * 索引标志
-	 */
-	private final String indexMark = "_index";
 
-	/**
-	 * 关键字
-	 * <p>
-	 * 主要用来判断参数的截止位置
-	 */
-	private static final List<Character> keywords = Lists.newArrayList('=', '|', '&', '+', '-', '*', '/', ',', ')', ' ', ':');
-	private static final char LEFT_BRACKET = '(';
+	public ListDataExecutor() {
+	}
 
-	/**
-	 * 循环是否由外部参数控制
-	 */
-	private boolean demise = false;
+	public ListDataExecutor(ExpressionCompiler compiler) {
+		super(compiler);
+	}
 
 	/**
-	 * 当前索引
+	 * 判断条件，如果有所公式都包含 _index 就返回 true
+	 * 公式添加时已经解析过，直接使用解析结果
+	 *
+	 * @param formulaInstance 公式实例
+	 * @return boolean
 	 */
-	private Integer currentIndex = null;
+	@Override
+	public boolean canHandle(Formula formulaInstance) {
+		return formulaInstance.getAnalysis().isListFormula();
+	}
 
 	/**
-	 * param总长度
+	 * 编译公式
+	 * 公式中的 _index 参数会原样保留，执行的时候再绑定到当前索引对应的数值上，所以每个公式只需要解析一次，和列表长度无关。
+	 * 公式的解析结果（{@link FormulaAnalysis}）在公式添加时就已经生成，这里只需要编译表达式。
+	 *
+	 * @param formulaInstance 公式实例
+	 * @param config          配置
+	 * @return {@link CompiledFormula}
 	 */
-	private Integer paramTotalSize = null;
+	@Override
+	public CompiledFormula compile(Formula formulaInstance, CalculateConfig config) {
+		FormulaConditions conditions = Optional.ofNullable(formulaInstance.getConditions()).orElse(new FormulaConditions() {
+		});
+		FormulaAnalysis analysis = formulaInstance.getAnalysis();
+		//是否取整
+		Integer integer = conditions.retainDecimal();
+		List<FormulaMessage> formulaMessages = analysis.getStatements().stream().map(statement -> {
+			FormulaMessage formulaMessage = new FormulaMessage(statement);
+			String toBeExecutedFormula = formulaMessage.getOriginalFormula();
+			if (config.getRetainDecimal() != null) {
+				toBeExecutedFormula = modificationFormula(toBeExecutedFormula, config.getRetainDecimal());
+			} else if (integer != null) {
+				toBeExecutedFormula = modificationFormula(toBeExecutedFormula, integer);
+			}
+			formulaMessage.setExpression(compileExpression(toBeExecutedFormula));
+			return formulaMessage;
+		}).collect(Collectors.toList());
+		FormulaMessage startConditionMessage = compileConditionMessage(analysis.getStartCondition());
+		FormulaMessage stopConditionMessage = compileConditionMessage(analysis.getStopCondition());
+		boolean parallelizable = isParallelizable(formulaInstance, formulaMessages, startConditionMessage, stopConditionMessage);
+		return new ListCompiledFormula(formulaInstance, formulaMessages, startConditionMessage, stopConditionMessage, parallelizable);
+	}
 
 	/**
-	 * 判断条件，如果有所公式都包含 _index 就返回 true
+	 * 判断不同索引之间是否互相独立，互相独立的时候才能分段并行计算
 	 *
-	 * @param formulaInstance 公式实例
+	 * @param formulaInstance       公式实例
+	 * @param formulaMessages       公式信息
+	 * @param startConditionMessage 开始条件
+	 * @param stopConditionMessage  结束条件
 	 * @return boolean
 	 */
-	@Override
-	public boolean canHandle(Formula formulaInstance) {
-		boolean result = true;
-		for (String formula : formulaInstance.getFormulaList()) {
-			if (!formula.contains(indexMark)) {
-				result = false;
-				break;
+	private boolean isParallelizable(Formula formulaInstance, List<FormulaMessage> formulaMessages, FormulaMessage startConditionMessage,
+									 FormulaMessage stopConditionMessage) {
+		// 结束条件会在同一个索引上循环执行
+		if (stopConditionMessage != null) {
+			return false;
+		}
+		// 直接读取了当前公式的结果列表，例如 listSum(a)
+		FormulaDependency dependency = formulaInstance.getAnalysis().getDependency();
+		if (!Collections.disjoint(dependency.getWholeReadSet(), dependency.getWriteSet())) {
+			return false;
+		}
+		// 读取了当前或者之后的公式才会写入的结果，读到的是结果列表中原有的数值
+		for (int i = 0; i < formulaMessages.size(); i++) {
+			List<String> parameterNameList = formulaMessages.get(i).getParameterOriginalNameList();
+			Set<String> laterResultNameSet = formulaMessages.subList(i, formulaMessages.size()).stream()
+					.map(FormulaMessage::getOriginalResultName).collect(Collectors.toSet());
+			if (!Collections.disjoint(parameterNameList.subList(1, parameterNameList.size()), laterResultNameSet)) {
+				return false;
 			}
 		}
-		return result;
+		if (startConditionMessage != null) {
+			List<String> parameterNameList = startConditionMessage.getParameterOriginalNameList();
+			return Collections.disjoint(parameterNameList.subList(1, parameterNameList.size()), dependency.getWriteSet());
+		}
+		return true;
+	}
+
+	private FormulaMessage compileConditionMessage(FormulaStatement condition) {
+		if (condition == null) {
+			return null;
+		}
+		FormulaMessage formulaMessage = new FormulaMessage(condition);
+		formulaMessage.setExpression(compileExpression(formulaMessage.getOriginalFormula()));
+		return formulaMessage;
 	}
 
 	@Override
-	protected void doExec(Formula formulaInstance) {
-		doDetailExec(formulaInstance, config);
+	protected ExecutionFrame createFrame(ExecutionContext context) {
+		return new ListExecutionFrame(context);
 	}
 
-	private void doDetailExec(Formula formulaInstance, CalculateConfig config) {
-		demise = config.getCurrentIndex() != null;
-		currentIndex = config.getCurrentIndex();
-		paramTotalSize = config.getParamTotalSize();
-		List<FormulaMessage> formulaMessages = formulaInstance.getFormulaList().stream().map(t -> extractFormulaMessage(t, false)).collect(Collectors.toList());
-		FormulaConditions conditions = Optional.ofNullable(formulaInstance.getConditions()).orElse(new FormulaConditions() {
-		});
-		//是否取整
-		Integer integer = conditions.retainDecimal();
-		FormulaMessage startConditionMessage = extractFormulaMessage(conditions.getStartConditions(), true);
-		FormulaMessage stopConditionMessage = extractFormulaMessage(conditions.getStopConditions(), true);
+	@Override
+	protected void doExec(CompiledFormula compiledFormula, ExecutionFrame frame) {
+		doDetailExec((ListCompiledFormula) compiledFormula, (ListExecutionFrame) frame);
+	}
+
+	private void doDetailExec(ListCompiledFormula compiledFormula, ListExecutionFrame frame) {
+		CalculateConfig config = frame.getConfig();
+		Formula formulaInstance = compiledFormula.getFormula();
+		// 参数长度和当前上下文有关，每次执行都需要重新检查
+		List<FormulaMessage> formulaMessages = compiledFormula.formulaMessages.stream().map(t -> paramCheck(t, frame)).collect(Collectors.toList());
+		FormulaMessage startConditionMessage = paramCheck(compiledFormula.startConditionMessage, frame);
+		FormulaMessage stopConditionMessage = paramCheck(compiledFormula.stopConditionMessage, frame);
 
 		List<FormulaMessage> checklist = new ArrayList<>(formulaMessages);
 		checklist.add(startConditionMessage);
 		checklist.add(stopConditionMessage);
-		checkParamSize(checklist);
+		checkParamSize(checklist, frame);
 
 		List<FormulaMessage> messageList = checklist.stream().filter(t -> t != null && t.getSize() != -1).collect(Collectors.toList());
-		if (messageList.isEmpty() && paramTotalSize == null) {
-			printFormulaLog("该公式不执行，因为所有参数都不存在：" + formulaInstance.getFormulaList());
+		if (messageList.isEmpty() && frame.paramTotalSize == null) {
+			printFormulaLog(frame, () -> "该公式不执行，因为所有参数都不存在：" + formulaInstance.getFormulaList());
+			return;
+		}
+		int size = messageList.isEmpty() ? frame.paramTotalSize : messageList.stream().findAny().get().getSize();
+		checkListSize(formulaInstance, size, config);
+		prepareWrite(checklist, frame);
+		if (config.isParallelList() && compiledFormula.parallelizable && !frame.demise && size > config.getParallelListChunkSize()) {
+			parallelExec(formulaInstance, formulaMessages, startConditionMessage, size, frame);
+			frame.evaluatedIndexCount = size;
 			return;
 		}
-		int size = messageList.isEmpty() ? paramTotalSize : messageList.stream().findAny().get().getSize();
+		IndexedParamView indexedView = frame.indexedView;
 		int i = Optional.ofNullable(config.getCurrentIndex()).orElse(0);
 		if (i >= size) {
 			LOGGER.warn("警告！当前公式执行索引为 " + i + " 从公式获取的参数总长度为 " + size + " 索引大于等于参数总长度，跳出循环！");
 		}
 		for (; i < size; i++) {
-			printFormulaLog("正在校验公式是否满足执行条件：" + formulaInstance.getFormulaList());
-			ConditionResultBean startConditionsResult = judgeWhetherStartOrStop(startConditionMessage, i);
+			frame.getContext().checkCancelled();
+			frame.evaluatedIndexCount++;
+			printFormulaLog(frame, () -> "正在校验公式是否满足执行条件：" + formulaInstance.getFormulaList());
+			ConditionResultBean startConditionsResult = judgeWhetherStartOrStop(startConditionMessage, i, indexedView, null, frame);
 
-			ConditionResultBean stopConditionsResult = judgeWhetherStartOrStop(stopConditionMessage, i);
+			ConditionResultBean stopConditionsResult = judgeWhetherStartOrStop(stopConditionMessage, i, indexedView, null, frame);
 			if (startConditionsResult.result) {
-				printFormulaLog("该公式满足执行条件：" + formulaInstance.getFormulaList());
-				initResultList(formulaMessages, size);
-				executiveFormula(formulaMessages, integer, i, startConditionsResult.conditionFormula, stopConditionsResult.conditionFormula, config);
-				while (!stopConditionsResult.result && !Thread.currentThread().isInterrupted()) {
-					executiveFormula(formulaMessages, integer, i, startConditionsResult.conditionFormula, stopConditionsResult.conditionFormula, config);
-					stopConditionsResult = judgeWhetherStartOrStop(stopConditionMessage, i);
+				printFormulaLog(frame, () -> "该公式满足执行条件：" + formulaInstance.getFormulaList());
+				initResultList(formulaMessages, size, frame);
+				executiveFormula(formulaMessages, i, startConditionsResult.conditionFormula, stopConditionsResult.conditionFormula, indexedView, null, frame);
+				if (!stopConditionsResult.result) {
+					iterate(formulaInstance, formulaMessages, stopConditionMessage, i, startConditionsResult.conditionFormula,
+							stopConditionsResult.conditionFormula, frame);
 				}
 			} else {
-				printFormulaLog("该公式不满足执行条件：" + formulaInstance.getFormulaList());
+				printFormulaLog(frame, () -> "该公式不满足执行条件：" + formulaInstance.getFormulaList());
 			}
 			// 把执行权让渡给使用者
-			if (demise) {
+			if (frame.demise) {
 				break;
 			}
 		}
 	}
+
+	/**
+	 * 在当前索引上循环执行公式，直到满足结束条件
+	 * <p>
+	 * 第一次执行时已经检查过参数并且创建了结果列表，所以循环中直接执行编译后的表达式并写入结果列表，
+	 * 不再重复检查参数、查找结果列表和拼接日志。开启日志时逐次执行并输出日志。
+	 *
+	 * @param formulaInstance      公式实例
+	 * @param formulaMessages      公式信息
+	 * @param stopConditionMessage 结束条件
+	 * @param i                    索引
+	 * @param startCondition       开始条件（用于日志）
+	 * @param stopCondition        结束条件（用于日志）
+	 * @param frame                当前公式的执行状态
+	 */
+	@SuppressWarnings("unchecked")
+	private void iterate(Formula formulaInstance, List<FormulaMessage> formulaMessages, FormulaMessage stopConditionMessage, int i,
+						 String startCondition, String stopCondition, ListExecutionFrame frame) {
+		Integer maxIterations = maxIterations(frame, formulaInstance);
+		IndexedParamView indexedView = frame.indexedView;
+		String position = "索引 " + i + " ";
+		long iterations = 0;
+		boolean stop = false;
+		if (isLogEnabled(frame)) {
+			while (!stop && !Thread.currentThread().isInterrupted()) {
+				checkIterations(frame, formulaInstance, ++iterations, maxIterations, position);
+				executiveFormula(formulaMessages, i, startCondition, stopCondition, indexedView, null, frame);
+				ConditionResultBean stopConditionsResult = judgeWhetherStartOrStop(stopConditionMessage, i, indexedView, null, frame);
+				stop = stopConditionsResult.result;
+				stopCondition = stopConditionsResult.conditionFormula;
+			}
+			reportLoop(frame, formulaInstance, iterations);
+			return;
+		}
+		ParamManager paramContext = frame.getParam().getParamContext();
+		List<Object>[] resultLists = new List[formulaMessages.size()];
+		for (int j = 0; j < resultLists.length; j++) {
+			resultLists[j] = (List<Object>) paramContext.get(formulaMessages.get(j).getOriginalResultName());
+		}
+		List<Object> conditionList = (List<Object>) paramContext.get(stopConditionMessage.getOriginalResultName());
+		while (!stop && !Thread.currentThread().isInterrupted()) {
+			checkIterations(frame, formulaInstance, ++iterations, maxIterations, position);
+			for (int j = 0; j < resultLists.length; j++) {
+				setResult(resultLists[j], i, toStoredResult(evaluate(formulaMessages.get(j), i, indexedView), frame));
+			}
+			Object condition = evaluate(stopConditionMessage, i, indexedView);
+			if (!(condition instanceof Boolean)) {
+				throw new CalculateException(stopConditionMessage.getOriginalFormula() + " 有误，结果应该是 Boolean 类型");
+			}
+			setResult(conditionList, i, condition);
+			stop = (Boolean) condition;
+		}
+		reportLoop(frame, formulaInstance, iterations);
+	}
+
+	/**
+	 * 直接执行编译后的表达式，不检查参数
+	 *
+	 * @param formulaMessage 公式信息
+	 * @param index          索引
+	 * @param view           索引视图，已经定位到当前索引
+	 * @return {@link Object} 当前索引的结果
+	 */
+	private Object evaluate(FormulaMessage formulaMessage, int index, IndexedParamView view) {
+		formulaMessage.getExpression().execute(view);
+		Object result = view.getAssigned(formulaMessage.getNameToBeReplacedList().get(0));
+		if (result == null) {
+			throw new CalculateException("数据异常，" + formulaMessage.getParameterOriginalNameList().get(0) + " 索引 " + index + " 结果数据缺失");
+		}
+		return result;
+	}
+
+	/**
+	 * 分段并行计算
+	 * <p>
+	 * 每一段使用自己的 {@link IndexedParamView}，计算结果先保存在数组中，全部完成之后再按照索引顺序写入结果列表，
+	 * 写入顺序和按顺序执行时完全一致。
+	 *
+	 * @param formulaInstance       公式实例
+	 * @param formulaMessages       公式信息
+	 * @param startConditionMessage 开始条件
+	 * @param size                  参数长度
+	 * @param frame                 当前公式的执行状态
+	 */
+	private void parallelExec(Formula formulaInstance, List<FormulaMessage> formulaMessages, FormulaMessage startConditionMessage, int size,
+							  ListExecutionFrame frame) {
+		Object[][] results = new Object[formulaMessages.size()][size];
+		Object[] conditionResults = startConditionMessage == null ? null : new Object[size];
+		ParamManager paramContext = frame.getParam().getParamContext();
+		CalculateConfig config = frame.getConfig();
+		int chunkSize = config.getParallelListChunkSize();
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (int start = 0; start < size; start += chunkSize) {
+			int from = start;
+			int to = Math.min(size, start + chunkSize);
+			tasks.add(ForkJoinTask.adapt(() -> {
+				IndexedParamView view = new IndexedParamView(paramContext);
+				for (int i = from; i < to; i++) {
+					frame.getContext().checkCancelled();
+					printFormulaLog(frame, () -> "正在校验公式是否满足执行条件：" + formulaInstance.getFormulaList());
+					ConditionResultBean startConditionsResult = judgeWhetherStartOrStop(startConditionMessage, i, view, conditionResults, frame);
+					if (startConditionsResult.result) {
+						printFormulaLog(frame, () -> "该公式满足执行条件：" + formulaInstance.getFormulaList());
+						executiveFormula(formulaMessages, i, startConditionsResult.conditionFormula, "无约束", view, results, frame);
+					} else {
+						printFormulaLog(frame, () -> "该公式不满足执行条件：" + formulaInstance.getFormulaList());
+					}
+				}
+			}));
+		}
+		ForkJoinPool pool = Optional.ofNullable(config.getFormulaPool()).orElse(ForkJoinPool.commonPool());
+		pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+		boolean initialized = false;
+		for (int i = 0; i < size; i++) {
+			if (conditionResults != null && conditionResults[i] != null) {
+				putResult(startConditionMessage.getOriginalResultName(), i, conditionResults[i], frame);
+			}
+			// 执行过的索引一定有结果
+			if (results.length == 0 || results[0][i] == null) {
+				continue;
+			}
+			if (!initialized) {
+				initResultList(formulaMessages, size, frame);
+				initialized = true;
+			}
+			for (int j = 0; j < formulaMessages.size(); j++) {
+				putResult(formulaMessages.get(j).getOriginalResultName(), i, results[j][i], frame);
+			}
+		}
+	}
+
+	/**
+	 * 检查列表长度是否超过了 {@link CalculateConfig#getMaxListSize()}，在创建结果列表之前调用
+	 *
+	 * @param formulaInstance 公式实例
+	 * @param size            参数长度
+	 * @param config          配置
+	 */
+	private void checkListSize(Formula formulaInstance, int size, CalculateConfig config) {
+		Integer maxListSize = config.getMaxListSize();
+		if (maxListSize != null && size > maxListSize) {
+			throw new CalculateBudgetException("maxListSize", "公式 {0} 的参数长度为 {1}，超过了上限 {2}", String.valueOf(formulaInstance.getFormulaList()),
+					String.valueOf(size), String.valueOf(maxListSize));
+		}
+	}
+
+	/**
+	 * 结果列表会被原地修改，所以在开始计算之前通知参数上下文（共用的列表需要先复制一份）。
+	 * 必须在索引视图缓存列表之前调用，之后整个公式执行期间结果列表都不会再被替换。
+	 *
+	 * @param checklist 公式信息（包括开始和结束条件）
+	 * @param frame     当前公式的执行状态
+	 */
+	private void prepareWrite(List<FormulaMessage> checklist, ListExecutionFrame frame) {
+		ParamContext param = frame.getParam();
+		for (FormulaMessage formulaMessage : checklist) {
+			if (formulaMessage != null) {
+				param.prepareWrite(formulaMessage.getOriginalResultName());
+			}
+		}
+	}
+
 	/**
 	 * 初始化结果列表
 	 * <p>
@@ -131,77 +367,99 @@ public class ListDataExecutor extends AbstractDataExecutor {
 	 *
 	 * @param formulaMessages 公式信息
 	 * @param size            参数长度
+	 * @param frame           当前公式的执行状态
 	 */
-	private void initResultList(List<FormulaMessage> formulaMessages, int size) {
+	private void initResultList(List<FormulaMessage> formulaMessages, int size, ListExecutionFrame frame) {
+		ParamContext param = frame.getParam();
 		formulaMessages.forEach(formulaMessage -> {
 			if (param.getParamContext().get(formulaMessage.getOriginalResultName()) == null) {
 				LOGGER.info("初始化结果参数：" + formulaMessage.getOriginalResultName());
-				param.addArray(formulaMessage.getOriginalResultName(), new ArrayList<>(Collections.nCopies(size, BigDecimal.ZERO)));
+				List<Number> resultList = frame.getConfig().getNumericMode() == NumericMode.DOUBLE ? new DoubleList(size)
+						: new ArrayList<>(Collections.nCopies(size, BigDecimal.ZERO));
+				param.addArray(formulaMessage.getOriginalResultName(), resultList);
 			}
 		});
 	}
 
 
-	private void executiveFormula(List<FormulaMessage> formulaMessages, Integer integer, int i, String startCondition, String stopCondition, CalculateConfig config) {
-		for (FormulaMessage formulaMessage : formulaMessages) {
-
-			execute(formulaMessage, i, oldFormula -> {
-				printFormulaLog(oldFormula, startCondition, stopCondition);
-				if (config.getRetainDecimal() != null) {
-					return modificationFormula(oldFormula, config.getRetainDecimal());
-				}
-				if (integer != null) {
-					return modificationFormula(oldFormula, integer);
-				}
-				return oldFormula;
-			});
+	/**
+	 * 执行当前索引的所有公式
+	 *
+	 * @param formulaMessages 公式信息
+	 * @param i               索引
+	 * @param startCondition  开始条件（用于日志）
+	 * @param stopCondition   结束条件（用于日志）
+	 * @param view            当前线程的索引视图
+	 * @param deferredResults 并行计算时暂存结果的数组，为 null 时直接写入结果列表
+	 * @param frame           当前公式的执行状态
+	 */
+	private void executiveFormula(List<FormulaMessage> formulaMessages, int i, String startCondition, String stopCondition,
+								  IndexedParamView view, Object[][] deferredResults, ListExecutionFrame frame) {
+		for (int j = 0; j < formulaMessages.size(); j++) {
+			FormulaMessage formulaMessage = formulaMessages.get(j);
+			if (isLogEnabled(frame)) {
+				printFormulaLog(frame, indexFormula(formulaMessage.getOriginalFormula(), i), startCondition, stopCondition);
+			}
+			Object resultForIndex = execute(formulaMessage, i, view, frame);
+			if (deferredResults == null) {
+				putResult(formulaMessage.getOriginalResultName(), i, resultForIndex, frame);
+			} else {
+				deferredResults[j][i] = resultForIndex;
+			}
 		}
 	}
 
 	/**
 	 * 判断是否启动/停止
 	 *
-	 * @param formulaMessage 公式信息列表
-	 * @param index          指数
+	 * @param formulaMessage  公式信息列表
+	 * @param index           指数
+	 * @param view            当前线程的索引视图
+	 * @param deferredResults 并行计算时暂存结果的数组，为 null 时直接写入结果列表
+	 * @param frame           当前公式的执行状态
 	 * @return {@link ConditionResultBean}
 	 */
-	private ConditionResultBean judgeWhetherStartOrStop(FormulaMessage formulaMessage, int index) {
+	private ConditionResultBean judgeWhetherStartOrStop(FormulaMessage formulaMessage, int index, IndexedParamView view, Object[] deferredResults,
+														ListExecutionFrame frame) {
 		if (formulaMessage == null) {
 			return new ConditionResultBean("无约束", true);
 		}
-		StringBuilder builder = new StringBuilder("");
-
-		Object execute = execute(formulaMessage, index, formula -> {
-			printFormulaLog("正在执行条件公式：" + formula);
-			builder.append(formula);
-			return formula;
-		});
+		// 条件公式只用于日志，日志关闭时不需要拼接
+		String conditionFormula = isLogEnabled(frame) ? indexFormula(formulaMessage.getOriginalFormula(), index) : null;
+		printFormulaLog(frame, () -> "正在执行条件公式：" + conditionFormula);
+		Object execute = execute(formulaMessage, index, view, frame);
+		if (deferredResults == null) {
+			putResult(formulaMessage.getOriginalResultName(), index, execute, frame);
+		} else {
+			deferredResults[index] = execute;
+		}
 		if (!(execute instanceof Boolean)) {
 			throw new CalculateException(formulaMessage.getOriginalFormula() + " 有误，结果应该是 Boolean 类型");
 		}
 		if (!(Boolean) execute) {
-			return new ConditionResultBean(builder.toString(), false);
+			return new ConditionResultBean(conditionFormula, false);
 		}
-		return new ConditionResultBean(builder.toString(), true);
+		return new ConditionResultBean(conditionFormula, true);
 	}
 
 	/**
 	 * 执行
-	 * 按照索引对参数进行拆分，并且组装新的公式
+	 * 公式本身在编译时已经解析过，执行时通过 {@link IndexedParamView} 直接从列表中读取当前索引对应的数值
 	 *
-	 * @param formulaMessage            公式信息
-	 * @param index                     索引
-	 * @param changeTheFormulaFunctions 改变函数公式（执行前会回调，如果需要更改公式可以在这里更改）
-	 * @return boolean
+	 * @param formulaMessage 公式信息
+	 * @param index          索引
+	 * @param view           当前线程的索引视图
+	 * @param frame          当前公式的执行状态
+	 * @return {@link Object} 当前索引的结果，还没有写入结果列表
 	 */
-	private Object execute(FormulaMessage formulaMessage, int index, Function<String, String>... changeTheFormulaFunctions) {
+	private Object execute(FormulaMessage formulaMessage, int index, IndexedParamView view, ListExecutionFrame frame) {
+		ParamContext param = frame.getParam();
 		ParamManager paramContext = param.getParamContext();
-		String originalFormula = formulaMessage.getOriginalFormula();
 		List<String> nameToBeReplacedList = formulaMessage.getNameToBeReplacedList();
 		List<String> parameterOriginalNameList = formulaMessage.getParameterOriginalNameList();
-		String resultIndexName = null;
 		//当前公式是否为对空进行判断的公式，
 		boolean isNullJudge = formulaMessage.isNullJudge();
+		view.setIndex(index);
 		for (int i = 0; i < parameterOriginalNameList.size(); i++) {
 			String nameToBeReplaced = nameToBeReplacedList.get(i);
 			String parameterOriginalName = parameterOriginalNameList.get(i);
@@ -209,8 +467,9 @@ public class ListDataExecutor extends AbstractDataExecutor {
 			// 第一个是结果参数名称，不用校验。如果是空检查语句也不用校验
 			if (i > 0 && !isNullJudge) {
 				if (config == null) {
-					boolean isDefaultFun = checkDefaultFun(formulaMessage.getOriginalFormula(), parameterOriginalName);
-					if (isDefaultFun) {
+					boolean isDefaultFun = formulaMessage.getStatement().isDefaultFunParam(parameterOriginalName);
+					// 并行计算时前面公式的结果还没有写入上下文，只保存在当前索引的赋值中
+					if (isDefaultFun || view.getAssigned(nameToBeReplaced) != null) {
 						continue;
 					}
 					throw new CalculateException(formulaMessage.getOriginalFormula() + " 公式数据有误 " + parameterOriginalName + " 参数缺失");
@@ -220,90 +479,111 @@ public class ListDataExecutor extends AbstractDataExecutor {
 				}
 			}
 			// 如果循环的索引时外部传递进来的，那么只要参数的最大索引大于当前正在执行的索引就通过检测
-			if (i > 0 && demise) {
-				boolean isDefaultFun = checkDefaultFun(formulaMessage.getOriginalFormula(), nameToBeReplaced);
+			if (i > 0 && frame.demise) {
+				boolean isDefaultFun = formulaMessage.getStatement().isDefaultFunParam(nameToBeReplaced);
 				// 如果使用了提供默认值的函数或者是空值检验公式 则跳过检验
-				if (config.getSize() <= currentIndex && !isDefaultFun && !isNullJudge) {
-					throw new CalculateException("公式有误！" + formulaMessage.getOriginalFormula() + " 参数 " + parameterOriginalName + " 有误！最大索引应该大于等于 " + currentIndex);
+				if (config.getSize() <= frame.currentIndex && !isDefaultFun && !isNullJudge) {
+					throw new CalculateException("公式有误！" + formulaMessage.getOriginalFormula() + " 参数 " + parameterOriginalName + " 有误！最大索引应该大于等于 " + frame.currentIndex);
 				}
 			}
-			String newParameterOriginalName = parameterOriginalName + "_" + "索引" + index;
-			if (i == 0) {
-				resultIndexName = newParameterOriginalName;
-			}
-			// 对公式中的参数名称进行替换
-			if (originalFormula.contains(nameToBeReplaced)) {
-				originalFormula = originalFormula.replace(nameToBeReplaced, newParameterOriginalName);
-			}
-			parameterResolution(formulaMessage, parameterOriginalName, isNullJudge, paramContext, i, index, newParameterOriginalName);
-		}
-		if (changeTheFormulaFunctions.length != 0) {
-			originalFormula = changeTheFormulaFunctions[0].apply(originalFormula);
+			parameterResolution(formulaMessage, parameterOriginalName, isNullJudge, paramContext, i);
 		}
-		execute(originalFormula, param);
-		String originalResultName = parameterOriginalNameList.get(0);
-		//执行完成之后需要将结果放入到 List 中，并保存到上下文中。
-		Boolean containsKey = paramContext.containsKey(originalResultName);
-		Object resultForIndex = paramContext.get(resultIndexName);
+		formulaMessage.getExpression().execute(view);
+		Object resultForIndex = view.getAssigned(nameToBeReplacedList.get(0));
 		if (resultForIndex == null) {
-			throw new CalculateException("数据异常，" + resultIndexName + " 结果数据缺失");
+			throw new CalculateException("数据异常，" + parameterOriginalNameList.get(0) + " 索引 " + index + " 结果数据缺失");
 		}
+		return resultForIndex;
+	}
+
+	/**
+	 * 将当前索引的结果放入到 List 中，并保存到上下文中
+	 *
+	 * @param originalResultName 结果参数名称
+	 * @param index              索引
+	 * @param resultForIndex     当前索引的结果
+	 * @param frame              当前公式的执行状态
+	 */
+	@SuppressWarnings("unchecked")
+	private void putResult(String originalResultName, int index, Object resultForIndex, ListExecutionFrame frame) {
+		ParamManager paramContext = frame.getParam().getParamContext();
+		Boolean containsKey = paramContext.containsKey(originalResultName);
 		List<Object> resultList;
 		if (!containsKey) {
 			resultList = new ArrayList<>();
+			paramContext.put(originalResultName, resultList);
 		} else {
 			Object result = paramContext.get(originalResultName);
 			if (!(result instanceof List)){
 				throw new CalculateException("数据异常，" + originalResultName + " 类型不是 " + List.class);
 			}
+			if (result instanceof DoubleList && !(resultForIndex instanceof Number)) {
+				throw new CalculateException("数值模式为 " + NumericMode.DOUBLE + " 时列表结果只能是数值，" + originalResultName + " 索引 " + index + " 的结果是 " + resultForIndex);
+			}
 			resultList = (List<Object>) result;
 		}
+		setResult(resultList, index, toStoredResult(resultForIndex, frame));
+	}
+
+	private void setResult(List<Object> resultList, int index, Object resultForIndex) {
 		if (resultList.size() > index) {
 			resultList.set(index, resultForIndex);
 		} else {
 			resultList.add(resultForIndex);
 		}
-		paramContext.put(originalResultName, resultList);
+	}
+
+	/**
+	 * 转换成保存到结果列表中的类型
+	 * 高精度模式下数值结果统一保存为 BigDecimal，读取结果时不需要再转换
+	 *
+	 * @param resultForIndex 当前索引的结果
+	 * @param frame          当前公式的执行状态
+	 * @return {@link Object}
+	 */
+	private Object toStoredResult(Object resultForIndex, ListExecutionFrame frame) {
+		if (resultForIndex instanceof Number && !(resultForIndex instanceof BigDecimal) && frame.getConfig().getNumericMode() != NumericMode.DOUBLE) {
+			return NumberHelper.toBigDecimal(resultForIndex);
+		}
 		return resultForIndex;
 	}
 
 	/**
-	 * 参数拆分
+	 * 参数检查
+	 * 参数的数值由 {@link IndexedParamView} 按索引读取，这里只检查参数是否已经定义
 	 *
-	 * @param formulaMessage           公式元信息
-	 * @param parameterOriginalName    参数原名称
-	 * @param isNullJudge              是否为空判断公式
-	 * @param paramContext             参数上下文
-	 * @param i                        当前正在处理参数的索引
-	 * @param index                    公式正在使用参数值的索引
-	 * @param newParameterOriginalName 新的参数名称
+	 * @param formulaMessage        公式元信息
+	 * @param parameterOriginalName 参数原名称
+	 * @param isNullJudge           是否为空判断公式
+	 * @param paramContext          参数上下文
+	 * @param i                     当前正在处理参数的索引
 	 */
-	private void parameterResolution(FormulaMessage formulaMessage, String parameterOriginalName, boolean isNullJudge, ParamManager paramContext, int i, int index, String newParameterOriginalName) {
-		// 对每个参数按照索引进行拆解，用于后续计算
-		// 第一个是结果参数的名称或者是空判断公式，不需要对参数的数值进行更改
-		// 如果新参数名称已经在上下文中有对应的数值了就不进行替换
-		if (paramContext.containsKey(newParameterOriginalName)) {
+	private void parameterResolution(FormulaMessage formulaMessage, String parameterOriginalName, boolean isNullJudge, ParamManager paramContext, int i) {
+		// 第一个是结果参数的名称，空判断公式中参数不存在就是 null，都不需要检查
+		if (i == 0 || isNullJudge) {
 			return;
 		}
-		boolean isDefaultFun = checkDefaultFun(formulaMessage.getOriginalFormula(), parameterOriginalName);
-		if (i != 0 && !isNullJudge) {
-			Object o = paramContext.get(parameterOriginalName);
-			if (o == null) {
-				if (isDefaultFun) {
-					return;
-				}
-				throw new CalculateException(formulaMessage.getOriginalFormula() + " 公式执行有误！ " + parameterOriginalName + " 参数未定义，请在计算前定义");
-			}
-			List<Object> paramList = (List<Object>) o;
-			// 如果是默认赋值函数，那么参数必须有值才进行拆分
-			if (!(isDefaultFun && paramList.size() <= index)) {
-				paramContext.put(newParameterOriginalName, paramList.get(index));
-			}
+		if (paramContext.containsKey(parameterOriginalName)) {
+			return;
+		}
+		if (!formulaMessage.getStatement().isDefaultFunParam(parameterOriginalName)) {
+			throw new CalculateException(formulaMessage.getOriginalFormula() + " 公式执行有误！ " + parameterOriginalName + " 参数未定义，请在计算前定义");
 		}
 	}
 
+	/**
+	 * 用于日志输出的公式
+	 *
+	 * @param formula 公式
+	 * @param index   索引
+	 * @return {@link String}
+	 */
+	private String indexFormula(String formula, int index) {
+		return formula + "（索引：" + index + "）";
+	}
+
 
-	private void checkParamSize(List<FormulaMessage> checklist) {
+	private void checkParamSize(List<FormulaMessage> checklist, ListExecutionFrame frame) {
 		checklist = checklist.stream().filter(Objects::nonNull).collect(Collectors.toList());
 		Integer markSize = null;
 		String markFormula = null;
@@ -316,9 +596,9 @@ public class ListDataExecutor extends AbstractDataExecutor {
 				markFormula = formulaMessage.getOriginalFormula();
 			}
 			// 如果循环的索引时外部传递进来的，那么只要参数的最大索引大于当前正在执行的索引就通过检测
-			if (demise) {
-				if (markSize <= currentIndex && !formulaMessage.isNullJudge()) {
-					throw new CalculateException(markFormula + " 有误！参数的最大索引应该大于等于 " + currentIndex);
+			if (frame.demise) {
+				if (markSize <= frame.currentIndex && !formulaMessage.isNullJudge()) {
+					throw new CalculateException(markFormula + " 有误！参数的最大索引应该大于等于 " + frame.currentIndex);
 				}
 			} else {
 				if (markSize != formulaMessage.getSize()) {
@@ -336,9 +616,15 @@ public class ListDataExecutor extends AbstractDataExecutor {
 	 * 参数检查
 	 * 必须都是 List 类型，并且长度要相等
 	 *
-	 * @param formulaMessage 公式信息
+	 * @param compiledMessage 编译时提取的公式信息
+	 * @param frame           当前公式的执行状态
+	 * @return {@link FormulaMessage} 绑定了当前上下文参数长度的公式信息
 	 */
-	private void paramCheck(FormulaMessage formulaMessage) {
+	private FormulaMessage paramCheck(FormulaMessage compiledMessage, ListExecutionFrame frame) {
+		if (compiledMessage == null) {
+			return null;
+		}
+		FormulaMessage formulaMessage = new FormulaMessage(compiledMessage);
 		List<String> parameterOriginalNameList = formulaMessage.getParameterOriginalNameList();
 		if (CollectionUtils.isEmpty(parameterOriginalNameList)) {
 			throw new CalculateException("公式有误！" + formulaMessage.getOriginalFormula() + " 需要至少有一个计算参数包含 _index");
@@ -346,16 +632,15 @@ public class ListDataExecutor extends AbstractDataExecutor {
 		// 说明是赋值语句 例如 a_index = 1;
 		if (parameterOriginalNameList.size() == 1) {
 			formulaMessage.setSize(-1);
-			return;
+			return formulaMessage;
 		}
-		boolean isNullJudge = formulaMessage.getOriginalFormula().contains("null");
-		formulaMessage.setNullJudge(isNullJudge);
+		formulaMessage.setNullJudge(formulaMessage.getStatement().isNullJudge());
 		Integer markSize = null;
 		String markName = null;
 		// 第一个是结果名称不用检查
 		for (int i = 1; i < parameterOriginalNameList.size(); i++) {
 			String name = parameterOriginalNameList.get(i);
-			ParamConfig config = param.getParamConfig(name);
+			ParamConfig config = frame.getParam().getParamConfig(name);
 			if (config == null) {
 				continue;
 			}
@@ -363,116 +648,56 @@ public class ListDataExecutor extends AbstractDataExecutor {
 				markSize = config.getSize();
 				markName = name;
 			}
-			if (!demise && markSize != config.getSize()) {
+			if (!frame.demise && markSize != config.getSize()) {
 				throw new CalculateException("公式有误！" + formulaMessage.getOriginalFormula() + " 参数 {0} 和 {1} 的长度不同，分别为 {2}，{3}", markName, name, markSize.toString(), String.valueOf(config.getSize()));
 			}
 			markSize = config.getSize();
 			markName = name;
 		}
 		// 有可能是多条公式一起执行，前一个公式还没有执行，所以当前公式无法获取参数数值。多条公式一起执行的情况下，只要能从一个公式中获取参数长度就可以。
-		if (markSize == null && paramTotalSize == null) {
+		if (markSize == null && frame.paramTotalSize == null) {
 			formulaMessage.setSize(-1);
-			return;
+			return formulaMessage;
 		}
-		formulaMessage.setSize(Optional.ofNullable(markSize).orElse(paramTotalSize));
+		formulaMessage.setSize(Optional.ofNullable(markSize).orElse(frame.paramTotalSize));
+		return formulaMessage;
 	}
 
 	/**
-	 * 检查是否是默认赋值函数
+	 * 列表公式的执行状态
 	 *
-	 * @param originalFormula 原来公式
-	 * @param paramName       参数名称
-	 * @return boolean
+	 * @author byw
+	 * @date 2026/10/18
 	 */
-	private boolean checkDefaultFun(String originalFormula, String paramName) {
-		return originalFormula.contains("default(" + paramName) || originalFormula.contains("defaultZero(" + paramName);
-	}
+	private static class ListExecutionFrame extends ExecutionFrame {
 
-	/**
-	 * 提取公式信息
-	 *
-	 * @param formula   公式
-	 * @param condition 条件 是否为条件公式，条件公式，条件公式没有结果名称，需要系统自己加上
-	 * @return {@link FormulaMessage}
-	 */
-	private FormulaMessage extractFormulaMessage(String formula, boolean condition) {
-		if (StringUtils.isBlank(formula)) {
-			return null;
-		}
-		if (condition) {
-			formula = "条件公式" + indexMark + " = " + formula + " ";
-		}
-		FormulaMessage formulaMessage = new FormulaMessage(formula);
-		checkResultName(formula);
-		char[] indexMarkChars = indexMark.toCharArray();
-		char[] formulaChars = formula.toCharArray();
-		boolean skip = false;
-		//保存命中的字符
-		List<Character> hitCharList = new ArrayList<>();
-		List<String> nameList = new ArrayList<>();
-		for (int i = 0; i < formulaChars.length; i++) {
-			char formulaChar = formulaChars[i];
-			if (keywords.contains(formulaChar)) {
-				hitCharList.clear();
-				continue;
-			}
-			//左括号说明之前是函数名称
-			if (formulaChar == LEFT_BRACKET) {
-				hitCharList.clear();
-				continue;
-			}
-			if (formulaChar == indexMarkChars[0]) {
-				//j = 1 是因为第一个字符已经匹配过了
-				int a = i;
-				for (int j = 1; j < indexMarkChars.length; j++) {
-					a++;
-					//说明已经对比完公式最后一个字符了，所以不满足需求
-					if (a == formulaChars.length) {
-						hitCharList.clear();
-						break;
-					}
-					if (formulaChars[a] != indexMarkChars[j]) {
-						break;
-					}
-					if (j + 1 == indexMarkChars.length && (a + 1 == formulaChars.length || keywords.contains(formulaChars[a + 1]))) {
-						StringBuilder stringBuffer = new StringBuilder();
-						hitCharList.forEach(character -> stringBuffer.append(character.toString()));
-						nameList.add(stringBuffer.toString());
-						skip = true;
-						i = a;
-						hitCharList.clear();
-					}
-				}
-			}
-			if (!skip) {
-				hitCharList.add(formulaChar);
-			}
-			skip = false;
-		}
-		formulaMessage.setParameterOriginalNameList(nameList);
-		formulaMessage.setNameToBeReplacedList(nameList.stream().map(name -> name + indexMark).collect(Collectors.toList()));
+		/**
+		 * 循环是否由外部参数控制
+		 */
+		private final boolean demise;
 
-		paramCheck(formulaMessage);
-		return formulaMessage;
-	}
+		/**
+		 * 当前索引
+		 */
+		private final Integer currentIndex;
 
-	/**
-	 * 检验结果名字
-	 *
-	 * @param formula 公式
-	 */
-	private void checkResultName(String formula) {
-		if (formula.indexOf(EQUAL) == -1) {
-			throw new RuntimeException(formula + " 不是等式");
-		}
-		int EQUAL_INDEX = formula.indexOf(EQUAL);
-		// 排除使用了 == 的情况
-		if (formula.charAt(EQUAL_INDEX + 1) == EQUAL) {
-			throw new RuntimeException(formula + " 不是等式");
-		}
-		String resultName = formula.split(String.valueOf(EQUAL))[0];
-		if (!resultName.contains(indexMark)) {
-			throw new CalculateException(resultName + " 必须包含字符串：" + indexMark);
+		/**
+		 * param总长度
+		 */
+		private final Integer paramTotalSize;
+
+		/**
+		 * 按索引读取参数的上下文视图
+		 */
+		private final IndexedParamView indexedView;
+
+		private ListExecutionFrame(ExecutionContext context) {
+			super(context);
+			CalculateConfig config = context.getConfig();
+			this.demise = config.getCurrentIndex() != null;
+			this.currentIndex = config.getCurrentIndex();
+			this.paramTotalSize = config.getParamTotalSize();
+			this.indexedView = new IndexedParamView(context.getParam().getParamContext());
 		}
 	}
 
@@ -500,24 +725,45 @@ public class ListDataExecutor extends AbstractDataExecutor {
 		}
 	}
 
-	@Data
-	private static class FormulaMessage {
+	/**
+	 * 编译后的列表公式
+	 *
+	 * @author byw
+	 * @date 2026/10/18
+	 */
+	private static class ListCompiledFormula extends CompiledFormula {
 
 		/**
-		 * 原始公式
+		 * 公式信息（不包含参数长度，已经处理了四舍五入）
 		 */
-		private String originalFormula;
+		private final List<FormulaMessage> formulaMessages;
+
+		private final FormulaMessage startConditionMessage;
+
+		private final FormulaMessage stopConditionMessage;
 
 		/**
-		 * 待替换参数名称
-		 * 包括结果参数名称
+		 * 不同索引之间是否互相独立，可以分段并行计算
 		 */
-		private List<String> nameToBeReplacedList = new ArrayList<>();
+		private final boolean parallelizable;
+
+		public ListCompiledFormula(Formula formula, List<FormulaMessage> formulaMessages, FormulaMessage startConditionMessage,
+								   FormulaMessage stopConditionMessage, boolean parallelizable) {
+			super(formula, ListDataExecutor.class);
+			this.formulaMessages = formulaMessages;
+			this.startConditionMessage = startConditionMessage;
+			this.stopConditionMessage = stopConditionMessage;
+			this.parallelizable = parallelizable;
+		}
+	}
+
+	@Data
+	private static class FormulaMessage {
 
 		/**
-		 * 参数原始名称
+		 * 公式的解析结果
 		 */
-		private List<String> parameterOriginalNameList = new ArrayList<>();
+		private final FormulaStatement statement;
 
 		/**
 		 * 参数长度 ；
@@ -526,20 +772,53 @@ public class ListDataExecutor extends AbstractDataExecutor {
 		private int size;
 
 		/**
-		 * 是默认赋值公式
+		 * 编译后的公式，_index 参数没有被替换
 		 */
-		private boolean defaultFun = false;
+		private CompiledExpression expression;
+
 		/**
 		 * 是空值判断公式
 		 */
 		private boolean nullJudge = false;
 
-		public FormulaMessage(String originalFormula) {
-			this.originalFormula = originalFormula;
+		public FormulaMessage(FormulaStatement statement) {
+			this.statement = statement;
+		}
+
+		/**
+		 * 复制编译时提取的公式信息，参数长度等运行时信息需要重新检查
+		 *
+		 * @param formulaMessage 公式信息
+		 */
+		public FormulaMessage(FormulaMessage formulaMessage) {
+			this.statement = formulaMessage.statement;
+			this.expression = formulaMessage.expression;
+		}
+
+		/**
+		 * 原始公式
+		 */
+		public String getOriginalFormula() {
+			return statement.getFormula();
+		}
+
+		/**
+		 * 待替换参数名称
+		 * 包括结果参数名称
+		 */
+		public List<String> getNameToBeReplacedList() {
+			return statement.getIndexNameList();
+		}
+
+		/**
+		 * 参数原始名称
+		 */
+		public List<String> getParameterOriginalNameList() {
+			return statement.getParameterNameList();
 		}
 
 		public String getOriginalResultName() {
-			return parameterOriginalNameList.get(0);
+			return statement.getResultName();
 		}
 	}
 }
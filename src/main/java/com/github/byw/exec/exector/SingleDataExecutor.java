@@ -1,11 +1,14 @@
 package com.github.byw.exec.exector;
 
 import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.exec.expression.CompiledExpression;
+import com.github.byw.exec.expression.ExpressionCompiler;
 import com.github.byw.formula.Formula;
 import com.github.byw.formula.FormulaConditions;
-import lombok.SneakyThrows;
+import com.github.byw.param.ParamContext;
 import org.apache.commons.lang.StringUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,65 +22,132 @@ import java.util.Optional;
  */
 public class SingleDataExecutor extends AbstractDataExecutor {
 
+	public SingleDataExecutor() {
+	}
+
+	public SingleDataExecutor(ExpressionCompiler compiler) {
+		super(compiler);
+	}
+
 	@Override
 	public boolean canHandle(Formula formulaInstance) {
 		return true;
 	}
 
-	@SneakyThrows
 	@Override
-	protected void doExec(Formula formulaInstance) {
-
-		FormulaConditions formulaConditions = formulaInstance.getConditions();
-		if (formulaConditions == null) {
-			doExec(formulaInstance, config);
-			return;
-		}
-		//停止条件
-		String stopConditions = Optional.ofNullable(formulaConditions.getStopConditions()).orElse("1==1");
-
-		Boolean startConditionsResult = judgeWhetherStart(formulaConditions.getStartConditions());
-
-		Boolean stopConditionsResult = executeForBool(stopConditions, param);
-		if (startConditionsResult) {
-			doExec(formulaInstance, config);
-			while (!stopConditionsResult && !Thread.currentThread().isInterrupted()) {
-				doExec(formulaInstance, config);
-				stopConditionsResult = executeForBool(stopConditions, param);
-			}
-		}
-	}
-
-	@SneakyThrows
-	private void doExec(Formula formulaInstance, CalculateConfig config) {
+	public CompiledFormula compile(Formula formulaInstance, CalculateConfig config) {
 		Integer getInteger = null;
-		List<String> toBeExecutedFormulaList = formulaInstance.getFormulaList();
+		String startCondition = "";
+		String stopCondition = "";
+		CompiledExpression startConditionExpression = null;
+		CompiledExpression stopConditionExpression = null;
 		FormulaConditions conditions = formulaInstance.getConditions();
 		if (conditions != null) {
 			getInteger = conditions.retainDecimal();
-		}
-		for (String toBeExecutedFormula : toBeExecutedFormulaList) {
-			String startCondition = "";
-			String stopCondition = "";
-			if (conditions != null) {
-				startCondition = conditions.getStartConditions() == null ? "" : String.valueOf(conditions.getStartConditions());
-				stopCondition = conditions.getStopConditions() == null ? "" : String.valueOf(conditions.getStopConditions());
+			startCondition = conditions.getStartConditions() == null ? "" : String.valueOf(conditions.getStartConditions());
+			stopCondition = conditions.getStopConditions() == null ? "" : String.valueOf(conditions.getStopConditions());
+			if (StringUtils.isNotBlank(conditions.getStartConditions())) {
+				startConditionExpression = compileExpression(conditions.getStartConditions());
 			}
-			printFormulaLog(toBeExecutedFormula, startCondition, stopCondition);
+			//停止条件
+			stopConditionExpression = compileExpression(Optional.ofNullable(conditions.getStopConditions()).orElse("1==1"));
+		}
+		List<String> formulaList = new ArrayList<>();
+		List<CompiledExpression> expressionList = new ArrayList<>();
+		for (String toBeExecutedFormula : formulaInstance.getFormulaList()) {
+			formulaList.add(toBeExecutedFormula);
 			if (config.getRetainDecimal() != null) {
 				toBeExecutedFormula = modificationFormula(toBeExecutedFormula, config.getRetainDecimal());
 			}
 			if (getInteger != null) {
 				toBeExecutedFormula = modificationFormula(toBeExecutedFormula, getInteger);
 			}
-			execute(toBeExecutedFormula, param);
+			expressionList.add(compileExpression(toBeExecutedFormula));
+		}
+		return new SingleCompiledFormula(formulaInstance, formulaList, expressionList, startCondition, stopCondition,
+				startConditionExpression, stopConditionExpression);
+	}
+
+	@Override
+	protected void doExec(CompiledFormula compiledFormula, ExecutionFrame frame) {
+		SingleCompiledFormula formula = (SingleCompiledFormula) compiledFormula;
+		ParamContext param = frame.getParam();
+		frame.evaluatedIndexCount = 1;
+		if (formula.stopConditionExpression == null) {
+			doDetailExec(formula, frame);
+			return;
+		}
+		Boolean startConditionsResult = judgeWhetherStart(formula.startConditionExpression, param);
+
+		Boolean stopConditionsResult = executeForBool(formula.stopConditionExpression, param);
+		if (startConditionsResult) {
+			doDetailExec(formula, frame);
+			Integer maxIterations = maxIterations(frame, formula.getFormula());
+			long iterations = 0;
+			while (!stopConditionsResult && !Thread.currentThread().isInterrupted()) {
+				checkIterations(frame, formula.getFormula(), ++iterations, maxIterations, "");
+				doDetailExec(formula, frame);
+				stopConditionsResult = executeForBool(formula.stopConditionExpression, param);
+			}
+			reportLoop(frame, formula.getFormula(), iterations);
+		}
+	}
+
+	private void doDetailExec(SingleCompiledFormula formula, ExecutionFrame frame) {
+		for (int i = 0; i < formula.expressionList.size(); i++) {
+			printFormulaLog(frame, formula.formulaList.get(i), formula.startCondition, formula.stopCondition);
+			execute(formula.expressionList.get(i), frame.getParam());
 		}
 	}
 
-	private Boolean judgeWhetherStart(String startCondition) throws Exception {
-		if (StringUtils.isBlank(startCondition)) {
+	private Boolean judgeWhetherStart(CompiledExpression startCondition, ParamContext param) {
+		if (startCondition == null) {
 			return true;
 		}
 		return executeForBool(startCondition, param);
 	}
+
+	/**
+	 * 编译后的单值公式
+	 *
+	 * @author byw
+	 * @date 2026/10/18
+	 */
+	private static class SingleCompiledFormula extends CompiledFormula {
+
+		/**
+		 * 原始公式，用于输出日志
+		 */
+		private final List<String> formulaList;
+
+		/**
+		 * 编译后的公式（已经处理了四舍五入）
+		 */
+		private final List<CompiledExpression> expressionList;
+
+		private final String startCondition;
+
+		private final String stopCondition;
+
+		/**
+		 * 开始条件，为 null 说明没有约束
+		 */
+		private final CompiledExpression startConditionExpression;
+
+		/**
+		 * 停止条件，为 null 说明公式没有设置条件，只执行一次
+		 */
+		private final CompiledExpression stopConditionExpression;
+
+		public SingleCompiledFormula(Formula formula, List<String> formulaList, List<CompiledExpression> expressionList, String startCondition,
+									 String stopCondition, CompiledExpression startConditionExpression, CompiledExpression stopConditionExpression) {
+			super(formula, SingleDataExecutor.class);
+			this.formulaList = formulaList;
+			this.expressionList = expressionList;
+			this.startCondition = startCondition;
+			this.stopCondition = stopCondition;
+			this.startConditionExpression = startConditionExpression;
+			this.stopConditionExpression = stopConditionExpression;
+		}
+	}
 }
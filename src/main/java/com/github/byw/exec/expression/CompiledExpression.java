@@ -0,0 +1,29 @@
+package com.github.byw.exec.expression;
+
+import com.ql.util.express.IExpressContext;
+
+/**
+ * 编译后的表达式
+ * <p>
+ * 表达式只需要解析一次，之后每次执行只需要绑定参数上下文即可。实现类必须是线程安全的，同一个实例会被多个线程同时使用。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public interface CompiledExpression {
+
+	/**
+	 * 执行表达式
+	 *
+	 * @param context 参数上下文
+	 * @return {@link Object} 表达式结果
+	 */
+	Object execute(IExpressContext<String, Object> context);
+
+	/**
+	 * 得到表达式原文
+	 *
+	 * @return {@link String}
+	 */
+	String getText();
+}
@@ -0,0 +1,145 @@
+package com.github.byw.exec.expression;
+
+import com.github.byw.exec.config.NumericMode;
+import com.github.byw.exec.operator.*;
+import com.github.byw.metrics.MetricsListener;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.ql.util.express.ExpressRunner;
+import com.ql.util.express.Operator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 表达式编译器
+ * <p>
+ * 公式属于常见子集（四则运算、比较、逻辑运算、round 以及内置函数）时编译为原生表达式，直接在 Java 中求值；
+ * 其它公式（包括调用了通过 {@link #addFunction(String, Operator)} 注册的函数的公式）编译为 QLExpress 的指令集。
+ * 注册的函数可能有副作用，只交给 QLExpress 执行，原生表达式运行时交给 QLExpress 重新执行时不会重复调用。
+ * <p>
+ * 数值模式为 {@link NumericMode#DOUBLE} 时原生表达式的四则运算和比较直接使用 double 计算（除以 0 得到 Infinity），
+ * QLExpress 执行的公式不受影响。
+ * <p>
+ * 编译结果按照表达式文本缓存，相同的表达式只编译一次，注册函数之后缓存会被清空。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class ExpressionCompiler {
+
+	/**
+	 * 编译缓存最多保存的表达式数量
+	 */
+	private static final int CACHE_SIZE = 10000;
+
+	private final ExpressRunner runner;
+
+	/**
+	 * 编译缓存
+	 */
+	private final Cache<String, CompiledExpression> cache = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).build();
+
+	/**
+	 * 指标监听器，为 null 时不报告编译缓存的命中情况
+	 */
+	private volatile MetricsListener metricsListener;
+
+	/**
+	 * 原生表达式可以调用的内置函数（{@link com.github.byw.exec.operator} 中没有副作用的函数）
+	 */
+	private final Map<String, Operator> builtinFunctions = new ConcurrentHashMap<>();
+
+	/**
+	 * 是否启用原生表达式
+	 */
+	private final boolean nativeExpression;
+
+	/**
+	 * 数值模式
+	 */
+	private final NumericMode numericMode;
+
+	public ExpressionCompiler(boolean nativeExpression) {
+		this(nativeExpression, NumericMode.DECIMAL);
+	}
+
+	public ExpressionCompiler(boolean nativeExpression, NumericMode numericMode) {
+		this.nativeExpression = nativeExpression;
+		this.numericMode = numericMode;
+		this.runner = new ExpressRunner(true, false);
+		addBuiltinFunction("listMax", new ListMax());
+		addBuiltinFunction("listMin", new ListMin());
+		addBuiltinFunction("listSum", new ListSum());
+		addBuiltinFunction("listAvg", new ListAvg());
+		addBuiltinFunction("listCount", new ListCount());
+		addBuiltinFunction("prefixSum", new PrefixSum());
+		addBuiltinFunction("rollingSum", new RollingSum());
+		addBuiltinFunction("rollingAvg", new RollingAvg());
+		// 并行版本，适合很长的列表
+		addBuiltinFunction("listMaxParallel", new ListMax(true));
+		addBuiltinFunction("listMinParallel", new ListMin(true));
+		addBuiltinFunction("listSumParallel", new ListSum(true));
+		addBuiltinFunction("listAvgParallel", new ListAvg(true));
+		addBuiltinFunction("prefixSumParallel", new PrefixSum(true));
+		addBuiltinFunction("rollingSumParallel", new RollingSum(true));
+		addBuiltinFunction("rollingAvgParallel", new RollingAvg(true));
+		addBuiltinFunction("defaultZero", new DefaultZero());
+		addBuiltinFunction("default", new Default());
+	}
+
+	/**
+	 * 注册函数
+	 *
+	 * @param name     名字
+	 * @param operator 函数
+	 */
+	public synchronized void addFunction(String name, Operator operator) {
+		runner.addFunction(name, operator);
+		// 之前编译的公式可能调用了当时还没有注册的函数
+		cache.invalidateAll();
+	}
+
+	private void addBuiltinFunction(String name, Operator operator) {
+		runner.addFunction(name, operator);
+		builtinFunctions.put(name, operator);
+	}
+
+	/**
+	 * 编译表达式
+	 *
+	 * @param text 表达式
+	 * @return {@link CompiledExpression}
+	 */
+	public CompiledExpression compile(String text) {
+		CompiledExpression expression = cache.getIfPresent(text);
+		MetricsListener listener = metricsListener;
+		if (listener != null) {
+			listener.onCompileCache(text, expression != null);
+		}
+		if (expression == null) {
+			expression = doCompile(text);
+			cache.put(text, expression);
+		}
+		return expression;
+	}
+
+	private CompiledExpression doCompile(String text) {
+		if (nativeExpression) {
+			ExpressionNode root = NativeExpressionParser.parse(text, builtinFunctions, numericMode == NumericMode.DOUBLE);
+			if (root != null) {
+				return new NativeCompiledExpression(root, text, runner);
+			}
+		}
+		return QlCompiledExpression.compile(runner, text);
+	}
+
+	/**
+	 * 设置指标监听器
+	 *
+	 * @param metricsListener 指标监听器
+	 */
+	public void setMetricsListener(MetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+}
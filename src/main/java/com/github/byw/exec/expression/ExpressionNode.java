@@ -0,0 +1,466 @@
+package com.github.byw.exec.expression;
+
+import com.github.byw.exception.CalculateException;
+import com.github.byw.param.DoubleParamReader;
+import com.ql.util.express.IExpressContext;
+import com.ql.util.express.Operator;
+import lombok.SneakyThrows;
+
+/**
+ * 表达式语法树节点
+ * <p>
+ * 由 {@link NativeExpressionParser} 生成，每种运算对应一个专门的节点，执行时直接递归求值。
+ * 遇到超出快速路径的数据类型（例如字符串相加、非 Boolean 的逻辑运算）时抛出 {@link NativeFallbackException}，
+ * 由 {@link NativeCompiledExpression} 交给 QLExpress 执行。
+ * <p>
+ * double 模式下四则运算通过 {@link #evaluateDouble} 直接在 double 上计算，中间结果不装箱。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+abstract class ExpressionNode {
+
+	/**
+	 * 求值
+	 *
+	 * @param context 参数上下文
+	 * @return {@link Object}
+	 */
+	abstract Object evaluate(IExpressContext<String, Object> context);
+
+	/**
+	 * 按 double 求值
+	 *
+	 * @param context 参数上下文
+	 * @return double
+	 */
+	double evaluateDouble(IExpressContext<String, Object> context) {
+		return toNumber(evaluate(context)).doubleValue();
+	}
+
+	/**
+	 * 当前节点或子节点是否包含赋值
+	 *
+	 * @return boolean
+	 */
+	boolean containsAssign() {
+		return false;
+	}
+
+	static Number toNumber(Object value) {
+		if (value instanceof Number) {
+			return (Number) value;
+		}
+		throw NativeFallbackException.INSTANCE;
+	}
+
+	static boolean toBoolean(Object value) {
+		if (value instanceof Boolean) {
+			return (Boolean) value;
+		}
+		throw NativeFallbackException.INSTANCE;
+	}
+
+	/**
+	 * 常量
+	 */
+	static class Constant extends ExpressionNode {
+
+		private final Object value;
+
+		private final double doubleValue;
+
+		Constant(Object value) {
+			this.value = value;
+			this.doubleValue = value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+		}
+
+		@Override
+		Object evaluate(IExpressContext<String, Object> context) {
+			return value;
+		}
+
+		@Override
+		double evaluateDouble(IExpressContext<String, Object> context) {
+			if (!(value instanceof Number)) {
+				throw NativeFallbackException.INSTANCE;
+			}
+			return doubleValue;
+		}
+	}
+
+	/**
+	 * 参数
+	 */
+	static class Variable extends ExpressionNode {
+
+		private final String name;
+
+		Variable(String name) {
+			this.name = name;
+		}
+
+		@Override
+		Object evaluate(IExpressContext<String, Object> context) {
+			return context.get(name);
+		}
+
+		@Override
+		double evaluateDouble(IExpressContext<String, Object> context) {
+			if (context instanceof DoubleParamReader) {
+				DoubleParamReader reader = (DoubleParamReader) context;
+				if (reader.isDouble(name)) {
+					return reader.getDouble(name);
+				}
+			}
+			return toNumber(context.get(name)).doubleValue();
+		}
+	}
+
+	/**
+	 * 赋值
+	 */
+	static class Assign extends ExpressionNode {
+
+		private final String name;
+
+		private final ExpressionNode value;
+
+		Assign(String name, ExpressionNode value) {
+			this.name = name;
+			this.value = value;
+		}
+
+		@Override
+		Object evaluate(IExpressContext<String, Object> context) {
+			Object result = value.evaluate(context);
+			context.put(name, result);
+			return result;
+		}
+
+		@Override
+		boolean containsAssign() {
+			return true;
+		}
+
+
+		ExpressionNode getValue() {
+			return value;
+		}
+	}
+
+	/**
+	 * 二元运算
+	 */
+	abstract static class Binary extends ExpressionNode {
+
+		protected final ExpressionNode left;
+
+		protected final ExpressionNode right;
+
+		Binary(ExpressionNode left, ExpressionNode right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		boolean containsAssign() {
+			return left.containsAssign() || right.containsAssign();
+		}
+
+	}
+
+	/**
+	 * 四则运算
+	 */
+	abstract static class Arithmetic extends Binary {
+
+		/**
+		 * 是否使用 double 计算
+		 */
+		private final boolean doubleMode;
+
+		Arithmetic(ExpressionNode left, ExpressionNode right, boolean doubleMode) {
+			super(left, right);
+			this.doubleMode = doubleMode;
+		}
+
+		@Override
+		Object evaluate(IExpressContext<String, Object> context) {
+			if (doubleMode) {
+				return evaluateDouble(context);
+			}
+			return apply(toNumber(left.evaluate(context)), toNumber(right.evaluate(context)));
+		}
+
+		@Override
+		double evaluateDouble(IExpressContext<String, Object> context) {
+			return apply(left.evaluateDouble(context), right.evaluateDouble(context));
+		}
+
+		abstract Number apply(Number op1, Number op2);
+
+		abstract double apply(double op1, double op2);
+	}
+
+	static class Add extends Arithmetic {
+
+		Add(ExpressionNode left, ExpressionNode right, boolean doubleMode) {
+			super(left, right, doubleMode);
+		}
+
+		@Override
+		Number apply(Number op1, Number op2) {
+			return NumberOperator.add(op1, op2);
+		}
+
+		@Override
+		double apply(double op1, double op2) {
+			return op1 + op2;
+		}
+	}
+
+	static class Subtract extends Arithmetic {
+
+		Subtract(ExpressionNode left, ExpressionNode right, boolean doubleMode) {
+			super(left, right, doubleMode);
+		}
+
+		@Override
+		Number apply(Number op1, Number op2) {
+			return NumberOperator.subtract(op1, op2);
+		}
+
+		@Override
+		double apply(double op1, double op2) {
+			return op1 - op2;
+		}
+	}
+
+	static class Multiply extends Arithmetic {
+
+		Multiply(ExpressionNode left, ExpressionNode right, boolean doubleMode) {
+			super(left, right, doubleMode);
+		}
+
+		@Override
+		Number apply(Number op1, Number op2) {
+			return NumberOperator.multiply(op1, op2);
+		}
+
+		@Override
+		double apply(double op1, double op2) {
+			return op1 * op2;
+		}
+	}
+
+	static class Divide extends Arithmetic {
+
+		Divide(ExpressionNode left, ExpressionNode right, boolean doubleMode) {
+			super(left, right, doubleMode);
+		}
+
+		@Override
+		Number apply(Number op1, Number op2) {
+			return NumberOperator.divide(op1, op2);
+		}
+
+		@Override
+		double apply(double op1, double op2) {
+			return op1 / op2;
+		}
+	}
+
+	/**
+	 * 比较运算
+	 */
+	static class Compare extends Binary {
+
+		private final String operator;
+
+		/**
+		 * 是否使用 double 比较
+		 */
+		private final boolean doubleMode;
+
+		Compare(String operator, ExpressionNode left, ExpressionNode right, boolean doubleMode) {
+			super(left, right);
+			this.operator = operator;
+			this.doubleMode = doubleMode;
+		}
+
+		@Override
+		Object evaluate(IExpressContext<String, Object> context) {
+			Object op1 = left.evaluate(context);
+			Object op2 = right.evaluate(context);
+			if (op1 == null || op2 == null) {
+				// 和 QLExpress 一样，空值只能判断是否相等
+				boolean bothNull = op1 == null && op2 == null;
+				switch (operator) {
+					case "==":
+						return bothNull;
+					case "!=":
+						return !bothNull;
+					default:
+						throw NativeFallbackException.INSTANCE;
+				}
+			}
+			int result = doubleMode ? compareDouble(toNumber(op1).doubleValue(), toNumber(op2).doubleValue())
+					: NumberOperator.compare(toNumber(op1), toNumber(op2));
+			switch (operator) {
+				case "==":
+					return result == 0;
+				case "!=":
+					return result != 0;
+				case "<":
+					return result < 0;
+				case "<=":
+					return result <= 0;
+				case ">":
+					return result > 0;
+				case ">=":
+					return result >= 0;
+				default:
+					throw new CalculateException("不支持的比较运算：" + operator);
+			}
+		}
+
+		/**
+		 * 和 Double.compare 不同，0.0 和 -0.0 相等
+		 */
+		private static int compareDouble(double op1, double op2) {
+			return op1 < op2 ? -1 : (op1 > op2 ? 1 : 0);
+		}
+	}
+
+	static class And extends Binary {
+
+		And(ExpressionNode left, ExpressionNode right) {
+			super(left, right);
+		}
+
+		@Override
+		Object evaluate(IExpressContext<String, Object> context) {
+			return toBoolean(left.evaluate(context)) && toBoolean(right.evaluate(context));
+		}
+	}
+
+	static class Or extends Binary {
+
+		Or(ExpressionNode left, ExpressionNode right) {
+			super(left, right);
+		}
+
+		@Override
+		Object evaluate(IExpressContext<String, Object> context) {
+			return toBoolean(left.evaluate(context)) || toBoolean(right.evaluate(context));
+		}
+	}
+
+	/**
+	 * 一元运算
+	 */
+	abstract static class Unary extends ExpressionNode {
+
+		protected final ExpressionNode operand;
+
+		Unary(ExpressionNode operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		boolean containsAssign() {
+			return operand.containsAssign();
+		}
+
+	}
+
+	static class Not extends Unary {
+
+		Not(ExpressionNode operand) {
+			super(operand);
+		}
+
+		@Override
+		Object evaluate(IExpressContext<String, Object> context) {
+			return !toBoolean(operand.evaluate(context));
+		}
+	}
+
+	/**
+	 * 四舍五入
+	 */
+	static class Round extends ExpressionNode {
+
+		private final ExpressionNode number;
+
+		private final ExpressionNode scale;
+
+		Round(ExpressionNode number, ExpressionNode scale) {
+			this.number = number;
+			this.scale = scale;
+		}
+
+		@Override
+		Object evaluate(IExpressContext<String, Object> context) {
+			// 第一个参数可能是赋值语句，会修改参数上下文，所以先计算没有副作用的小数位数，
+			// 赋值之后就不能再交给 QLExpress 重新执行了
+			Object scaleValue = scale.evaluate(context);
+			Object value = number.evaluate(context);
+			if (!(value instanceof Number) || !(scaleValue instanceof Number)) {
+				throw new CalculateException("round 函数的参数必须是数值，实际是 " + value + "，" + scaleValue);
+			}
+			return NumberOperator.round((Number) value, ((Number) scaleValue).intValue());
+		}
+
+		@Override
+		boolean containsAssign() {
+			return number.containsAssign() || scale.containsAssign();
+		}
+
+
+		ExpressionNode getNumber() {
+			return number;
+		}
+
+		ExpressionNode getScale() {
+			return scale;
+		}
+	}
+
+	/**
+	 * 内置函数，例如 listSum、defaultZero（{@link com.github.byw.exec.operator} 中没有副作用的函数）
+	 */
+	static class Function extends ExpressionNode {
+
+		private final Operator operator;
+
+		private final ExpressionNode[] args;
+
+		Function(Operator operator, ExpressionNode[] args) {
+			this.operator = operator;
+			this.args = args;
+		}
+
+		@SneakyThrows
+		@Override
+		Object evaluate(IExpressContext<String, Object> context) {
+			Object[] values = new Object[args.length];
+			for (int i = 0; i < args.length; i++) {
+				values[i] = args[i].evaluate(context);
+			}
+			return operator.executeInner(values);
+		}
+
+		@Override
+		boolean containsAssign() {
+			for (ExpressionNode arg : args) {
+				if (arg.containsAssign()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+}
@@ -0,0 +1,56 @@
+package com.github.byw.exec.expression;
+
+import com.ql.util.express.ExpressRunner;
+import com.ql.util.express.IExpressContext;
+
+/**
+ * 原生表达式
+ * <p>
+ * 直接对语法树求值，不经过 QLExpress 的指令集和操作数栈。运行时遇到数值和 Boolean 以外的数据时交给 QLExpress 执行，
+ * 之后这个表达式都由 QLExpress 执行。原生表达式只会调用没有副作用的内置函数，所以重新执行总是安全的。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+class NativeCompiledExpression implements CompiledExpression {
+
+	private final ExpressionNode root;
+
+	private final String text;
+
+	private final ExpressRunner runner;
+
+	private volatile QlCompiledExpression fallback;
+
+	NativeCompiledExpression(ExpressionNode root, String text, ExpressRunner runner) {
+		this.root = root;
+		this.text = text;
+		this.runner = runner;
+	}
+
+	@Override
+	public Object execute(IExpressContext<String, Object> context) {
+		QlCompiledExpression qlExpression = fallback;
+		if (qlExpression != null) {
+			return qlExpression.execute(context);
+		}
+		try {
+			return root.evaluate(context);
+		} catch (NativeFallbackException e) {
+			// 赋值总是最后执行，抛出异常的时候还没有执行过任何赋值，调用过的内置函数也没有副作用，可以放心地重新执行
+			qlExpression = QlCompiledExpression.compile(runner, text);
+			fallback = qlExpression;
+			return qlExpression.execute(context);
+		}
+	}
+
+	@Override
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+}
@@ -0,0 +1,425 @@
+package com.github.byw.exec.expression;
+
+import com.google.common.collect.Sets;
+import com.ql.util.express.Operator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 原生表达式解析器
+ * <p>
+ * 只解析公式中最常见的子集：数值常量（包括负数常量）、参数、赋值、四则运算、比较运算、逻辑运算、round 以及内置函数。
+ * 其它写法（字符串、属性访问、关键字、使用者注册的函数等）一律返回 null，由调用方交给 QLExpress 处理。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+final class NativeExpressionParser {
+
+	private static final String ROUND = "round";
+
+	/**
+	 * QLExpress 的关键字，出现这些关键字的公式不使用原生表达式
+	 */
+	private static final Set<String> KEYWORDS = Sets.newHashSet("if", "then", "else", "for", "while", "break", "continue",
+			"return", "def", "function", "macro", "operator", "new", "import", "include", "alias", "exportAlias", "exportDef",
+			"class", "instanceof", "in", "like", "mod", "and", "or", "nor", "not", "NewList", "NewMap");
+
+	private static final Set<String> COMPARE_OPERATORS = Sets.newHashSet("==", "!=", "<", "<=", ">", ">=");
+
+	private final List<Token> tokens;
+
+	private final Map<String, Operator> functions;
+
+	/**
+	 * 是否使用 double 计算
+	 */
+	private final boolean doubleMode;
+
+	private int position;
+
+	private NativeExpressionParser(List<Token> tokens, Map<String, Operator> functions, boolean doubleMode) {
+		this.tokens = tokens;
+		this.functions = functions;
+		this.doubleMode = doubleMode;
+	}
+
+	/**
+	 * 解析表达式
+	 *
+	 * @param text      表达式
+	 * @param functions 可以调用的内置函数
+	 * @param doubleMode 是否使用 double 计算
+	 * @return {@link ExpressionNode} 不支持的表达式返回 null
+	 */
+	static ExpressionNode parse(String text, Map<String, Operator> functions, boolean doubleMode) {
+		List<Token> tokens = tokenize(text);
+		if (tokens == null || tokens.isEmpty()) {
+			return null;
+		}
+		NativeExpressionParser parser = new NativeExpressionParser(tokens, functions, doubleMode);
+		ExpressionNode node = parser.parseRoot();
+		if (node == null || parser.position != tokens.size()) {
+			return null;
+		}
+		return node;
+	}
+
+	/**
+	 * 赋值只允许出现在最外层，以及 round 的第一个参数中（四舍五入配置生成的公式就是这种形式）
+	 */
+	private ExpressionNode parseRoot() {
+		if (isAssign()) {
+			String name = next().text;
+			next();
+			ExpressionNode value = isRoundWithAssign() ? parseRoundWithAssign() : parseOr();
+			return value == null ? null : new ExpressionNode.Assign(name, value);
+		}
+		return parseOr();
+	}
+
+	private boolean isAssign() {
+		return position + 1 < tokens.size() && tokens.get(position).type == TokenType.IDENTIFIER
+				&& tokens.get(position + 1).is("=");
+	}
+
+	private boolean isRoundWithAssign() {
+		return position + 3 < tokens.size() && tokens.get(position).is(ROUND) && tokens.get(position + 1).is("(")
+				&& tokens.get(position + 2).type == TokenType.IDENTIFIER && tokens.get(position + 3).is("=");
+	}
+
+	private ExpressionNode parseRoundWithAssign() {
+		// round(
+		next();
+		next();
+		String name = next().text;
+		next();
+		ExpressionNode value = parseOr();
+		if (value == null || !accept(",")) {
+			return null;
+		}
+		ExpressionNode scale = parseOr();
+		if (scale == null || !accept(")")) {
+			return null;
+		}
+		return new ExpressionNode.Round(new ExpressionNode.Assign(name, value), scale);
+	}
+
+	private ExpressionNode parseOr() {
+		ExpressionNode left = parseAnd();
+		while (left != null && accept("||")) {
+			ExpressionNode right = parseAnd();
+			left = right == null ? null : new ExpressionNode.Or(left, right);
+		}
+		return left;
+	}
+
+	private ExpressionNode parseAnd() {
+		ExpressionNode left = parseCompare();
+		while (left != null && accept("&&")) {
+			ExpressionNode right = parseCompare();
+			left = right == null ? null : new ExpressionNode.And(left, right);
+		}
+		return left;
+	}
+
+	/**
+	 * 比较运算不允许连写（例如 a < b < c），避免和 QLExpress 的优先级产生歧义
+	 */
+	private ExpressionNode parseCompare() {
+		ExpressionNode left = parseAdditive();
+		if (left == null || !COMPARE_OPERATORS.contains(peekText())) {
+			return left;
+		}
+		String operator = next().text;
+		ExpressionNode right = parseAdditive();
+		if (right == null || COMPARE_OPERATORS.contains(peekText())) {
+			return null;
+		}
+		return new ExpressionNode.Compare(operator, left, right, doubleMode);
+	}
+
+	private ExpressionNode parseAdditive() {
+		ExpressionNode left = parseMultiplicative();
+		while (left != null && ("+".equals(peekText()) || "-".equals(peekText()))) {
+			String operator = next().text;
+			ExpressionNode right = parseMultiplicative();
+			if (right == null) {
+				return null;
+			}
+			left = "+".equals(operator) ? new ExpressionNode.Add(left, right, doubleMode) : new ExpressionNode.Subtract(left, right, doubleMode);
+		}
+		return left;
+	}
+
+	private ExpressionNode parseMultiplicative() {
+		ExpressionNode left = parseUnary();
+		while (left != null && ("*".equals(peekText()) || "/".equals(peekText()))) {
+			String operator = next().text;
+			ExpressionNode right = parseUnary();
+			if (right == null) {
+				return null;
+			}
+			left = "*".equals(operator) ? new ExpressionNode.Multiply(left, right, doubleMode) : new ExpressionNode.Divide(left, right, doubleMode);
+		}
+		return left;
+	}
+
+	/**
+	 * 和 QLExpress 保持一致：负号只能直接写在数值常量前面（例如 a * -1），不能写在参数、括号或者函数前面；! 不能连写。
+	 * 这些写法 QLExpress 会报语法错误，原生表达式同样不支持，交给 QLExpress 处理，保证两种方式的结果相同
+	 */
+	private ExpressionNode parseUnary() {
+		if ("-".equals(peekText())) {
+			if (position + 1 >= tokens.size() || tokens.get(position + 1).type != TokenType.NUMBER) {
+				return null;
+			}
+			next();
+			return new ExpressionNode.Constant(NumberOperator.subtract(0, next().value));
+		}
+		if (accept("!")) {
+			if ("!".equals(peekText())) {
+				return null;
+			}
+			ExpressionNode operand = parsePrimary();
+			return operand == null ? null : new ExpressionNode.Not(operand);
+		}
+		return parsePrimary();
+	}
+
+	private ExpressionNode parsePrimary() {
+		if (position >= tokens.size()) {
+			return null;
+		}
+		Token token = next();
+		switch (token.type) {
+			case NUMBER:
+				return new ExpressionNode.Constant(token.value);
+			case IDENTIFIER:
+				if ("(".equals(peekText())) {
+					return parseFunction(token.text);
+				}
+				return parseIdentifier(token.text);
+			case SYMBOL:
+				if (token.is("(")) {
+					ExpressionNode node = parseOr();
+					return node != null && accept(")") ? node : null;
+				}
+				return null;
+			default:
+				return null;
+		}
+	}
+
+	private ExpressionNode parseIdentifier(String name) {
+		switch (name) {
+			case "true":
+				return new ExpressionNode.Constant(Boolean.TRUE);
+			case "false":
+				return new ExpressionNode.Constant(Boolean.FALSE);
+			case "null":
+				return new ExpressionNode.Constant(null);
+			default:
+				return KEYWORDS.contains(name) ? null : new ExpressionNode.Variable(name);
+		}
+	}
+
+	private ExpressionNode parseFunction(String name) {
+		Operator operator = functions.get(name);
+		if (!ROUND.equals(name) && operator == null) {
+			return null;
+		}
+		// (
+		next();
+		List<ExpressionNode> args = new ArrayList<>();
+		if (!accept(")")) {
+			do {
+				ExpressionNode arg = parseOr();
+				if (arg == null) {
+					return null;
+				}
+				args.add(arg);
+			} while (accept(","));
+			if (!accept(")")) {
+				return null;
+			}
+		}
+		if (ROUND.equals(name)) {
+			return args.size() == 2 ? new ExpressionNode.Round(args.get(0), args.get(1)) : null;
+		}
+		return new ExpressionNode.Function(operator, args.toArray(new ExpressionNode[0]));
+	}
+
+	private boolean accept(String text) {
+		if (text.equals(peekText())) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private String peekText() {
+		return position < tokens.size() ? tokens.get(position).text : null;
+	}
+
+	private Token next() {
+		return tokens.get(position++);
+	}
+
+	/**
+	 * 词法分析
+	 *
+	 * @param text 表达式
+	 * @return {@link List}<{@link Token}> 出现不支持的字符时返回 null
+	 */
+	private static List<Token> tokenize(String text) {
+		List<Token> tokens = new ArrayList<>();
+		int i = 0;
+		int length = text.length();
+		while (i < length) {
+			char c = text.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (isDigit(c)) {
+				int start = i;
+				while (i < length && isDigit(text.charAt(i))) {
+					i++;
+				}
+				boolean decimal = i < length && text.charAt(i) == '.';
+				if (decimal) {
+					i++;
+					if (i >= length || !isDigit(text.charAt(i))) {
+						return null;
+					}
+					while (i < length && isDigit(text.charAt(i))) {
+						i++;
+					}
+				}
+				// 1L、1d、1e3 之类的写法交给 QLExpress
+				if (i < length && (Character.isJavaIdentifierPart(text.charAt(i)) || text.charAt(i) == '.')) {
+					return null;
+				}
+				Number value = parseNumber(text.substring(start, i), decimal);
+				if (value == null) {
+					return null;
+				}
+				tokens.add(new Token(TokenType.NUMBER, text.substring(start, i), value));
+			} else if (Character.isJavaIdentifierStart(c)) {
+				int start = i;
+				while (i < length && Character.isJavaIdentifierPart(text.charAt(i))) {
+					i++;
+				}
+				// 属性访问、方法调用交给 QLExpress
+				if (i < length && text.charAt(i) == '.') {
+					return null;
+				}
+				tokens.add(new Token(TokenType.IDENTIFIER, text.substring(start, i), null));
+			} else {
+				String symbol = symbol(text, i);
+				if (symbol == null) {
+					return null;
+				}
+				tokens.add(new Token(TokenType.SYMBOL, symbol, null));
+				i += symbol.length();
+			}
+		}
+		return tokens;
+	}
+
+	private static Number parseNumber(String text, boolean decimal) {
+		if (decimal) {
+			// 和 QLExpress 高精度模式一样，小数常量使用 BigDecimal
+			return new BigDecimal(text);
+		}
+		// 超出 long 范围以及以 0 开头的整数交给 QLExpress
+		if (text.length() > 18 || (text.length() > 1 && text.charAt(0) == '0')) {
+			return null;
+		}
+		long value = Long.parseLong(text);
+		if (value <= Integer.MAX_VALUE) {
+			return (int) value;
+		}
+		return value;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static String symbol(String text, int i) {
+		char c = text.charAt(i);
+		char next = i + 1 < text.length() ? text.charAt(i + 1) : 0;
+		switch (c) {
+			case '+':
+			case '-':
+			case '*':
+			case '/':
+			case '(':
+			case ')':
+			case ',':
+				// ++、--、+=、/* 之类的写法交给 QLExpress
+				if ((c == '+' || c == '-') && (next == c || next == '=')) {
+					return null;
+				}
+				if ((c == '*' || c == '/') && (next == '=' || next == '*' || next == '/')) {
+					return null;
+				}
+				return String.valueOf(c);
+			case '=':
+				return next == '=' ? "==" : "=";
+			case '!':
+				return next == '=' ? "!=" : "!";
+			case '<':
+				if (next == '>') {
+					return null;
+				}
+				return next == '=' ? "<=" : "<";
+			case '>':
+				return next == '=' ? ">=" : ">";
+			case '&':
+				return next == '&' ? "&&" : null;
+			case '|':
+				return next == '|' ? "||" : null;
+			default:
+				return null;
+		}
+	}
+
+	private enum TokenType {
+		/**
+		 * 数值
+		 */
+		NUMBER,
+		/**
+		 * 参数或者函数名
+		 */
+		IDENTIFIER,
+		/**
+		 * 运算符
+		 */
+		SYMBOL
+	}
+
+	private static final class Token {
+
+		private final TokenType type;
+
+		private final String text;
+
+		private final Number value;
+
+		private Token(TokenType type, String text, Number value) {
+			this.type = type;
+			this.text = text;
+			this.value = value;
+		}
+
+		private boolean is(String text) {
+			return type != TokenType.NUMBER && this.text.equals(text);
+		}
+	}
+}
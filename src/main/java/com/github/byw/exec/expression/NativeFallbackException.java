@@ -0,0 +1,18 @@
+package com.github.byw.exec.expression;
+
+/**
+ * 原生表达式无法处理当前数据时抛出，由 {@link NativeCompiledExpression} 捕获后交给 QLExpress 执行
+ * <p>
+ * 只用于控制流程，不记录堆栈。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+final class NativeFallbackException extends RuntimeException {
+
+	static final NativeFallbackException INSTANCE = new NativeFallbackException();
+
+	private NativeFallbackException() {
+		super("原生表达式不支持当前数据类型", null, false, false);
+	}
+}
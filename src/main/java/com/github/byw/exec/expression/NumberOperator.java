@@ -0,0 +1,124 @@
+package com.github.byw.exec.expression;
+
+import com.github.byw.exception.CalculateException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * 数值运算
+ * <p>
+ * 运算规则和 QLExpress 高精度模式保持一致：运算统一使用 BigDecimal，结果没有小数位时转换为 Integer/Long，
+ * 除法保留 10 位小数。两个整数之间的运算在不溢出的情况下直接使用 long 计算，避免创建 BigDecimal。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+final class NumberOperator {
+
+	/**
+	 * 除法保留的小数位数，和 QLExpress 保持一致
+	 */
+	static final int DIVIDE_PRECISION = 10;
+
+	private NumberOperator() {
+	}
+
+	static Number add(Number op1, Number op2) {
+		if (isIntegral(op1) && isIntegral(op2)) {
+			long x = op1.longValue();
+			long y = op2.longValue();
+			long r = x + y;
+			// 没有溢出
+			if (((x ^ r) & (y ^ r)) >= 0) {
+				return narrow(r);
+			}
+		}
+		return normalize(toBigDecimal(op1).add(toBigDecimal(op2)));
+	}
+
+	static Number subtract(Number op1, Number op2) {
+		if (isIntegral(op1) && isIntegral(op2)) {
+			long x = op1.longValue();
+			long y = op2.longValue();
+			long r = x - y;
+			// 没有溢出
+			if (((x ^ y) & (x ^ r)) >= 0) {
+				return narrow(r);
+			}
+		}
+		return normalize(toBigDecimal(op1).subtract(toBigDecimal(op2)));
+	}
+
+	static Number multiply(Number op1, Number op2) {
+		if (isIntegral(op1) && isIntegral(op2)) {
+			long x = op1.longValue();
+			long y = op2.longValue();
+			// 两个 int 范围内的数相乘不会溢出
+			if (x == (int) x && y == (int) y) {
+				return narrow(x * y);
+			}
+		}
+		return normalize(toBigDecimal(op1).multiply(toBigDecimal(op2)));
+	}
+
+	static Number divide(Number op1, Number op2) {
+		return normalize(toBigDecimal(op1).divide(toBigDecimal(op2), DIVIDE_PRECISION, RoundingMode.HALF_UP));
+	}
+
+	static int compare(Number op1, Number op2) {
+		if (isIntegral(op1) && isIntegral(op2)) {
+			return Long.compare(op1.longValue(), op2.longValue());
+		}
+		return toBigDecimal(op1).compareTo(toBigDecimal(op2));
+	}
+
+	/**
+	 * 四舍五入，和 QLExpress 的 round 函数一样返回 double
+	 *
+	 * @param number 数值
+	 * @param scale  保留几位小数
+	 * @return {@link Double}
+	 */
+	static Double round(Number number, int scale) {
+		if (scale < 0) {
+			throw new CalculateException("round 函数保留的小数位数不能小于 0");
+		}
+		return new BigDecimal(Double.toString(number.doubleValue())).setScale(scale, RoundingMode.HALF_UP).doubleValue();
+	}
+
+	static BigDecimal toBigDecimal(Number number) {
+		if (number instanceof BigDecimal) {
+			return (BigDecimal) number;
+		}
+		if (isIntegral(number)) {
+			return BigDecimal.valueOf(number.longValue());
+		}
+		if (number instanceof BigInteger) {
+			return new BigDecimal((BigInteger) number);
+		}
+		return new BigDecimal(number.toString());
+	}
+
+	private static boolean isIntegral(Number number) {
+		return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+	}
+
+	/**
+	 * 没有小数位的结果转换为 Integer/Long
+	 */
+	private static Number normalize(BigDecimal result) {
+		if (result.scale() == 0 && result.unscaledValue().bitLength() < Long.SIZE) {
+			return narrow(result.longValue());
+		}
+		return result;
+	}
+
+	private static Number narrow(long value) {
+		if (value <= Integer.MAX_VALUE && value >= Integer.MIN_VALUE) {
+			return (int) value;
+		}
+		return value;
+	}
+}
@@ -0,0 +1,57 @@
+package com.github.byw.exec.expression;
+
+import com.ql.util.express.ExpressRunner;
+import com.ql.util.express.IExpressContext;
+import com.ql.util.express.InstructionSet;
+import lombok.SneakyThrows;
+import org.apache.commons.logging.Log;
+
+/**
+ * 由 QLExpress 预解析的指令集构成的表达式
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class QlCompiledExpression implements CompiledExpression {
+
+	private final ExpressRunner runner;
+
+	private final InstructionSet instructionSet;
+
+	private final String text;
+
+	private QlCompiledExpression(ExpressRunner runner, InstructionSet instructionSet, String text) {
+		this.runner = runner;
+		this.instructionSet = instructionSet;
+		this.text = text;
+	}
+
+	/**
+	 * 编译表达式
+	 * 解析结果会放入 runner 的指令缓存，相同的表达式只会解析一次
+	 *
+	 * @param runner 执行器
+	 * @param text   表达式
+	 * @return {@link QlCompiledExpression}
+	 */
+	@SneakyThrows
+	public static QlCompiledExpression compile(ExpressRunner runner, String text) {
+		return new QlCompiledExpression(runner, runner.getInstructionSetFromLocalCache(text), text);
+	}
+
+	@SneakyThrows
+	@Override
+	public Object execute(IExpressContext<String, Object> context) {
+		return runner.execute(instructionSet, context, null, false, false, (Log) null);
+	}
+
+	@Override
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+}
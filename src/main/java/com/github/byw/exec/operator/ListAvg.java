@@ -0,0 +1,34 @@
+package com.github.byw.exec.operator;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 获得列表平均值，高精度计算时保留 10 位小数
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class ListAvg extends ListOperator {
+
+	public ListAvg() {
+		this(false);
+	}
+
+	/**
+	 * @param parallel 是否并行计算
+	 */
+	public ListAvg(boolean parallel) {
+		super("listAvg", parallel);
+	}
+
+	@Override
+	protected Object execute(List<?> list, Object[] args) {
+		checkNotEmpty(list);
+		Number sum = sum(list);
+		if (sum instanceof Double) {
+			return (Double) sum / list.size();
+		}
+		return divide((BigDecimal) sum, list.size());
+	}
+}
@@ -0,0 +1,21 @@
+package com.github.byw.exec.operator;
+
+import java.util.List;
+
+/**
+ * 获得列表的元素数量
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class ListCount extends ListOperator {
+
+	public ListCount() {
+		super("listCount", false);
+	}
+
+	@Override
+	protected Object execute(List<?> list, Object[] args) {
+		return list.size();
+	}
+}
@@ -1,10 +1,6 @@
 package com.github.byw.exec.operator;
 
-import com.github.byw.exception.CalculateException;
-import com.ql.util.express.Operator;
-
-import java.util.Collection;
-import java.util.Comparator;
+import java.util.List;
 
 /**
  * 获得列表最小值
@@ -12,16 +8,21 @@ import java.util.Comparator;
  * @author byw
  * @date 2022/11/24
  */
-@SuppressWarnings("unchecked")
-public class ListMin extends Operator {
+public class ListMin extends ListOperator {
+
+	public ListMin() {
+		this(false);
+	}
+
+	/**
+	 * @param parallel 是否并行计算
+	 */
+	public ListMin(boolean parallel) {
+		super("listMin", parallel);
+	}
+
 	@Override
-	public Object executeInner(Object[] list) throws Exception {
-		if (list.length == 0) {
-			return null;
-		}
-		if (list[0] instanceof Collection) {
-			return ((Collection<?>) list[0]).stream().map(t -> (Comparable<Object>) t).min(Comparator.naturalOrder()).get();
-		}
-		throw new CalculateException("listMin 函数接受的参数必须实现 Collection 接口");
+	protected Object execute(List<?> list, Object[] args) {
+		return extreme(list, false);
 	}
 }
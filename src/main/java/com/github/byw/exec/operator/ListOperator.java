@@ -0,0 +1,345 @@
+package com.github.byw.exec.operator;
+
+import com.github.byw.exception.CalculateException;
+import com.github.byw.helper.NumberHelper;
+import com.github.byw.param.ColumnType;
+import com.github.byw.param.DoubleList;
+import com.github.byw.param.MappedColumn;
+import com.ql.util.express.Operator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * 列表函数
+ * <p>
+ * 所有的聚合都只遍历一次列表，并且按照列表的类型分别处理：{@link DoubleList} 和 FLOAT64 的 {@link MappedColumn}
+ * 直接按 double 计算，结果也是 double（列表结果是 DoubleList）；其它列表按照高精度计算，整数在不溢出的情况下使用 long 累加，
+ * 结果是 BigDecimal。
+ * <p>
+ * 列表按照固定长度分段计算，再按顺序合并。并行版本只是把各段放到 {@link java.util.concurrent.ForkJoinPool#commonPool()}
+ * 中同时计算，所以并行版本和顺序版本的结果完全相同。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public abstract class ListOperator extends Operator {
+
+	/**
+	 * 分段长度
+	 */
+	static final int CHUNK_SIZE = 1 << 14;
+
+	/**
+	 * 除法保留的小数位数，和 QLExpress 保持一致
+	 */
+	private static final int DIVIDE_PRECISION = 10;
+
+	/**
+	 * 函数名称（用于异常信息）
+	 */
+	private final String functionName;
+
+	/**
+	 * 是否并行计算各段
+	 */
+	protected final boolean parallel;
+
+	protected ListOperator(String functionName, boolean parallel) {
+		this.functionName = functionName;
+		this.parallel = parallel;
+	}
+
+	@Override
+	public Object executeInner(Object[] args) throws Exception {
+		if (args.length == 0) {
+			return null;
+		}
+		if (!(args[0] instanceof Collection)) {
+			throw new CalculateException(functionName + " 函数接受的参数必须实现 Collection 接口");
+		}
+		List<?> list = args[0] instanceof List ? (List<?>) args[0] : new ArrayList<>((Collection<?>) args[0]);
+		return execute(list, args);
+	}
+
+	/**
+	 * 执行函数
+	 *
+	 * @param list 第一个参数
+	 * @param args 所有参数
+	 * @return {@link Object}
+	 */
+	protected abstract Object execute(List<?> list, Object[] args);
+
+	/**
+	 * 读取窗口长度参数
+	 *
+	 * @param args 所有参数
+	 * @return int
+	 */
+	protected int window(Object[] args) {
+		if (args.length < 2 || !(args[1] instanceof Number) || ((Number) args[1]).intValue() <= 0) {
+			throw new CalculateException(functionName + " 函数的第二个参数必须是大于 0 的窗口长度");
+		}
+		return ((Number) args[1]).intValue();
+	}
+
+	protected void checkNotEmpty(List<?> list) {
+		if (list.isEmpty()) {
+			throw new CalculateException(functionName + " 函数的参数不能是空列表");
+		}
+	}
+
+	/**
+	 * 列表加和
+	 *
+	 * @return {@link Number}，double 列表是 Double，其它列表是 BigDecimal
+	 */
+	protected Number sum(List<?> list) {
+		int size = list.size();
+		if (isDouble(list)) {
+			double[] partials = new double[chunkCount(size)];
+			forEachChunk(size, c -> partials[c] = sumDouble(list, chunkStart(c), chunkEnd(c, size)));
+			double total = 0;
+			for (double partial : partials) {
+				total += partial;
+			}
+			return total;
+		}
+		BigDecimal[] partials = new BigDecimal[chunkCount(size)];
+		forEachChunk(size, c -> partials[c] = sumDecimal(list, chunkStart(c), chunkEnd(c, size)));
+		BigDecimal total = BigDecimal.ZERO;
+		for (BigDecimal partial : partials) {
+			total = total.add(partial);
+		}
+		return total;
+	}
+
+	/**
+	 * 列表的最大值或最小值
+	 *
+	 * @param max 是否求最大值
+	 * @return {@link Object}，double 列表是 Double，其它列表是元素本身
+	 */
+	protected Object extreme(List<?> list, boolean max) {
+		checkNotEmpty(list);
+		int size = list.size();
+		int sign = max ? 1 : -1;
+		if (isDouble(list)) {
+			double[] partials = new double[chunkCount(size)];
+			forEachChunk(size, c -> {
+				double best = NumberHelper.getDouble(list, chunkStart(c));
+				for (int i = chunkStart(c) + 1; i < chunkEnd(c, size); i++) {
+					double value = NumberHelper.getDouble(list, i);
+					if (Double.compare(value, best) * sign > 0) {
+						best = value;
+					}
+				}
+				partials[c] = best;
+			});
+			double best = partials[0];
+			for (double partial : partials) {
+				if (Double.compare(partial, best) * sign > 0) {
+					best = partial;
+				}
+			}
+			return best;
+		}
+		Object[] partials = new Object[chunkCount(size)];
+		forEachChunk(size, c -> {
+			Object best = list.get(chunkStart(c));
+			for (int i = chunkStart(c) + 1; i < chunkEnd(c, size); i++) {
+				Object value = list.get(i);
+				if (compare(value, best) * sign > 0) {
+					best = value;
+				}
+			}
+			partials[c] = best;
+		});
+		Object best = partials[0];
+		for (Object partial : partials) {
+			if (compare(partial, best) * sign > 0) {
+				best = partial;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * 滑动窗口加和，索引 i 的结果是索引 i - window + 1 到 i 的元素之和，开头不足一个窗口时只计算已有的元素
+	 *
+	 * @param average 是否除以窗口内的元素数量
+	 * @return {@link List}，double 列表的结果是 DoubleList，其它列表是 BigDecimal 列表
+	 */
+	protected List<? extends Number> rolling(List<?> list, int window, boolean average) {
+		int size = list.size();
+		if (isDouble(list)) {
+			double[] result = new double[size];
+			forEachChunk(size, c -> {
+				int start = chunkStart(c);
+				double sum = sumDouble(list, Math.max(0, start - window), start);
+				for (int i = start; i < chunkEnd(c, size); i++) {
+					sum += NumberHelper.getDouble(list, i);
+					if (i >= window) {
+						sum -= NumberHelper.getDouble(list, i - window);
+					}
+					result[i] = average ? sum / Math.min(i + 1, window) : sum;
+				}
+			});
+			return new DoubleList(result);
+		}
+		BigDecimal[] result = new BigDecimal[size];
+		forEachChunk(size, c -> {
+			int start = chunkStart(c);
+			BigDecimal sum = sumDecimal(list, Math.max(0, start - window), start);
+			for (int i = start; i < chunkEnd(c, size); i++) {
+				sum = sum.add(NumberHelper.toBigDecimal(list.get(i)));
+				if (i >= window) {
+					sum = sum.subtract(NumberHelper.toBigDecimal(list.get(i - window)));
+				}
+				result[i] = average ? divide(sum, Math.min(i + 1, window)) : sum;
+			}
+		});
+		return new ArrayList<>(Arrays.asList(result));
+	}
+
+	/**
+	 * 前缀和，索引 i 的结果是索引 0 到 i 的元素之和
+	 *
+	 * @return {@link List}，double 列表的结果是 DoubleList，其它列表是 BigDecimal 列表
+	 */
+	protected List<? extends Number> prefixSum(List<?> list) {
+		int size = list.size();
+		int chunkCount = chunkCount(size);
+		if (isDouble(list)) {
+			double[] result = new double[size];
+			// 先计算每段内的前缀和，再加上前面所有段的和
+			forEachChunk(size, c -> {
+				double sum = 0;
+				for (int i = chunkStart(c); i < chunkEnd(c, size); i++) {
+					sum += NumberHelper.getDouble(list, i);
+					result[i] = sum;
+				}
+			});
+			double[] offsets = new double[chunkCount];
+			for (int c = 1; c < chunkCount; c++) {
+				offsets[c] = offsets[c - 1] + result[chunkStart(c) - 1];
+			}
+			forEachChunk(size, c -> {
+				for (int i = chunkStart(c); c > 0 && i < chunkEnd(c, size); i++) {
+					result[i] += offsets[c];
+				}
+			});
+			return new DoubleList(result);
+		}
+		BigDecimal[] result = new BigDecimal[size];
+		forEachChunk(size, c -> {
+			BigDecimal sum = BigDecimal.ZERO;
+			for (int i = chunkStart(c); i < chunkEnd(c, size); i++) {
+				sum = sum.add(NumberHelper.toBigDecimal(list.get(i)));
+				result[i] = sum;
+			}
+		});
+		BigDecimal[] offsets = new BigDecimal[chunkCount];
+		for (int c = 1; c < chunkCount; c++) {
+			offsets[c] = c == 1 ? result[chunkStart(c) - 1] : offsets[c - 1].add(result[chunkStart(c) - 1]);
+		}
+		forEachChunk(size, c -> {
+			for (int i = chunkStart(c); c > 0 && i < chunkEnd(c, size); i++) {
+				result[i] = result[i].add(offsets[c]);
+			}
+		});
+		return new ArrayList<>(Arrays.asList(result));
+	}
+
+	/**
+	 * 除以元素数量，保留 10 位小数
+	 */
+	protected static BigDecimal divide(BigDecimal sum, int count) {
+		return sum.divide(BigDecimal.valueOf(count), DIVIDE_PRECISION, RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * 是否按 double 计算
+	 */
+	protected static boolean isDouble(List<?> list) {
+		return list instanceof DoubleList || list instanceof MappedColumn && ((MappedColumn) list).getType() == ColumnType.FLOAT64;
+	}
+
+	private void forEachChunk(int size, IntConsumer task) {
+		int chunkCount = chunkCount(size);
+		if (parallel && chunkCount > 1) {
+			IntStream.range(0, chunkCount).parallel().forEach(task);
+			return;
+		}
+		for (int c = 0; c < chunkCount; c++) {
+			task.accept(c);
+		}
+	}
+
+	private static int chunkCount(int size) {
+		return size == 0 ? 0 : (size - 1) / CHUNK_SIZE + 1;
+	}
+
+	private static int chunkStart(int chunk) {
+		return chunk * CHUNK_SIZE;
+	}
+
+	private static int chunkEnd(int chunk, int size) {
+		return (int) Math.min(size, (long) (chunk + 1) * CHUNK_SIZE);
+	}
+
+	private static double sumDouble(List<?> list, int from, int to) {
+		double sum = 0;
+		for (int i = from; i < to; i++) {
+			sum += NumberHelper.getDouble(list, i);
+		}
+		return sum;
+	}
+
+	/**
+	 * 高精度加和，整数在不溢出的情况下使用 long 累加
+	 */
+	private static BigDecimal sumDecimal(List<?> list, int from, int to) {
+		long longSum = 0;
+		BigDecimal decimalSum = null;
+		for (int i = from; i < to; i++) {
+			Object value = list.get(i);
+			if (decimalSum == null && isIntegral(value)) {
+				long x = ((Number) value).longValue();
+				long r = longSum + x;
+				// 没有溢出
+				if (((longSum ^ r) & (x ^ r)) >= 0) {
+					longSum = r;
+					continue;
+				}
+			}
+			if (decimalSum == null) {
+				decimalSum = BigDecimal.valueOf(longSum);
+			}
+			decimalSum = decimalSum.add(NumberHelper.toBigDecimal(value));
+		}
+		return decimalSum == null ? BigDecimal.valueOf(longSum) : decimalSum;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static int compare(Object a, Object b) {
+		if (!(a instanceof Number) || !(b instanceof Number)) {
+			return ((Comparable<Object>) a).compareTo(b);
+		}
+		if (isIntegral(a) && isIntegral(b)) {
+			return Long.compare(((Number) a).longValue(), ((Number) b).longValue());
+		}
+		return NumberHelper.toBigDecimal(a).compareTo(NumberHelper.toBigDecimal(b));
+	}
+
+	private static boolean isIntegral(Object value) {
+		return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+	}
+}
@@ -0,0 +1,28 @@
+package com.github.byw.exec.operator;
+
+import java.util.List;
+
+/**
+ * 获得列表的前缀和，结果列表索引 i 的值是原列表索引 0 到 i 的元素之和
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class PrefixSum extends ListOperator {
+
+	public PrefixSum() {
+		this(false);
+	}
+
+	/**
+	 * @param parallel 是否并行计算
+	 */
+	public PrefixSum(boolean parallel) {
+		super("prefixSum", parallel);
+	}
+
+	@Override
+	protected Object execute(List<?> list, Object[] args) {
+		return prefixSum(list);
+	}
+}
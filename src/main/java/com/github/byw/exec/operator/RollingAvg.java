@@ -0,0 +1,29 @@
+package com.github.byw.exec.operator;
+
+import java.util.List;
+
+/**
+ * 获得列表的滑动窗口平均值，例如 rollingAvg(成绩, 3)，结果列表索引 i 的值是原列表索引 i - 2 到 i 的元素的平均值，
+ * 开头不足一个窗口时只计算已有的元素，高精度计算时保留 10 位小数
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class RollingAvg extends ListOperator {
+
+	public RollingAvg() {
+		this(false);
+	}
+
+	/**
+	 * @param parallel 是否并行计算
+	 */
+	public RollingAvg(boolean parallel) {
+		super("rollingAvg", parallel);
+	}
+
+	@Override
+	protected Object execute(List<?> list, Object[] args) {
+		return rolling(list, window(args), true);
+	}
+}
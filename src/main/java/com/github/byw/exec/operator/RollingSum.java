@@ -0,0 +1,29 @@
+package com.github.byw.exec.operator;
+
+import java.util.List;
+
+/**
+ * 获得列表的滑动窗口和，例如 rollingSum(成绩, 3)，结果列表索引 i 的值是原列表索引 i - 2 到 i 的元素之和，
+ * 开头不足一个窗口时只计算已有的元素
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class RollingSum extends ListOperator {
+
+	public RollingSum() {
+		this(false);
+	}
+
+	/**
+	 * @param parallel 是否并行计算
+	 */
+	public RollingSum(boolean parallel) {
+		super("rollingSum", parallel);
+	}
+
+	@Override
+	protected Object execute(List<?> list, Object[] args) {
+		return rolling(list, window(args), false);
+	}
+}
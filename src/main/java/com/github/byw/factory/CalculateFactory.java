@@ -2,10 +2,14 @@ package com.github.byw.factory;
 
 import com.github.byw.exec.CalculateExecutor;
 import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.exec.exector.ExecutorManager;
 import com.github.byw.formula.FormulaManager;
 import com.github.byw.param.DefaultParam;
 import com.github.byw.param.ParamContext;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
 
 /**
@@ -19,9 +23,26 @@ public class CalculateFactory {
 
 	private CalculateConfig config = new CalculateConfig();
 
+	/**
+	 * 执行器管理，由当前工厂创建的所有 CalculateExecutor 共享
+	 */
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private ExecutorManager executorManager;
+
 	private CalculateFactory() {
 	}
 
+	/**
+	 * 设置配置，配置变更后执行器管理会重新创建
+	 *
+	 * @param config 配置
+	 */
+	public synchronized void setConfig(CalculateConfig config) {
+		this.config = config;
+		this.executorManager = null;
+	}
+
 	/**
 	 * 创建工厂 - 不使用配置
 	 *
@@ -61,7 +82,14 @@ public class CalculateFactory {
 	 * @return {@link CalculateExecutor}
 	 */
 	public CalculateExecutor createExecutor() {
-		return CalculateExecutor.getInstance(config);
+		return CalculateExecutor.getInstance(config, getOrCreateExecutorManager());
+	}
+
+	private synchronized ExecutorManager getOrCreateExecutorManager() {
+		if (executorManager == null) {
+			executorManager = new ExecutorManager(config);
+		}
+		return executorManager;
 	}
 
 	/**
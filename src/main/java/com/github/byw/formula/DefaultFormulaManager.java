@@ -39,6 +39,8 @@ public class DefaultFormulaManager implements FormulaManager{
 			throw new CalculateException("公式不能为空");
 		}
 		Formula formulaInstance = new Formula(formula, conditions.length == 0 ? null : conditions[0]);
+		// 添加时解析一次，不合法的公式在这里抛出异常，不会被添加；之后每次执行都直接使用解析结果
+		formulaInstance.getAnalysis();
 		formulaList.add(formulaInstance);
 		return this;
 	}
@@ -84,6 +86,8 @@ public class DefaultFormulaManager implements FormulaManager{
 			throw new CalculateException("公式不能为空");
 		}
 		Formula formulaInstance = new Formula(formulaList, conditions.length == 0 ? null : conditions[0]);
+		// 添加时解析一次，不合法的公式在这里抛出异常，不会被添加
+		formulaInstance.getAnalysis();
 		this.formulaList.add(formulaInstance);
 		return this;
 	}
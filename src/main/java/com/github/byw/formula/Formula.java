@@ -1,7 +1,10 @@
 package com.github.byw.formula;
 
 import com.google.common.collect.Lists;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
 
 import java.util.List;
 
@@ -24,6 +27,13 @@ public class Formula {
 	 */
 	private FormulaConditions conditions;
 
+	/**
+	 * 解析结果，第一次使用时解析，修改公式或条件后重新解析
+	 */
+	@Setter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	private volatile FormulaAnalysis analysis;
+
 	public Formula(String formula, FormulaConditions conditions) {
 		this.formulaList = Lists.newArrayList(formula);
 		this.conditions = conditions;
@@ -34,6 +44,31 @@ public class Formula {
 		this.conditions = conditions;
 	}
 
+	public void setFormulaList(List<String> formulaList) {
+		this.formulaList = formulaList;
+		this.analysis = null;
+	}
+
+	public void setConditions(FormulaConditions conditions) {
+		this.conditions = conditions;
+		this.analysis = null;
+	}
+
+	/**
+	 * 得到解析结果
+	 * 公式通过 {@link DefaultFormulaManager} 添加时已经解析过，这里直接返回
+	 *
+	 * @return {@link FormulaAnalysis}
+	 */
+	public FormulaAnalysis getAnalysis() {
+		FormulaAnalysis result = analysis;
+		if (result == null) {
+			result = FormulaAnalysis.analyze(this);
+			analysis = result;
+		}
+		return result;
+	}
+
 	@Override
 	public String toString() {
 		return "Formula{" +
@@ -0,0 +1,95 @@
+package com.github.byw.formula;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 公式的解析结果
+ * <p>
+ * 公式添加到 {@link DefaultFormulaManager} 时解析一次并保存在 {@link Formula} 上，之后每次编译和执行都直接使用，
+ * 不需要再扫描公式文本。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public final class FormulaAnalysis {
+
+	private static final String INDEX_MARK = "_index";
+
+	/**
+	 * 是否为列表公式（所有公式都包含 _index），列表公式由 ListDataExecutor 执行，其它公式由 SingleDataExecutor 执行
+	 */
+	private final boolean listFormula;
+
+	/**
+	 * 读写的参数
+	 */
+	private final FormulaDependency dependency;
+
+	/**
+	 * 列表公式中每一条公式的解析结果，不是列表公式时为空
+	 */
+	private final List<FormulaStatement> statements;
+
+	/**
+	 * 列表公式的开始条件，没有时为 null
+	 */
+	private final FormulaStatement startCondition;
+
+	/**
+	 * 列表公式的结束条件，没有时为 null
+	 */
+	private final FormulaStatement stopCondition;
+
+	private FormulaAnalysis(boolean listFormula, FormulaDependency dependency, List<FormulaStatement> statements,
+							FormulaStatement startCondition, FormulaStatement stopCondition) {
+		this.listFormula = listFormula;
+		this.dependency = dependency;
+		this.statements = Collections.unmodifiableList(statements);
+		this.startCondition = startCondition;
+		this.stopCondition = stopCondition;
+	}
+
+	/**
+	 * 解析公式
+	 *
+	 * @param formula 公式
+	 * @return {@link FormulaAnalysis}
+	 */
+	public static FormulaAnalysis analyze(Formula formula) {
+		FormulaDependency dependency = FormulaDependency.analyze(formula);
+		boolean listFormula = formula.getFormulaList().stream().allMatch(t -> t.contains(INDEX_MARK));
+		if (!listFormula) {
+			return new FormulaAnalysis(false, dependency, Collections.emptyList(), null, null);
+		}
+		List<FormulaStatement> statements = new ArrayList<>();
+		for (String formulaText : formula.getFormulaList()) {
+			statements.add(FormulaStatement.parse(formulaText, false));
+		}
+		FormulaConditions conditions = formula.getConditions();
+		FormulaStatement startCondition = conditions == null ? null : FormulaStatement.parse(conditions.getStartConditions(), true);
+		FormulaStatement stopCondition = conditions == null ? null : FormulaStatement.parse(conditions.getStopConditions(), true);
+		return new FormulaAnalysis(true, dependency, statements, startCondition, stopCondition);
+	}
+
+	public boolean isListFormula() {
+		return listFormula;
+	}
+
+	public FormulaDependency getDependency() {
+		return dependency;
+	}
+
+	public List<FormulaStatement> getStatements() {
+		return statements;
+	}
+
+	public FormulaStatement getStartCondition() {
+		return startCondition;
+	}
+
+	public FormulaStatement getStopCondition() {
+		return stopCondition;
+	}
+}
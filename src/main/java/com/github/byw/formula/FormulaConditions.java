@@ -41,4 +41,16 @@ public interface FormulaConditions {
 	default Integer retainDecimal() {
 		return null;
 	}
+
+	/**
+	 * 最大循环次数，只在设置了结束条件时生效，超过之后抛出异常。
+	 * 返回 null 时使用 {@link com.github.byw.exec.config.CalculateConfig#getMaxIterations()}。
+	 * <p>
+	 * 单值公式是整个公式的循环次数，列表公式是每个索引的循环次数，第一次执行不计算在内。
+	 *
+	 * @return {@link Integer}
+	 */
+	default Integer maxIterations() {
+		return null;
+	}
 }
@@ -0,0 +1,178 @@
+package com.github.byw.formula;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 公式依赖
+ * <p>
+ * 记录一个公式读取和写入了哪些参数。列表公式中的 a_index 统一记为列表参数 a，
+ * 没有通过 _index 而是直接读取整个参数的（例如 listSum(a)）额外记录在 {@link #getWholeReadSet()} 中。
+ * 分析结果是保守的：函数名以外的标识符都当作读取的参数，宁可多出依赖也不会遗漏依赖。
+ * 带条件的列表公式会把条件的结果写入 {@link FormulaStatement#CONDITION_RESULT_NAME}，同样记为写入的参数。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class FormulaDependency {
+
+	private static final String INDEX_MARK = "_index";
+
+	private static final char EQUAL = '=';
+
+	/**
+	 * 读取的参数
+	 */
+	private final Set<String> readSet;
+
+	/**
+	 * 写入的参数
+	 */
+	private final Set<String> writeSet;
+
+	/**
+	 * 直接读取整个参数（没有使用 _index）的参数
+	 */
+	private final Set<String> wholeReadSet;
+
+	private FormulaDependency(Set<String> readSet, Set<String> writeSet, Set<String> wholeReadSet) {
+		this.readSet = Collections.unmodifiableSet(readSet);
+		this.writeSet = Collections.unmodifiableSet(writeSet);
+		this.wholeReadSet = Collections.unmodifiableSet(wholeReadSet);
+	}
+
+	/**
+	 * 分析公式依赖，开始条件和结束条件中使用的参数也算作读取
+	 *
+	 * @param formula 公式
+	 * @return {@link FormulaDependency}
+	 */
+	public static FormulaDependency analyze(Formula formula) {
+		Set<String> readSet = new LinkedHashSet<>();
+		Set<String> writeSet = new LinkedHashSet<>();
+		Set<String> wholeReadSet = new LinkedHashSet<>();
+		for (String formulaText : formula.getFormulaList()) {
+			int equalIndex = assignIndex(formulaText);
+			if (equalIndex == -1) {
+				collectNames(formulaText, readSet, wholeReadSet);
+				continue;
+			}
+			collectNames(formulaText.substring(0, equalIndex), writeSet, new LinkedHashSet<>());
+			collectNames(formulaText.substring(equalIndex + 1), readSet, wholeReadSet);
+		}
+		FormulaConditions conditions = formula.getConditions();
+		if (conditions != null) {
+			if (conditions.getStartConditions() != null) {
+				collectNames(conditions.getStartConditions(), readSet, wholeReadSet);
+			}
+			if (conditions.getStopConditions() != null) {
+				collectNames(conditions.getStopConditions(), readSet, wholeReadSet);
+			}
+			// 列表公式的条件结果写入同一个列表，带条件的列表公式之间不能同时执行
+			boolean listFormula = formula.getFormulaList().stream().allMatch(t -> t.contains(INDEX_MARK));
+			if (listFormula && (conditions.getStartConditions() != null || conditions.getStopConditions() != null)) {
+				writeSet.add(FormulaStatement.CONDITION_RESULT_NAME);
+			}
+		}
+		return new FormulaDependency(readSet, writeSet, wholeReadSet);
+	}
+
+	/**
+	 * 是否是列表公式条件的结果（{@link FormulaStatement#CONDITION_RESULT_NAME}）
+	 * 条件的结果只在计算当前索引时使用，每次使用之前都会重新计算，所以可以被多个公式写入，也不是公式的计算结果
+	 *
+	 * @param name 参数名称
+	 * @return boolean
+	 */
+	public static boolean isConditionResult(String name) {
+		return FormulaStatement.CONDITION_RESULT_NAME.equals(name);
+	}
+
+	/**
+	 * 判断当前公式是否必须在另一个公式之后执行
+	 * 读取了对方写入的参数、写入了对方读取的参数、或者写入了同一个参数时都需要保持原来的顺序
+	 *
+	 * @param before 在当前公式之前添加的公式
+	 * @return boolean
+	 */
+	public boolean dependsOn(FormulaDependency before) {
+		return !Collections.disjoint(readSet, before.writeSet)
+				|| !Collections.disjoint(writeSet, before.readSet)
+				|| !Collections.disjoint(writeSet, before.writeSet);
+	}
+
+	public Set<String> getReadSet() {
+		return readSet;
+	}
+
+	public Set<String> getWriteSet() {
+		return writeSet;
+	}
+
+	public Set<String> getWholeReadSet() {
+		return wholeReadSet;
+	}
+
+	/**
+	 * 赋值符号的位置，排除 ==、!=、>=、<= 的情况
+	 */
+	private static int assignIndex(String formulaText) {
+		for (int i = 0; i < formulaText.length(); i++) {
+			if (formulaText.charAt(i) != EQUAL) {
+				continue;
+			}
+			char previous = i == 0 ? 0 : formulaText.charAt(i - 1);
+			char next = i + 1 < formulaText.length() ? formulaText.charAt(i + 1) : 0;
+			if (next == EQUAL) {
+				i++;
+				continue;
+			}
+			if (previous == '!' || previous == '<' || previous == '>') {
+				continue;
+			}
+			return i;
+		}
+		return -1;
+	}
+
+	private static void collectNames(String text, Set<String> names, Set<String> wholeNames) {
+		int i = 0;
+		int length = text.length();
+		while (i < length) {
+			char c = text.charAt(i);
+			if (c == '\'' || c == '"') {
+				// 跳过字符串
+				int end = text.indexOf(c, i + 1);
+				i = end == -1 ? length : end + 1;
+			} else if (Character.isJavaIdentifierStart(c)) {
+				int start = i;
+				while (i < length && Character.isJavaIdentifierPart(text.charAt(i))) {
+					i++;
+				}
+				String name = text.substring(start, i);
+				int next = i;
+				while (next < length && Character.isWhitespace(text.charAt(next))) {
+					next++;
+				}
+				// 函数名不是参数
+				if (next < length && text.charAt(next) == '(') {
+					continue;
+				}
+				if (name.endsWith(INDEX_MARK)) {
+					names.add(name.substring(0, name.length() - INDEX_MARK.length()));
+				} else {
+					names.add(name);
+					wholeNames.add(name);
+				}
+			} else if (Character.isJavaIdentifierPart(c)) {
+				// 数值（包括 1L、1e3 这样的写法）
+				while (i < length && (Character.isJavaIdentifierPart(text.charAt(i)) || text.charAt(i) == '.')) {
+					i++;
+				}
+			} else {
+				i++;
+			}
+		}
+	}
+}
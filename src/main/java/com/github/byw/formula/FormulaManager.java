@@ -12,6 +12,8 @@ public interface FormulaManager {
 
 	/**
 	 * 添加公式
+	 * 添加时会立即解析公式和条件，列表公式不合法（例如不是等式、结果名称缺少 _index）时抛出 {@link com.github.byw.exception.CalculateException}，
+	 * 不合法的公式不会被添加。
 	 *
 	 * @param formula    公式
 	 * @param conditions 条件
@@ -21,6 +23,7 @@ public interface FormulaManager {
 
 	/**
 	 * 添加
+	 * 格式化后的公式按 {@link #add(String, FormulaConditions...)} 解析。
 	 *
 	 * @param template   模板
 	 * @param arg        模板所需参数
@@ -31,6 +34,7 @@ public interface FormulaManager {
 
 	/**
 	 * 添加
+	 * 格式化后的公式按 {@link #add(String, FormulaConditions...)} 解析。
 	 *
 	 * @param template   模板
 	 * @param args       模板所需参数
@@ -42,6 +46,7 @@ public interface FormulaManager {
 	/**
 	 * 添加公式列表
 	 * ps:此方法是为了多个公式可以复用同一个 FormulaConditions , 如果没有这个需求请使用 add 方法。
+	 * 添加时会立即解析，任意一个列表公式不合法时抛出 {@link com.github.byw.exception.CalculateException}，整组公式都不会被添加。
 	 *
 	 * @param formulaList 公式列表
 	 * @param conditions  条件
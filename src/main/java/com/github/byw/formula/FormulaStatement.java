@@ -0,0 +1,214 @@
+package com.github.byw.formula;
+
+import com.github.byw.exception.CalculateException;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 单条列表公式的解析结果
+ * <p>
+ * 记录公式中所有以 _index 结尾的参数（第一个是结果参数）、使用了提供默认值函数的参数以及是否为空判断公式，
+ * 解析只在公式添加时进行一次，之后每次执行都直接使用。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public final class FormulaStatement {
+
+	/**
+	 * 索引标志
+	 */
+	private static final String INDEX_MARK = "_index";
+
+	/**
+	 * 条件公式的结果名称，条件公式没有结果名称，需要系统自己加上
+	 * 所有带条件的列表公式都写入这个参数，见 {@link FormulaDependency#isConditionResult(String)}
+	 */
+	public static final String CONDITION_RESULT_NAME = "条件公式";
+
+	/**
+	 * 关键字
+	 * <p>
+	 * 主要用来判断参数的截止位置
+	 */
+	private static final String KEYWORDS = "=|&+-*/,) :";
+
+	private static final char LEFT_BRACKET = '(';
+
+	private static final char EQUAL = '=';
+
+	/**
+	 * 公式，条件公式已经加上了结果名称
+	 */
+	private final String formula;
+
+	/**
+	 * 参数原始名称，第一个是结果参数名称
+	 */
+	private final List<String> parameterNameList;
+
+	/**
+	 * 公式中的参数名称（带有 _index），和 parameterNameList 一一对应
+	 */
+	private final List<String> indexNameList;
+
+	/**
+	 * 作为 default、defaultZero 函数参数的名称（原始名称和带有 _index 的名称都会记录）
+	 */
+	private final Set<String> defaultFunNameSet;
+
+	/**
+	 * 是否为空判断公式
+	 */
+	private final boolean nullJudge;
+
+	private FormulaStatement(String formula, List<String> parameterNameList) {
+		this.formula = formula;
+		this.parameterNameList = Collections.unmodifiableList(parameterNameList);
+		this.indexNameList = Collections.unmodifiableList(parameterNameList.stream().map(name -> name + INDEX_MARK).collect(Collectors.toList()));
+		Set<String> defaultFunNameSet = new HashSet<>();
+		for (int i = 0; i < parameterNameList.size(); i++) {
+			addIfDefaultFun(defaultFunNameSet, parameterNameList.get(i));
+			addIfDefaultFun(defaultFunNameSet, indexNameList.get(i));
+		}
+		this.defaultFunNameSet = Collections.unmodifiableSet(defaultFunNameSet);
+		this.nullJudge = formula.contains("null");
+	}
+
+	/**
+	 * 解析公式
+	 *
+	 * @param formula   公式
+	 * @param condition 是否为条件公式
+	 * @return {@link FormulaStatement}，公式为空时返回 null
+	 */
+	public static FormulaStatement parse(String formula, boolean condition) {
+		if (StringUtils.isBlank(formula)) {
+			return null;
+		}
+		if (condition) {
+			formula = CONDITION_RESULT_NAME + INDEX_MARK + " = " + formula + " ";
+		}
+		checkResultName(formula);
+		char[] indexMarkChars = INDEX_MARK.toCharArray();
+		char[] formulaChars = formula.toCharArray();
+		boolean skip = false;
+		//保存命中的字符
+		StringBuilder hitChars = new StringBuilder();
+		List<String> nameList = new ArrayList<>();
+		for (int i = 0; i < formulaChars.length; i++) {
+			char formulaChar = formulaChars[i];
+			//左括号说明之前是函数名称
+			if (isKeyword(formulaChar) || formulaChar == LEFT_BRACKET) {
+				hitChars.setLength(0);
+				continue;
+			}
+			if (formulaChar == indexMarkChars[0]) {
+				//j = 1 是因为第一个字符已经匹配过了
+				int a = i;
+				for (int j = 1; j < indexMarkChars.length; j++) {
+					a++;
+					//说明已经对比完公式最后一个字符了，所以不满足需求
+					if (a == formulaChars.length) {
+						hitChars.setLength(0);
+						break;
+					}
+					if (formulaChars[a] != indexMarkChars[j]) {
+						break;
+					}
+					if (j + 1 == indexMarkChars.length && (a + 1 == formulaChars.length || isKeyword(formulaChars[a + 1]))) {
+						nameList.add(hitChars.toString());
+						skip = true;
+						i = a;
+						hitChars.setLength(0);
+					}
+				}
+			}
+			if (!skip) {
+				hitChars.append(formulaChar);
+			}
+			skip = false;
+		}
+		return new FormulaStatement(formula, nameList);
+	}
+
+	/**
+	 * 检验结果名字
+	 *
+	 * @param formula 公式
+	 */
+	private static void checkResultName(String formula) {
+		int equalIndex = formula.indexOf(EQUAL);
+		if (equalIndex == -1) {
+			throw new CalculateException(formula + " 不是等式");
+		}
+		// 排除使用了 == 的情况
+		if (formula.charAt(equalIndex + 1) == EQUAL) {
+			throw new CalculateException(formula + " 不是等式");
+		}
+		String resultName = formula.substring(0, equalIndex);
+		if (!resultName.contains(INDEX_MARK)) {
+			throw new CalculateException(resultName + " 必须包含字符串：" + INDEX_MARK);
+		}
+	}
+
+	private static boolean isKeyword(char c) {
+		return KEYWORDS.indexOf(c) != -1;
+	}
+
+	private void addIfDefaultFun(Set<String> defaultFunNameSet, String name) {
+		if (formula.contains("default(" + name) || formula.contains("defaultZero(" + name)) {
+			defaultFunNameSet.add(name);
+		}
+	}
+
+	public String getFormula() {
+		return formula;
+	}
+
+	public List<String> getParameterNameList() {
+		return parameterNameList;
+	}
+
+	public List<String> getIndexNameList() {
+		return indexNameList;
+	}
+
+	/**
+	 * 结果参数名称（不带 _index）
+	 *
+	 * @return {@link String}
+	 */
+	public String getResultName() {
+		return parameterNameList.get(0);
+	}
+
+	/**
+	 * 参数是否作为 default、defaultZero 函数的参数使用
+	 *
+	 * @param name 参数名称，原始名称和带有 _index 的名称都可以
+	 * @return boolean
+	 */
+	public boolean isDefaultFunParam(String name) {
+		return defaultFunNameSet.contains(name);
+	}
+
+	public boolean isNullJudge() {
+		return nullJudge;
+	}
+
+	@Override
+	public String toString() {
+		return "FormulaStatement{" +
+				"formula='" + formula + '\'' +
+				", parameterNameList=" + parameterNameList +
+				", nullJudge=" + nullJudge +
+				'}';
+	}
+}
@@ -0,0 +1,71 @@
+package com.github.byw.helper;
+
+import com.github.byw.exception.CalculateException;
+import com.github.byw.param.DoubleList;
+import com.github.byw.param.MappedColumn;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 数值转换
+ * 常见的数值类型直接转换，不经过字符串解析
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class NumberHelper {
+
+	/**
+	 * 转换成 BigDecimal，BigDecimal 原样返回
+	 *
+	 * @param value 数值
+	 * @return {@link BigDecimal}，不是数值时抛出 {@link CalculateException}
+	 */
+	public static BigDecimal toBigDecimal(Object value) {
+		if (value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		}
+		if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			return BigDecimal.valueOf(((Number) value).longValue());
+		}
+		if (value instanceof Double) {
+			return BigDecimal.valueOf((Double) value);
+		}
+		try {
+			return new BigDecimal(String.valueOf(value));
+		} catch (NumberFormatException e) {
+			throw new CalculateException(value + " 不是数值");
+		}
+	}
+
+	/**
+	 * 读取列表中指定索引的数值，{@link DoubleList} 和 {@link MappedColumn} 不会产生装箱
+	 *
+	 * @param list  数值列表
+	 * @param index 索引
+	 * @return double
+	 */
+	public static double getDouble(List<?> list, int index) {
+		if (list instanceof DoubleList) {
+			return ((DoubleList) list).getDouble(index);
+		}
+		if (list instanceof MappedColumn) {
+			return ((MappedColumn) list).getDouble(index);
+		}
+		return toDouble(list.get(index));
+	}
+
+	/**
+	 * 转换成 double
+	 *
+	 * @param value 数值
+	 * @return double，不是数值时抛出 {@link CalculateException}
+	 */
+	public static double toDouble(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		throw new CalculateException(value + " 不是数值");
+	}
+}
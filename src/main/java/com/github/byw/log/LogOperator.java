@@ -1,5 +1,7 @@
 package com.github.byw.log;
 
+import java.util.function.Supplier;
+
 /**
  * 处理计算过程中产生的日志
  *
@@ -14,4 +16,24 @@ public interface LogOperator {
 	 * @param log 日志
 	 */
 	void operate(String log);
+
+	/**
+	 * 是否需要处理日志。返回 false 时调用方不会拼接日志字符串
+	 *
+	 * @return boolean
+	 */
+	default boolean isEnabled() {
+		return true;
+	}
+
+	/**
+	 * 操作，只有在 {@link #isEnabled()} 返回 true 时才会生成日志
+	 *
+	 * @param logSupplier 日志
+	 */
+	default void operate(Supplier<String> logSupplier) {
+		if (isEnabled()) {
+			operate(logSupplier.get());
+		}
+	}
 }
@@ -0,0 +1,19 @@
+package com.github.byw.log;
+
+/**
+ * 不处理任何日志，计算过程中也不会拼接日志字符串
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class NoopLogOperator implements LogOperator {
+
+	@Override
+	public void operate(String log) {
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return false;
+	}
+}
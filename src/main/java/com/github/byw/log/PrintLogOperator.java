@@ -17,4 +17,9 @@ public class PrintLogOperator implements LogOperator {
 	public void operate(String log) {
 		LOGGER.info(log);
 	}
+
+	@Override
+	public boolean isEnabled() {
+		return LOGGER.isInfoEnabled();
+	}
 }
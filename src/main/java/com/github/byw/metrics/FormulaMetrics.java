@@ -0,0 +1,96 @@
+package com.github.byw.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个公式的指标
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class FormulaMetrics {
+
+	/**
+	 * 公式（多个公式之间用 ; 分隔）
+	 */
+	private final String formula;
+
+	/**
+	 * 解析和编译耗时（纳秒）
+	 */
+	private final Histogram compileNanos = new Histogram();
+
+	/**
+	 * 执行耗时（纳秒）
+	 */
+	private final Histogram evaluateNanos = new Histogram();
+
+	/**
+	 * 执行的索引数量
+	 */
+	private final LongAdder indexCount = new LongAdder();
+
+	/**
+	 * 结束条件导致的循环次数
+	 */
+	private final LongAdder loopIterations = new LongAdder();
+
+	/**
+	 * 带有结束条件的公式每次执行时额外循环的次数
+	 */
+	private final Histogram iterations = new Histogram();
+
+	public FormulaMetrics(String formula) {
+		this.formula = formula;
+	}
+
+	void recordCompile(long nanos) {
+		compileNanos.record(nanos);
+	}
+
+	void recordEvaluate(long nanos, long indexCount, long loopIterations) {
+		evaluateNanos.record(nanos);
+		this.indexCount.add(indexCount);
+		this.loopIterations.add(loopIterations);
+	}
+
+	void recordLoop(long iterations) {
+		this.iterations.record(iterations);
+	}
+
+	public String getFormula() {
+		return formula;
+	}
+
+	public Histogram getCompileNanos() {
+		return compileNanos;
+	}
+
+	public Histogram getEvaluateNanos() {
+		return evaluateNanos;
+	}
+
+	public long getIndexCount() {
+		return indexCount.sum();
+	}
+
+	public long getLoopIterations() {
+		return loopIterations.sum();
+	}
+
+	public Histogram getIterations() {
+		return iterations;
+	}
+
+	@Override
+	public String toString() {
+		return "FormulaMetrics{" +
+				"formula='" + formula + '\'' +
+				", compileNanos=" + compileNanos +
+				", evaluateNanos=" + evaluateNanos +
+				", indexCount=" + getIndexCount() +
+				", loopIterations=" + getLoopIterations() +
+				", iterations=" + iterations +
+				'}';
+	}
+}
@@ -0,0 +1,118 @@
+package com.github.byw.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 直方图
+ * <p>
+ * 按照 2 的幂划分桶（[0]、[1]、[2, 3]、[4, 7] ...），记录时只做几次原子操作，没有锁，可以被多个线程同时记录。
+ * 百分位数返回所在桶的上界（不超过最大值），误差在 2 倍以内，用于定位慢公式足够了。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class Histogram {
+
+	private static final int BUCKET_COUNT = Long.SIZE;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder sum = new LongAdder();
+
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+	 * 记录一个数值，负数按 0 记录
+	 *
+	 * @param value 数值
+	 */
+	public void record(long value) {
+		long v = Math.max(0, value);
+		buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(v));
+		count.increment();
+		sum.add(v);
+		long currentMin;
+		while (v < (currentMin = min.get()) && !min.compareAndSet(currentMin, v)) {
+			// 重试
+		}
+		long currentMax;
+		while (v > (currentMax = max.get()) && !max.compareAndSet(currentMax, v)) {
+			// 重试
+		}
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSum() {
+		return sum.sum();
+	}
+
+	public long getMin() {
+		return getCount() == 0 ? 0 : min.get();
+	}
+
+	public long getMax() {
+		return getCount() == 0 ? 0 : max.get();
+	}
+
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) getSum() / count;
+	}
+
+	/**
+	 * 百分位数
+	 *
+	 * @param percentile 百分位，取值范围 (0, 100]
+	 * @return long 所在桶的上界，没有数据时返回 0
+	 */
+	public long getPercentile(double percentile) {
+		long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += buckets.get(i);
+			if (seen >= Math.max(1, rank)) {
+				long upperBound = (1L << i) - 1;
+				return Math.min(upperBound, getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * 清空
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			buckets.set(i, 0);
+		}
+		count.reset();
+		sum.reset();
+		min.set(Long.MAX_VALUE);
+		max.set(Long.MIN_VALUE);
+	}
+
+	@Override
+	public String toString() {
+		return "Histogram{" +
+				"count=" + getCount() +
+				", mean=" + String.format("%.2f", getMean()) +
+				", min=" + getMin() +
+				", p50=" + getPercentile(50) +
+				", p99=" + getPercentile(99) +
+				", max=" + getMax() +
+				'}';
+	}
+}
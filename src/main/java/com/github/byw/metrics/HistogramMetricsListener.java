@@ -0,0 +1,189 @@
+package com.github.byw.metrics;
+
+import com.github.byw.formula.Formula;
+import com.github.byw.formula.FormulaAnalysis;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 基于内存直方图的指标监听器
+ * <p>
+ * 按公式汇总编译耗时、执行耗时、执行的索引数量以及循环次数，同时统计每次 exec 的耗时、参数上下文大小和编译缓存的命中情况。
+ * 内容相同的公式汇总到同一个 {@link FormulaMetrics}，每个公式对象只在第一次回调时拼接一次公式内容。
+ * 可以定期调用 {@link #getSlowestFormulas(int)} 找出最慢的公式，再调用 {@link #reset()} 开始新的统计周期。
+ * <p>
+ * ps: 公式的名字由模板生成时（例如每个学生一个公式）每个公式都会单独统计，注意控制统计周期。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class HistogramMetricsListener implements MetricsListener {
+
+	private final Map<String, FormulaMetrics> formulaMetricsMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 每个公式对象（按引用区分）对应的指标，回调时不需要重新拼接公式内容
+	 */
+	private final Cache<Formula, CachedMetrics> instanceCache = CacheBuilder.newBuilder().weakKeys().build();
+
+	private final Histogram execNanos = new Histogram();
+
+	private final Histogram contextSize = new Histogram();
+
+	private final LongAdder cacheHitCount = new LongAdder();
+
+	private final LongAdder cacheMissCount = new LongAdder();
+
+	@Override
+	public void onCompile(Formula formula, long nanos) {
+		getOrCreate(formula).recordCompile(nanos);
+	}
+
+	@Override
+	public void onCompileCache(String expression, boolean hit) {
+		if (hit) {
+			cacheHitCount.increment();
+		} else {
+			cacheMissCount.increment();
+		}
+	}
+
+	@Override
+	public void onEvaluate(Formula formula, long nanos, long indexCount, long loopIterations) {
+		getOrCreate(formula).recordEvaluate(nanos, indexCount, loopIterations);
+	}
+
+	@Override
+	public void onLoop(Formula formula, long iterations) {
+		getOrCreate(formula).recordLoop(iterations);
+	}
+
+	@Override
+	public void onExec(int formulaCount, int contextSize, long nanos) {
+		execNanos.record(nanos);
+		if (contextSize >= 0) {
+			this.contextSize.record(contextSize);
+		}
+	}
+
+	/**
+	 * 按照执行总耗时从高到低排序的公式指标
+	 *
+	 * @param limit 最多返回几个
+	 * @return {@link List}<{@link FormulaMetrics}>
+	 */
+	public List<FormulaMetrics> getSlowestFormulas(int limit) {
+		return formulaMetricsMap.values().stream()
+				.sorted(Comparator.comparingLong((FormulaMetrics t) -> t.getEvaluateNanos().getSum()).reversed())
+				.limit(limit)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * 所有公式的指标
+	 *
+	 * @return {@link List}<{@link FormulaMetrics}>
+	 */
+	public List<FormulaMetrics> getFormulaMetrics() {
+		return new ArrayList<>(formulaMetricsMap.values());
+	}
+
+	/**
+	 * 获取指定公式的指标
+	 *
+	 * @param formula 公式
+	 * @return {@link FormulaMetrics} 没有记录时返回 null
+	 */
+	public FormulaMetrics getFormulaMetrics(Formula formula) {
+		return formulaMetricsMap.get(key(formula));
+	}
+
+	public Histogram getExecNanos() {
+		return execNanos;
+	}
+
+	public Histogram getContextSize() {
+		return contextSize;
+	}
+
+	public long getCacheHitCount() {
+		return cacheHitCount.sum();
+	}
+
+	public long getCacheMissCount() {
+		return cacheMissCount.sum();
+	}
+
+	/**
+	 * 编译缓存命中率
+	 *
+	 * @return double 没有查询过缓存时返回 0
+	 */
+	public double getCacheHitRate() {
+		long hit = getCacheHitCount();
+		long total = hit + getCacheMissCount();
+		return total == 0 ? 0 : (double) hit / total;
+	}
+
+	/**
+	 * 清空所有指标
+	 */
+	public void reset() {
+		instanceCache.invalidateAll();
+		formulaMetricsMap.clear();
+		execNanos.reset();
+		contextSize.reset();
+		cacheHitCount.reset();
+		cacheMissCount.reset();
+	}
+
+	private FormulaMetrics getOrCreate(Formula formula) {
+		FormulaAnalysis analysis = formula.getAnalysis();
+		CachedMetrics cached = instanceCache.getIfPresent(formula);
+		if (cached != null && cached.analysis == analysis) {
+			return cached.metrics;
+		}
+		FormulaMetrics metrics = formulaMetricsMap.computeIfAbsent(key(formula), FormulaMetrics::new);
+		instanceCache.put(formula, new CachedMetrics(analysis, metrics));
+		return metrics;
+	}
+
+	private static String key(Formula formula) {
+		return String.join("; ", formula.getFormulaList());
+	}
+
+	/**
+	 * 公式对象对应的指标，以及查找时的解析结果
+	 * 公式被修改时会重新解析（{@link Formula#getAnalysis()} 返回新的对象），这时按照新的公式内容重新查找
+	 */
+	private static class CachedMetrics {
+
+		private final FormulaAnalysis analysis;
+
+		private final FormulaMetrics metrics;
+
+		private CachedMetrics(FormulaAnalysis analysis, FormulaMetrics metrics) {
+			this.analysis = analysis;
+			this.metrics = metrics;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "HistogramMetricsListener{" +
+				"formulaCount=" + formulaMetricsMap.size() +
+				", execNanos=" + execNanos +
+				", contextSize=" + contextSize +
+				", cacheHitCount=" + getCacheHitCount() +
+				", cacheMissCount=" + getCacheMissCount() +
+				'}';
+	}
+}
@@ -0,0 +1,65 @@
+package com.github.byw.metrics;
+
+import com.github.byw.formula.Formula;
+
+/**
+ * 执行指标监听器
+ * <p>
+ * 通过 {@link com.github.byw.exec.config.CalculateConfig#setMetricsListener(MetricsListener)} 设置，
+ * 计算过程中会回调各个方法报告耗时以及执行次数，不依赖文本日志。没有设置时不会采集任何指标。
+ * <p>
+ * ps: 回调可能来自多个线程（并行执行、批量执行），实现类需要保证线程安全，并且不要在回调中做耗时的操作。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public interface MetricsListener {
+
+	/**
+	 * 公式编译完成
+	 *
+	 * @param formula 公式
+	 * @param nanos   解析和编译的耗时（纳秒）
+	 */
+	default void onCompile(Formula formula, long nanos) {
+	}
+
+	/**
+	 * 编译表达式时查询编译缓存
+	 *
+	 * @param expression 表达式
+	 * @param hit        是否命中缓存
+	 */
+	default void onCompileCache(String expression, boolean hit) {
+	}
+
+	/**
+	 * 公式执行完成
+	 *
+	 * @param formula        公式
+	 * @param nanos          执行耗时（纳秒）
+	 * @param indexCount     执行的索引数量，单值公式为 1，没有满足开始条件时也算作执行了一次判断
+	 * @param loopIterations 由于不满足结束条件而额外循环执行的次数
+	 */
+	default void onEvaluate(Formula formula, long nanos, long indexCount, long loopIterations) {
+	}
+
+	/**
+	 * 带有结束条件的公式执行完成，每次执行公式回调一次（列表公式不会每个索引回调一次），在 {@link #onEvaluate} 之前调用
+	 *
+	 * @param formula    公式
+	 * @param iterations 本次执行中满足结束条件之前额外执行的总次数（列表公式为所有索引的总和）
+	 */
+	default void onLoop(Formula formula, long iterations) {
+	}
+
+	/**
+	 * 一次 exec 执行完成
+	 *
+	 * @param formulaCount 公式数量
+	 * @param contextSize  执行完成后参数上下文中的参数数量，无法获取时为 -1
+	 * @param nanos        总耗时（纳秒）
+	 */
+	default void onExec(int formulaCount, int contextSize, long nanos) {
+	}
+}
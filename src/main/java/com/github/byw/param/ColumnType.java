@@ -0,0 +1,55 @@
+package com.github.byw.param;
+
+import com.github.byw.exception.CalculateException;
+
+/**
+ * 列文件中数值的类型，每个数值都占 8 个字节
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public enum ColumnType {
+
+	/**
+	 * 64 位整数，读取为 Long
+	 */
+	INT64((byte) 1),
+
+	/**
+	 * 64 位浮点数，读取为 Double
+	 */
+	FLOAT64((byte) 2),
+
+	/**
+	 * 定点小数，保存 64 位的 unscaledValue，小数位数记录在文件头中，读取为 BigDecimal
+	 */
+	DECIMAL64((byte) 3);
+
+	/**
+	 * 写入文件头的类型编码
+	 */
+	private final byte code;
+
+	ColumnType(byte code) {
+		this.code = code;
+	}
+
+	public byte getCode() {
+		return code;
+	}
+
+	/**
+	 * 根据类型编码获取类型
+	 *
+	 * @param code 类型编码
+	 * @return {@link ColumnType}
+	 */
+	public static ColumnType of(byte code) {
+		for (ColumnType type : values()) {
+			if (type.code == code) {
+				return type;
+			}
+		}
+		throw new CalculateException("不支持的列类型编码：" + code);
+	}
+}
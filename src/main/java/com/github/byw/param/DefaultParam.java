@@ -2,16 +2,21 @@ package com.github.byw.param;
 
 import com.github.byw.exception.CalculateException;
 import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.exec.config.NumericMode;
 import com.github.byw.helper.StringFormatter;
 import com.github.byw.log.LogOperator;
 import com.google.common.collect.Lists;
 import com.ql.util.express.DefaultContext;
 import lombok.SneakyThrows;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 参数
@@ -24,7 +29,7 @@ public class DefaultParam implements ParamContext {
 	 * 参数上下文
 	 * key：参数名称 value：参数值
 	 */
-	private final ParamManager paramContext = new LogContext();
+	private final LogContext paramContext = new LogContext();
 
 	/**
 	 * 配置上下文
@@ -34,10 +39,44 @@ public class DefaultParam implements ParamContext {
 
 	private LogOperator logOperator;
 
+	/**
+	 * 上一次计算完成之后添加或者修改过的参数，为 null 说明还没有计算过
+	 */
+	private Set<String> changedParamNames;
+
+	/**
+	 * 数值模式，double 模式下数值列表保存为 {@link DoubleList}
+	 */
+	private NumericMode numericMode = NumericMode.DECIMAL;
+
+	/**
+	 * 父参数上下文（{@link #fork()} 时设置），当前参数上下文中没有的参数从父参数上下文中读取，为 null 说明不是 fork 出来的
+	 */
+	private final DefaultParam parent;
+
+	/**
+	 * 从当前参数上下文中删除、但是父参数上下文中可能还存在的参数，读取时不再查找父参数上下文
+	 */
+	private final Set<String> removedParamNames = new HashSet<>();
+
+	/**
+	 * 参数数量和父参数上下文的差值，添加父参数上下文中没有的参数时加一，删除能够读取到的参数时减一
+	 */
+	private int sizeDelta;
+
+	public DefaultParam() {
+		this(null);
+	}
+
+	private DefaultParam(DefaultParam parent) {
+		this.parent = parent;
+	}
+
 	@SneakyThrows
 	@Override
 	public void setCalculateConfig(CalculateConfig config) {
 		this.logOperator = (LogOperator) config.getLogOperatorClass().newInstance();
+		this.numericMode = config.getNumericMode();
 	}
 
 	/**
@@ -90,7 +129,7 @@ public class DefaultParam implements ParamContext {
 	 */
 	@Override
 	public <R extends Number, T extends List<R>> DefaultParam addArray(String paramName, T array) {
-		add(paramName, array, true);
+		add(paramName, toNumericList(array), true);
 		return this;
 	}
 
@@ -134,10 +173,24 @@ public class DefaultParam implements ParamContext {
 	@Override
 	public <R extends Number, T extends Collection<R>> DefaultParam addArray(String template, List<String> args, T array) {
 		String format = StringFormatter.format(template, args.toArray(new String[0]));
-		add(format, array, true);
+		add(format, toNumericList(array), true);
 		return this;
 	}
 
+	/**
+	 * double 模式下把数值列表转换成 {@link DoubleList}，其它模式原样返回
+	 * 内存映射的列（{@link MappedColumn}）始终原样返回，不会复制到堆中
+	 *
+	 * @param array 数值列表
+	 * @return {@link Object}
+	 */
+	private Object toNumericList(Collection<? extends Number> array) {
+		if (array == null || numericMode != NumericMode.DOUBLE || array instanceof MappedColumn) {
+			return array;
+		}
+		return DoubleList.copyOf(array);
+	}
+
 
 	/**
 	 * 得到参数上下文
@@ -157,7 +210,11 @@ public class DefaultParam implements ParamContext {
 	 */
 	@Override
 	public ParamConfig getParamConfig(String paramName) {
-		return configContext.get(paramName);
+		ParamConfig paramConfig = configContext.get(paramName);
+		if (paramConfig == null && parent != null && !removedParamNames.contains(paramName)) {
+			return parent.getParamConfig(paramName);
+		}
+		return paramConfig;
 	}
 
 	private void add(String paramName, Object value, boolean isArray) {
@@ -165,13 +222,59 @@ public class DefaultParam implements ParamContext {
 			throw new CalculateException(paramName + " 参数为空，请检查数据");
 		}
 		paramContext.put(paramName, value);
+		if (changedParamNames != null) {
+			changedParamNames.add(paramName);
+		}
+	}
+
+	@Override
+	public Set<String> getChangedParamNames() {
+		return changedParamNames == null ? null : Collections.unmodifiableSet(changedParamNames);
+	}
+
+	@Override
+	public void markCalculated() {
+		changedParamNames = new HashSet<>();
+	}
+
+	@Override
+	public void remove(String paramName) {
+		paramContext.removeParam(paramName);
+		configContext.remove(paramName);
+	}
+
+	/**
+	 * 创建写时复制的子参数上下文
+	 * <p>
+	 * 子参数上下文只保存自己添加、删除或者计算出的参数，其余参数直接从当前参数上下文中读取，所以 fork 的开销和参数数量无关。
+	 * 子参数上下文原地修改从当前参数上下文中读取的列表之前（{@link #prepareWrite(String)}）先复制一份，当前参数上下文不会被修改。
+	 * <p>
+	 * ps: fork 只读取当前参数上下文，可以在多个线程中同时 fork 同一个参数上下文。
+	 * 子参数上下文使用期间不能再修改当前参数上下文，否则子参数上下文中没有覆盖的参数也会看到修改。
+	 *
+	 * @return {@link DefaultParam}
+	 */
+	@Override
+	public DefaultParam fork() {
+		DefaultParam fork = new DefaultParam(this);
+		fork.logOperator = logOperator;
+		fork.numericMode = numericMode;
+		fork.changedParamNames = changedParamNames == null ? null : new HashSet<>(changedParamNames);
+		return fork;
+	}
+
+	@Override
+	public void prepareWrite(String paramName) {
+		paramContext.copyFromParent(paramName);
 	}
 
 	private class LogContext extends DefaultContext<String, Object> implements ParamManager {
 
 		@Override
 		public Object put(String key, Object value) {
-			logOperator.operate("参数名：" + key + " 值：" + value);
+			if (logOperator.isEnabled()) {
+				logOperator.operate("参数名：" + key + " 值：" + value);
+			}
 
 			boolean isArray = value instanceof Collection;
 			int size = 1;
@@ -179,13 +282,17 @@ public class DefaultParam implements ParamContext {
 				size = ((List) value).size();
 			}
 			configContext.put(key, new ParamConfig(isArray, size, value.getClass()));
+			if (parent != null && !hasKey(key)) {
+				sizeDelta++;
+			}
+			removedParamNames.remove(key);
 			return super.put(key, value);
 		}
 
 		@Override
 		public Object get(Object key) {
-			Object obj = super.get(key);
-			if (obj == null) {
+			Object obj = lookup(key);
+			if (obj == null && logOperator.isEnabled()) {
 				logOperator.operate("上下文中不存在此参数：" + key);
 			}
 			return obj;
@@ -193,7 +300,75 @@ public class DefaultParam implements ParamContext {
 
 		@Override
 		public boolean containsKey(String key) {
-			return super.get(key) != null;
+			return lookup(key) != null;
+		}
+
+		@Override
+		public int size() {
+			return parent == null ? super.size() : parent.paramContext.size() + sizeDelta;
+		}
+
+		/**
+		 * 删除参数，父参数上下文中的参数记录为已删除
+		 *
+		 * @param key 参数名称
+		 */
+		private void removeParam(String key) {
+			if (parent == null) {
+				super.remove(key);
+				return;
+			}
+			if (hasKey(key)) {
+				sizeDelta--;
+			}
+			super.remove(key);
+			removedParamNames.add(key);
+		}
+
+		/**
+		 * 当前参数上下文或者父参数上下文中是否有这个参数（和 {@link #size()} 一样，值为 null 的参数也算）
+		 *
+		 * @param key 参数名称
+		 * @return boolean
+		 */
+		private boolean hasKey(Object key) {
+			if (super.containsKey(key)) {
+				return true;
+			}
+			return parent != null && !removedParamNames.contains(key) && parent.paramContext.hasKey(key);
+		}
+
+		/**
+		 * 查找参数，当前参数上下文中没有时查找父参数上下文，不输出日志
+		 *
+		 * @param key 参数名称
+		 * @return {@link Object}
+		 */
+		private Object lookup(Object key) {
+			if (parent == null || super.containsKey(key) || removedParamNames.contains(key)) {
+				return super.get(key);
+			}
+			return parent.paramContext.lookup(key);
+		}
+
+		/**
+		 * 从父参数上下文中读取的列表复制一份保存到当前参数上下文，之后原地修改不会影响父参数上下文
+		 *
+		 * @param key 参数名称
+		 */
+		@SuppressWarnings("unchecked")
+		private void copyFromParent(String key) {
+			if (parent == null || super.containsKey(key) || removedParamNames.contains(key)) {
+				return;
+			}
+			Object value = parent.paramContext.lookup(key);
+			// 内存映射的列是只读的，不需要复制
+			if (!(value instanceof List) || value instanceof MappedColumn) {
+				return;
+			}
+			Object copy = value instanceof DoubleList ? DoubleList.copyOf((DoubleList) value) : new ArrayList<>((List<Object>) value);
+			// 类型和长度都没有变化，继续使用父参数上下文中的参数配置
+			super.put(key, copy);
 		}
 	}
 }
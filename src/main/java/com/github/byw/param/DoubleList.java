@@ -0,0 +1,127 @@
+package com.github.byw.param;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * 使用 double[] 保存数值的列表
+ * <p>
+ * 数值模式为 {@link com.github.byw.exec.config.NumericMode#DOUBLE} 时列表参数和列表结果都使用这个类保存，
+ * 通过 {@link #getDouble(int)} 和 {@link #setDouble(int, double)} 读写时不会产生装箱。
+ * 通过 {@link java.util.List} 接口读取时返回 Double，写入任意 Number 都会转换成 double。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class DoubleList extends AbstractList<Number> implements RandomAccess {
+
+	private double[] values;
+
+	private int size;
+
+	/**
+	 * 创建指定长度的列表，所有数值都是 0
+	 *
+	 * @param size 长度
+	 */
+	public DoubleList(int size) {
+		this.values = new double[size];
+		this.size = size;
+	}
+
+	/**
+	 * 直接使用传入的数组，不会复制
+	 *
+	 * @param values 数值
+	 */
+	public DoubleList(double[] values) {
+		this.values = values;
+		this.size = values.length;
+	}
+
+	/**
+	 * 复制集合中的数值
+	 *
+	 * @param collection 数值集合
+	 * @return {@link DoubleList}
+	 */
+	public static DoubleList copyOf(Collection<? extends Number> collection) {
+		if (collection instanceof DoubleList) {
+			DoubleList doubleList = (DoubleList) collection;
+			return new DoubleList(Arrays.copyOf(doubleList.values, doubleList.size));
+		}
+		double[] values = new double[collection.size()];
+		int i = 0;
+		for (Number number : collection) {
+			values[i++] = number.doubleValue();
+		}
+		return new DoubleList(values);
+	}
+
+	public double getDouble(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	public void setDouble(int index, double value) {
+		checkIndex(index);
+		values[index] = value;
+	}
+
+	/**
+	 * 得到保存数值的数组，数组长度可能大于列表长度
+	 *
+	 * @return double[]
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	@Override
+	public Double get(int index) {
+		return getDouble(index);
+	}
+
+	@Override
+	public Double set(int index, Number element) {
+		double previous = getDouble(index);
+		values[index] = element.doubleValue();
+		return previous;
+	}
+
+	@Override
+	public void add(int index, Number element) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if (size == values.length) {
+			values = Arrays.copyOf(values, Math.max(8, size + (size >> 1)));
+		}
+		System.arraycopy(values, index, values, index + 1, size - index);
+		values[index] = element.doubleValue();
+		size++;
+		modCount++;
+	}
+
+	@Override
+	public Double remove(int index) {
+		double previous = getDouble(index);
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		modCount++;
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.github.byw.param;
+
+/**
+ * 可以直接读取 double 数值的参数上下文
+ * <p>
+ * 原生表达式在 double 模式下通过这个接口读取参数，避免装箱。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public interface DoubleParamReader {
+
+	/**
+	 * 参数是否可以直接按 double 读取
+	 *
+	 * @param name 参数名称
+	 * @return boolean
+	 */
+	boolean isDouble(String name);
+
+	/**
+	 * 按 double 读取参数，只能在 {@link #isDouble(String)} 返回 true 时调用
+	 *
+	 * @param name 参数名称
+	 * @return double
+	 */
+	double getDouble(String name);
+}
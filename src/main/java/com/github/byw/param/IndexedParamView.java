@@ -0,0 +1,158 @@
+package com.github.byw.param;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按索引读取参数的上下文视图
+ * <p>
+ * 列表公式中以 _index 结尾的参数（例如 a_index）会直接从参数上下文中对应的列表（a）读取当前索引的数值，
+ * 不会向参数上下文中写入任何拆分出来的参数，所以无论列表多长，参数上下文的大小都不会变化。
+ * <p>
+ * 对 _index 参数的赋值只保存在当前索引中，切换索引后清空，由执行器负责写回结果列表。其它参数直接读写参数上下文。
+ * <p>
+ * ps: 视图本身不是线程安全的，并行执行时每个线程使用各自的视图。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class IndexedParamView implements ParamManager, DoubleParamReader {
+
+	/**
+	 * 索引标志
+	 */
+	public static final String INDEX_MARK = "_index";
+
+	/**
+	 * 参数上下文
+	 */
+	private final ParamManager paramContext;
+
+	/**
+	 * 当前索引
+	 */
+	private int index;
+
+	/**
+	 * 当前索引下对 _index 参数的赋值
+	 */
+	private final Map<String, Object> assignedMap = new HashMap<>();
+
+	/**
+	 * 公式中的参数名称和列表参数名称的对应关系，例如 a_index -> a
+	 */
+	private final Map<String, String> listNameMap = new HashMap<>();
+
+	/**
+	 * 公式中的参数名称和 {@link DoubleList} 的对应关系，例如 a_index -> a 对应的 DoubleList
+	 */
+	private final Map<String, DoubleList> doubleListMap = new HashMap<>();
+
+	public IndexedParamView(ParamManager paramContext) {
+		this.paramContext = paramContext;
+	}
+
+	/**
+	 * 切换到指定索引，索引变化时清空上一个索引的赋值
+	 * <p>
+	 * 同一个索引下后面的公式可以直接读取前面公式的赋值，不依赖结果是否已经写回结果列表。
+	 *
+	 * @param index 索引
+	 */
+	public void setIndex(int index) {
+		if (this.index != index) {
+			this.assignedMap.clear();
+		}
+		this.index = index;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * 获取当前索引下公式对 _index 参数的赋值
+	 *
+	 * @param name 参数名称（带有 _index）
+	 * @return {@link Object}
+	 */
+	public Object getAssigned(String name) {
+		return assignedMap.get(name);
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (!isIndexName(key)) {
+			return paramContext.get(key);
+		}
+		Object assigned = assignedMap.get(key);
+		if (assigned != null) {
+			return assigned;
+		}
+		Object list = paramContext.get(listName((String) key));
+		if (!(list instanceof List)) {
+			return null;
+		}
+		List<?> paramList = (List<?>) list;
+		// 参数长度不足的时候当作参数不存在处理，提供默认值的函数会使用默认值
+		return index < paramList.size() ? paramList.get(index) : null;
+	}
+
+	@Override
+	public Object put(String name, Object object) {
+		if (isIndexName(name)) {
+			return assignedMap.put(name, object);
+		}
+		return paramContext.put(name, object);
+	}
+
+	@Override
+	public boolean isDouble(String name) {
+		DoubleList doubleList = doubleList(name);
+		return doubleList != null && index < doubleList.size();
+	}
+
+	@Override
+	public double getDouble(String name) {
+		return doubleList(name).getDouble(index);
+	}
+
+	@Override
+	public boolean containsKey(String key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public int size() {
+		return paramContext.size();
+	}
+
+	private boolean isIndexName(Object key) {
+		return key instanceof String && ((String) key).endsWith(INDEX_MARK);
+	}
+
+	/**
+	 * 没有被赋值过的 _index 参数对应的 DoubleList
+	 */
+	private DoubleList doubleList(String name) {
+		if (!isIndexName(name) || assignedMap.containsKey(name)) {
+			return null;
+		}
+		DoubleList doubleList = doubleListMap.get(name);
+		if (doubleList != null) {
+			return doubleList;
+		}
+		Object list = paramContext.get(listName(name));
+		if (!(list instanceof DoubleList)) {
+			return null;
+		}
+		// 列表一旦放入上下文就不会被替换，可以缓存
+		doubleListMap.put(name, (DoubleList) list);
+		return (DoubleList) list;
+	}
+
+	private String listName(String name) {
+		return listNameMap.computeIfAbsent(name, t -> t.substring(0, t.length() - INDEX_MARK.length()));
+	}
+}
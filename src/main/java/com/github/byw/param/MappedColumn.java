@@ -0,0 +1,269 @@
+package com.github.byw.param;
+
+import com.github.byw.exception.CalculateException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.RandomAccess;
+
+/**
+ * 内存映射的列
+ * <p>
+ * 通过 {@link FileChannel#map} 把列文件映射到内存，读取元素时直接从映射中读取，不会把整列复制到堆中，
+ * 打开几 GB 的列文件几乎没有开销，实际读取的页面由操作系统按需加载。列是只读的。
+ * <p>
+ * 列文件格式（所有数值都是小端序）：
+ * <pre>
+ * 偏移  长度  内容
+ * 0     4     魔数，ASCII 字符 "CALC"
+ * 4     1     版本，当前为 1
+ * 5     1     数值类型，见 {@link ColumnType#getCode()}
+ * 6     1     小数位数，只有 DECIMAL64 使用，取值范围 0 ~ 18
+ * 7     1     保留，写 0
+ * 8     8     元素数量 n
+ * 16    8*n   数值，每个元素 8 个字节：INT64 是 long，FLOAT64 是 double，DECIMAL64 是 unscaledValue（long）
+ * </pre>
+ * 可以使用 {@link #write(Path, ColumnType, int, Iterator)} 生成列文件，也可以由其它语言按照上面的格式直接生成。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class MappedColumn extends AbstractList<Number> implements RandomAccess {
+
+	/**
+	 * 魔数
+	 */
+	private static final byte[] MAGIC = {'C', 'A', 'L', 'C'};
+
+	/**
+	 * 当前版本
+	 */
+	public static final byte VERSION = 1;
+
+	/**
+	 * 文件头长度
+	 */
+	public static final int HEADER_SIZE = 16;
+
+	/**
+	 * 每个元素的长度
+	 */
+	private static final int ELEMENT_SIZE = Long.BYTES;
+
+	/**
+	 * 单个映射最大只能是 2 GB，所以按照每段 2^27 个元素（1 GB）分段映射
+	 */
+	private static final int SEGMENT_SHIFT = 27;
+
+	private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+	/**
+	 * DECIMAL64 最大的小数位数
+	 */
+	public static final int MAX_SCALE = 18;
+
+	private final ColumnType type;
+
+	private final int scale;
+
+	private final int size;
+
+	private final ByteBuffer[] segments;
+
+	private MappedColumn(ColumnType type, int scale, int size, ByteBuffer[] segments) {
+		this.type = type;
+		this.scale = scale;
+		this.size = size;
+		this.segments = segments;
+	}
+
+	/**
+	 * 打开列文件
+	 * 映射建立之后文件通道就会关闭，映射在列对象被回收之前一直有效
+	 *
+	 * @param file 列文件
+	 * @return {@link MappedColumn}
+	 */
+	public static MappedColumn open(Path file) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header) != -1) {
+				// 读取完整的文件头
+			}
+			if (header.hasRemaining()) {
+				throw new CalculateException(file + " 不是列文件，文件长度小于文件头长度");
+			}
+			for (int i = 0; i < MAGIC.length; i++) {
+				if (header.get(i) != MAGIC[i]) {
+					throw new CalculateException(file + " 不是列文件，魔数不正确");
+				}
+			}
+			if (header.get(4) != VERSION) {
+				throw new CalculateException(file + " 的版本是 " + header.get(4) + "，只支持版本 " + VERSION);
+			}
+			ColumnType type = ColumnType.of(header.get(5));
+			int scale = header.get(6);
+			checkScale(type, scale);
+			long count = header.getLong(8);
+			if (count < 0 || count > Integer.MAX_VALUE) {
+				throw new CalculateException(file + " 的元素数量 " + count + " 超出了列表的最大长度");
+			}
+			if (channel.size() < HEADER_SIZE + count * ELEMENT_SIZE) {
+				throw new CalculateException(file + " 的文件长度和元素数量 " + count + " 不符");
+			}
+			int size = (int) count;
+			int segmentCount = size == 0 ? 0 : ((size - 1) >>> SEGMENT_SHIFT) + 1;
+			ByteBuffer[] segments = new ByteBuffer[segmentCount];
+			for (int i = 0; i < segmentCount; i++) {
+				long first = (long) i << SEGMENT_SHIFT;
+				long length = Math.min(size - first, 1L << SEGMENT_SHIFT) * ELEMENT_SIZE;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * ELEMENT_SIZE, length).order(ByteOrder.LITTLE_ENDIAN);
+			}
+			return new MappedColumn(type, scale, size, segments);
+		} catch (IOException e) {
+			throw new CalculateException("打开列文件 " + file + " 失败", e);
+		}
+	}
+
+	/**
+	 * 生成列文件，已经存在的文件会被覆盖
+	 *
+	 * @param file   列文件
+	 * @param type   数值类型
+	 * @param scale  小数位数，只有 DECIMAL64 使用，超出的小数位四舍五入
+	 * @param values 数值
+	 * @return long 写入的元素数量
+	 */
+	public static long write(Path file, ColumnType type, int scale, Iterator<? extends Number> values) {
+		checkScale(type, scale);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+			// 元素数量最后再写
+			buffer.put(MAGIC).put(VERSION).put(type.getCode()).put((byte) scale).put((byte) 0).putLong(0);
+			long count = 0;
+			while (values.hasNext()) {
+				Number value = values.next();
+				if (value == null) {
+					throw new CalculateException("列文件不支持 null，索引：" + count);
+				}
+				if (!buffer.hasRemaining()) {
+					flush(channel, buffer);
+				}
+				putValue(buffer, type, scale, value);
+				count++;
+			}
+			flush(channel, buffer);
+			buffer.putLong(count).flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer, 8 + buffer.position());
+			}
+			return count;
+		} catch (IOException e) {
+			throw new CalculateException("写入列文件 " + file + " 失败", e);
+		}
+	}
+
+	private static void putValue(ByteBuffer buffer, ColumnType type, int scale, Number value) {
+		switch (type) {
+			case INT64:
+				buffer.putLong(value.longValue());
+				break;
+			case FLOAT64:
+				buffer.putDouble(value.doubleValue());
+				break;
+			case DECIMAL64:
+				BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+				try {
+					buffer.putLong(decimal.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+				} catch (ArithmeticException e) {
+					throw new CalculateException(value + " 超出了 DECIMAL64 的范围", e);
+				}
+				break;
+			default:
+				throw new CalculateException("不支持的列类型：" + type);
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private static void checkScale(ColumnType type, int scale) {
+		if (type == ColumnType.DECIMAL64 ? scale < 0 || scale > MAX_SCALE : scale != 0) {
+			throw new CalculateException(type + " 类型的小数位数不能是 " + scale);
+		}
+	}
+
+	/**
+	 * 读取原始的 8 个字节，DECIMAL64 是 unscaledValue，FLOAT64 是 double 的二进制表示
+	 *
+	 * @param index 索引
+	 * @return long
+	 */
+	public long getRawLong(int index) {
+		checkIndex(index);
+		return segments[index >>> SEGMENT_SHIFT].getLong((index & SEGMENT_MASK) * ELEMENT_SIZE);
+	}
+
+	/**
+	 * 按 double 读取，不会产生装箱
+	 *
+	 * @param index 索引
+	 * @return double
+	 */
+	public double getDouble(int index) {
+		long raw = getRawLong(index);
+		switch (type) {
+			case INT64:
+				return raw;
+			case FLOAT64:
+				return Double.longBitsToDouble(raw);
+			default:
+				return BigDecimal.valueOf(raw, scale).doubleValue();
+		}
+	}
+
+	@Override
+	public Number get(int index) {
+		long raw = getRawLong(index);
+		switch (type) {
+			case INT64:
+				return raw;
+			case FLOAT64:
+				return Double.longBitsToDouble(raw);
+			default:
+				return BigDecimal.valueOf(raw, scale);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public ColumnType getType() {
+		return type;
+	}
+
+	public int getScale() {
+		return scale;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.github.byw.param;
+
+import com.github.byw.helper.StringFormatter;
+
+import java.nio.file.Path;
+
+/**
+ * 支持内存映射列的参数上下文
+ * <p>
+ * 在 {@link DefaultParam} 的基础上增加了从列文件（格式见 {@link MappedColumn}）添加列表参数的方法，
+ * 列表参数直接从文件映射中读取，不需要先加载成 {@code List<BigDecimal>}。
+ * <p>
+ * 使用方式：
+ * <pre>
+ * CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setParamContextClass(MappedParamContext.class));
+ * MappedParamContext param = (MappedParamContext) factory.createParam();
+ * param.addColumn("成绩", Paths.get("/data/score.col"));
+ * </pre>
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class MappedParamContext extends DefaultParam {
+
+	/**
+	 * 添加列文件作为列表参数
+	 *
+	 * @param paramName 参数名称
+	 * @param file      列文件
+	 * @return {@link MappedParamContext}
+	 */
+	public MappedParamContext addColumn(String paramName, Path file) {
+		addArray(paramName, MappedColumn.open(file));
+		return this;
+	}
+
+	/**
+	 * 添加列文件作为列表参数
+	 *
+	 * @param template 模板
+	 * @param arg      模板所需参数
+	 * @param file     列文件
+	 * @return {@link MappedParamContext}
+	 */
+	public MappedParamContext addColumn(String template, String arg, Path file) {
+		return addColumn(StringFormatter.format(template, arg), file);
+	}
+}
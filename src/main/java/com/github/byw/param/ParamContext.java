@@ -1,9 +1,11 @@
 package com.github.byw.param;
 
+import com.github.byw.exception.CalculateException;
 import com.github.byw.exec.config.CalculateConfig;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 参数上下文
@@ -103,4 +105,50 @@ public interface ParamContext {
 	 */
 	void setCalculateConfig(CalculateConfig config);
 
+	/**
+	 * 上一次计算完成（{@link #markCalculated()}）之后添加或者修改过的参数，增量计算时使用
+	 * <p>
+	 * ps: 只有通过 addNumber、addArray 等方法添加的参数才会被记录，直接修改已经添加的列表中的元素不会被记录。
+	 *
+	 * @return {@link Set}<{@link String}> 无法确定哪些参数发生了变化（例如还没有计算过）时返回 null
+	 */
+	default Set<String> getChangedParamNames() {
+		return null;
+	}
+
+	/**
+	 * 标记计算完成，之后开始重新记录发生变化的参数
+	 */
+	default void markCalculated() {
+	}
+
+	/**
+	 * 删除参数，增量计算时用来清除需要重新计算的公式上一次的结果
+	 *
+	 * @param paramName 参数名称
+	 */
+	default void remove(String paramName) {
+		throw new CalculateException(getClass().getSimpleName() + " 不支持删除参数");
+	}
+
+	/**
+	 * 创建写时复制的子参数上下文，用于在同一组参数上尝试不同的取值（what-if）
+	 * <p>
+	 * 子参数上下文和当前参数上下文共用没有修改过的参数以及列表的数据，子参数上下文添加、删除或者计算出新的结果都不会影响当前参数上下文。
+	 * fork 不会修改当前参数上下文，可以在多个线程中同时 fork；子参数上下文使用期间不能再修改当前参数上下文。
+	 *
+	 * @return {@link ParamContext}
+	 */
+	default ParamContext fork() {
+		throw new CalculateException(getClass().getSimpleName() + " 不支持 fork");
+	}
+
+	/**
+	 * 执行器原地修改列表参数（例如写入列表公式的结果）之前调用，
+	 * 如果列表和其它参数上下文共用（见 {@link #fork()}），先复制一份再修改。
+	 *
+	 * @param paramName 参数名称
+	 */
+	default void prepareWrite(String paramName) {
+	}
 }
@@ -17,4 +17,13 @@ public interface ParamManager extends IExpressContext<String, Object> {
 	 * @return boolean
 	 */
 	boolean containsKey(String key);
+
+	/**
+	 * 参数数量
+	 *
+	 * @return int 无法获取时返回 -1
+	 */
+	default int size() {
+		return -1;
+	}
 }
@@ -0,0 +1,212 @@
+package com.github.byw.param;
+
+import com.github.byw.exception.CalculateException;
+import com.github.byw.helper.StringFormatter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 流式参数
+ * <p>
+ * 列表参数不需要一次性放入内存，而是通过迭代器或者分段提供，执行时每次读取 chunkSize 个元素组成一个参数上下文进行计算，
+ * 内存占用只和 chunkSize 有关，和列表的总长度无关。数值参数在每一段中都相同。
+ * <p>
+ * ps: 迭代器只能读取一次，所以流式参数也只能执行一次。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class ParamStream {
+
+	/**
+	 * 每一段包含的元素数量
+	 */
+	private final int chunkSize;
+
+	/**
+	 * 数值参数
+	 */
+	private final Map<String, Number> numberMap = new LinkedHashMap<>();
+
+	/**
+	 * 列表参数
+	 */
+	private final Map<String, Iterator<? extends Number>> iteratorMap = new LinkedHashMap<>();
+
+	/**
+	 * 已经读取的元素数量
+	 */
+	private long offset = 0;
+
+	public ParamStream(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new CalculateException("chunkSize 必须大于 0");
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * 添加数值参数
+	 *
+	 * @param paramName 参数名称
+	 * @param number    数值
+	 * @return {@link ParamStream}
+	 */
+	public <T extends Number> ParamStream addNumber(String paramName, T number) {
+		if (number == null) {
+			throw new CalculateException(paramName + " 参数为空，请检查数据");
+		}
+		numberMap.put(paramName, number);
+		return this;
+	}
+
+	/**
+	 * 添加数值参数
+	 *
+	 * @param template 模板
+	 * @param arg      参数
+	 * @param number   数值
+	 * @return {@link ParamStream}
+	 */
+	public <T extends Number> ParamStream addNumber(String template, String arg, T number) {
+		return addNumber(StringFormatter.format(template, arg), number);
+	}
+
+	/**
+	 * 添加列表参数，元素通过迭代器逐个读取
+	 *
+	 * @param paramName 参数名称
+	 * @param iterator  迭代器
+	 * @return {@link ParamStream}
+	 */
+	public ParamStream addIterator(String paramName, Iterator<? extends Number> iterator) {
+		if (iterator == null) {
+			throw new CalculateException(paramName + " 参数为空，请检查数据");
+		}
+		iteratorMap.put(paramName, iterator);
+		return this;
+	}
+
+	/**
+	 * 添加列表参数，元素通过迭代器逐个读取
+	 *
+	 * @param template 模板
+	 * @param arg      参数
+	 * @param iterator 迭代器
+	 * @return {@link ParamStream}
+	 */
+	public ParamStream addIterator(String template, String arg, Iterator<? extends Number> iterator) {
+		return addIterator(StringFormatter.format(template, arg), iterator);
+	}
+
+	/**
+	 * 添加列表参数，元素按段读取（例如数据库分页查询的结果），每一段的长度不需要和 chunkSize 相同
+	 *
+	 * @param paramName 参数名称
+	 * @param chunks    分段的迭代器
+	 * @return {@link ParamStream}
+	 */
+	public ParamStream addChunks(String paramName, Iterator<? extends Collection<? extends Number>> chunks) {
+		if (chunks == null) {
+			throw new CalculateException(paramName + " 参数为空，请检查数据");
+		}
+		return addIterator(paramName, new FlatIterator(chunks));
+	}
+
+	/**
+	 * 读取下一段数据放入参数上下文
+	 *
+	 * @param param 参数上下文
+	 * @return int 这一段的元素数量，所有列表参数都读取完毕时返回 0
+	 */
+	public int readChunk(ParamContext param) {
+		if (iteratorMap.isEmpty()) {
+			throw new CalculateException("流式参数中至少需要一个列表参数");
+		}
+		int size = -1;
+		String sizeName = null;
+		Map<String, List<Number>> chunkMap = new LinkedHashMap<>();
+		for (Map.Entry<String, Iterator<? extends Number>> entry : iteratorMap.entrySet()) {
+			Iterator<? extends Number> iterator = entry.getValue();
+			List<Number> chunk = new ArrayList<>(chunkSize);
+			while (chunk.size() < chunkSize && iterator.hasNext()) {
+				chunk.add(iterator.next());
+			}
+			if (size != -1 && size != chunk.size()) {
+				throw new CalculateException("参数 {0} 和 {1} 的长度不同，从索引 {2} 开始分别读取到 {3}，{4} 个元素", sizeName, entry.getKey(),
+						String.valueOf(offset), String.valueOf(size), String.valueOf(chunk.size()));
+			}
+			size = chunk.size();
+			sizeName = entry.getKey();
+			chunkMap.put(entry.getKey(), chunk);
+		}
+		if (size == 0) {
+			return 0;
+		}
+		numberMap.forEach(param::addNumber);
+		chunkMap.forEach(param::addArray);
+		offset += size;
+		return size;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * 已经读取的元素数量，也就是下一段第一个元素在整个列表中的索引
+	 *
+	 * @return long
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * 列表参数的名称
+	 *
+	 * @return {@link Set}<{@link String}>
+	 */
+	public Set<String> getListParamNames() {
+		return Collections.unmodifiableSet(iteratorMap.keySet());
+	}
+
+	/**
+	 * 把分段的迭代器展开成逐个元素的迭代器
+	 */
+	private static class FlatIterator implements Iterator<Number> {
+
+		private final Iterator<? extends Collection<? extends Number>> chunks;
+
+		private Iterator<? extends Number> current = Collections.emptyIterator();
+
+		private FlatIterator(Iterator<? extends Collection<? extends Number>> chunks) {
+			this.chunks = chunks;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!current.hasNext() && chunks.hasNext()) {
+				Collection<? extends Number> chunk = chunks.next();
+				current = chunk == null ? Collections.emptyIterator() : chunk.iterator();
+			}
+			return current.hasNext();
+		}
+
+		@Override
+		public Number next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return current.next();
+		}
+	}
+}
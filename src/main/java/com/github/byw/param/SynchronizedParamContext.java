@@ -0,0 +1,170 @@
+package com.github.byw.param;
+
+import com.github.byw.exec.config.CalculateConfig;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 线程安全的参数上下文
+ * <p>
+ * 多个公式并行执行时共用同一个参数上下文，所有读写都在同一把锁下委托给原始的参数上下文。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class SynchronizedParamContext implements ParamContext {
+
+	private final ParamContext paramContext;
+
+	private final ParamManager paramManager;
+
+	private final Object lock = new Object();
+
+	public SynchronizedParamContext(ParamContext paramContext) {
+		this.paramContext = paramContext;
+		this.paramManager = new SynchronizedParamManager();
+	}
+
+	@Override
+	public <T extends Number> ParamContext addNumber(String paramName, T number) {
+		synchronized (lock) {
+			paramContext.addNumber(paramName, number);
+		}
+		return this;
+	}
+
+	@Override
+	public <T extends Number> ParamContext addNumber(String template, String arg, T number) {
+		synchronized (lock) {
+			paramContext.addNumber(template, arg, number);
+		}
+		return this;
+	}
+
+	@Override
+	public <T extends Number> ParamContext addNumber(String template, List<String> args, T number) {
+		synchronized (lock) {
+			paramContext.addNumber(template, args, number);
+		}
+		return this;
+	}
+
+	@Override
+	public <R extends Number, T extends List<R>> ParamContext addArray(String paramName, T array) {
+		synchronized (lock) {
+			paramContext.addArray(paramName, array);
+		}
+		return this;
+	}
+
+	@Override
+	public <R extends Number, T extends List<List<R>>> ParamContext addArrayArray(String template, String arg, T array) {
+		synchronized (lock) {
+			paramContext.addArrayArray(template, arg, array);
+		}
+		return this;
+	}
+
+	@Override
+	public <R extends Number, T extends Collection<R>> ParamContext addArray(String template, String arg, T array) {
+		synchronized (lock) {
+			paramContext.addArray(template, arg, array);
+		}
+		return this;
+	}
+
+	@Override
+	public <R extends Number, T extends Collection<R>> ParamContext addArray(String template, List<String> args, T array) {
+		synchronized (lock) {
+			paramContext.addArray(template, args, array);
+		}
+		return this;
+	}
+
+	@Override
+	public ParamManager getParamContext() {
+		return paramManager;
+	}
+
+	@Override
+	public ParamConfig getParamConfig(String paramName) {
+		synchronized (lock) {
+			return paramContext.getParamConfig(paramName);
+		}
+	}
+
+	@Override
+	public void setCalculateConfig(CalculateConfig config) {
+		synchronized (lock) {
+			paramContext.setCalculateConfig(config);
+		}
+	}
+
+	@Override
+	public Set<String> getChangedParamNames() {
+		synchronized (lock) {
+			return paramContext.getChangedParamNames();
+		}
+	}
+
+	@Override
+	public void markCalculated() {
+		synchronized (lock) {
+			paramContext.markCalculated();
+		}
+	}
+
+	@Override
+	public void remove(String paramName) {
+		synchronized (lock) {
+			paramContext.remove(paramName);
+		}
+	}
+
+	@Override
+	public ParamContext fork() {
+		synchronized (lock) {
+			return new SynchronizedParamContext(paramContext.fork());
+		}
+	}
+
+	@Override
+	public void prepareWrite(String paramName) {
+		synchronized (lock) {
+			paramContext.prepareWrite(paramName);
+		}
+	}
+
+	private class SynchronizedParamManager implements ParamManager {
+
+		@Override
+		public boolean containsKey(String key) {
+			synchronized (lock) {
+				return paramContext.getParamContext().containsKey(key);
+			}
+		}
+
+		@Override
+		public Object get(Object key) {
+			synchronized (lock) {
+				return paramContext.getParamContext().get(key);
+			}
+		}
+
+		@Override
+		public Object put(String name, Object object) {
+			synchronized (lock) {
+				return paramContext.getParamContext().put(name, object);
+			}
+		}
+
+		@Override
+		public int size() {
+			synchronized (lock) {
+				return paramContext.getParamContext().size();
+			}
+		}
+	}
+}
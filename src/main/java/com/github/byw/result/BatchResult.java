@@ -0,0 +1,32 @@
+package com.github.byw.result;
+
+import java.util.List;
+
+/**
+ * 批量执行的结果
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class BatchResult {
+
+	/**
+	 * 计算结果，顺序和传入的参数上下文一致
+	 */
+	private final List<ResultManager> resultList;
+
+	private final BatchStatistics statistics;
+
+	public BatchResult(List<ResultManager> resultList, BatchStatistics statistics) {
+		this.resultList = resultList;
+		this.statistics = statistics;
+	}
+
+	public List<ResultManager> getResultList() {
+		return resultList;
+	}
+
+	public BatchStatistics getStatistics() {
+		return statistics;
+	}
+}
@@ -0,0 +1,77 @@
+package com.github.byw.result;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量执行的统计信息
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class BatchStatistics {
+
+	/**
+	 * 计算完成的参数上下文数量
+	 */
+	private final long count;
+
+	/**
+	 * 总耗时（纳秒）
+	 */
+	private final long elapsedNanos;
+
+	/**
+	 * 使用的线程数
+	 */
+	private final int parallelism;
+
+	public BatchStatistics(long count, long elapsedNanos, int parallelism) {
+		this.count = count;
+		this.elapsedNanos = elapsedNanos;
+		this.parallelism = parallelism;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * 吞吐量：每秒计算完成的参数上下文数量
+	 *
+	 * @return double
+	 */
+	public double getThroughput() {
+		return elapsedNanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	/**
+	 * 平均每个参数上下文的耗时（纳秒），多线程执行时是墙上时间的平均值
+	 *
+	 * @return double
+	 */
+	public double getAverageNanos() {
+		return count == 0 ? 0 : (double) elapsedNanos / count;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchStatistics{" +
+				"count=" + count +
+				", elapsedMillis=" + getElapsedMillis() +
+				", parallelism=" + parallelism +
+				", throughput=" + String.format("%.2f", getThroughput()) + "/s" +
+				'}';
+	}
+}
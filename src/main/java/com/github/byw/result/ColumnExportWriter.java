@@ -0,0 +1,299 @@
+package com.github.byw.result;
+
+import com.github.byw.exception.CalculateException;
+import com.github.byw.param.ColumnType;
+import com.github.byw.param.DoubleList;
+import com.github.byw.param.MappedColumn;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 列表结果导出
+ * <p>
+ * 直接遍历上下文中的结果列表写入缓冲区，不会生成中间的 {@code List<BigDecimal>}。
+ * {@link DoubleList} 按 double 读取，整数直接写出数字字符，都不会产生额外的对象。
+ * 写入通道时使用固定大小的缓冲区，写满就输出到通道；写入调用方的缓冲区时空间不足会抛出异常。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+final class ColumnExportWriter {
+
+	/**
+	 * 写入通道时使用的缓冲区大小
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * long 的十进制最多 20 个字符（包括负号）
+	 */
+	private static final int MAX_LONG_CHARS = 20;
+
+	private final ByteBuffer buffer;
+
+	/**
+	 * 为 null 时写入调用方的缓冲区
+	 */
+	private final WritableByteChannel channel;
+
+	private long written = 0;
+
+	private ColumnExportWriter(ByteBuffer buffer, WritableByteChannel channel) {
+		this.buffer = buffer;
+		this.channel = channel;
+	}
+
+	/**
+	 * 写入通道
+	 *
+	 * @return long 写入的字节数
+	 */
+	static long write(List<String> names, List<List<?>> columns, ExportFormat format, WritableByteChannel channel) {
+		ColumnExportWriter writer = new ColumnExportWriter(ByteBuffer.allocateDirect(BUFFER_SIZE), channel);
+		writer.write(names, columns, format);
+		writer.flush();
+		return writer.written;
+	}
+
+	/**
+	 * 写入缓冲区
+	 *
+	 * @return int 写入的字节数
+	 */
+	static int write(List<String> names, List<List<?>> columns, ExportFormat format, ByteBuffer buffer) {
+		int start = buffer.position();
+		new ColumnExportWriter(buffer, null).write(names, columns, format);
+		return buffer.position() - start;
+	}
+
+	private void write(List<String> names, List<List<?>> columns, ExportFormat format) {
+		if (format == ExportFormat.BINARY) {
+			writeBinary(names, columns);
+		} else {
+			writeCsv(names, columns);
+		}
+	}
+
+	private void writeBinary(List<String> names, List<List<?>> columns) {
+		ByteOrder order = buffer.order();
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		try {
+			for (int c = 0; c < columns.size(); c++) {
+				List<?> column = columns.get(c);
+				if (column instanceof DoubleList) {
+					DoubleList doubleList = (DoubleList) column;
+					putHeader(ColumnType.FLOAT64, 0, doubleList.size());
+					for (int i = 0; i < doubleList.size(); i++) {
+						ensure(Double.BYTES);
+						buffer.putDouble(doubleList.getDouble(i));
+					}
+					continue;
+				}
+				if (column instanceof MappedColumn) {
+					// 按照原来的类型和小数位数复制原始数值
+					MappedColumn mappedColumn = (MappedColumn) column;
+					putHeader(mappedColumn.getType(), mappedColumn.getScale(), mappedColumn.size());
+					for (int i = 0; i < mappedColumn.size(); i++) {
+						ensure(Long.BYTES);
+						buffer.putLong(mappedColumn.getRawLong(i));
+					}
+					continue;
+				}
+				writeBinaryColumn(names.get(c), column);
+			}
+		} finally {
+			buffer.order(order);
+		}
+	}
+
+	/**
+	 * 写出普通的结果列表：全部是整数时使用 INT64，全部是 double/float（可以包含整数）时使用 FLOAT64，
+	 * 其它情况（高精度模式下的 BigDecimal 结果）使用 DECIMAL64，小数位数是所有元素去掉末尾的 0 之后最大的小数位数，所以不会丢失精度
+	 */
+	private void writeBinaryColumn(String name, List<?> column) {
+		boolean integral = true;
+		boolean decimal = false;
+		for (int i = 0; i < column.size(); i++) {
+			Object value = column.get(i);
+			if (!(value instanceof Number)) {
+				throw new CalculateException("二进制格式只能导出数值，" + name + " 索引 " + i + " 的结果是 " + value);
+			}
+			if (isIntegral(value)) {
+				continue;
+			}
+			integral = false;
+			decimal |= !(value instanceof Double || value instanceof Float);
+		}
+		if (integral) {
+			putHeader(ColumnType.INT64, 0, column.size());
+			for (Object value : column) {
+				ensure(Long.BYTES);
+				buffer.putLong(((Number) value).longValue());
+			}
+			return;
+		}
+		if (!decimal) {
+			putHeader(ColumnType.FLOAT64, 0, column.size());
+			for (Object value : column) {
+				ensure(Double.BYTES);
+				buffer.putDouble(((Number) value).doubleValue());
+			}
+			return;
+		}
+		int scale = 0;
+		for (Object value : column) {
+			if (!isIntegral(value)) {
+				BigDecimal number = toBigDecimal(value);
+				scale = Math.max(scale, number.signum() == 0 ? 0 : number.stripTrailingZeros().scale());
+			}
+		}
+		if (scale > MappedColumn.MAX_SCALE) {
+			throw new CalculateException(name + " 的小数位数 " + scale + " 超出了 DECIMAL64 的范围（最多 " + MappedColumn.MAX_SCALE + " 位）");
+		}
+		putHeader(ColumnType.DECIMAL64, scale, column.size());
+		for (Object value : column) {
+			ensure(Long.BYTES);
+			try {
+				buffer.putLong(toBigDecimal(value).setScale(scale).unscaledValue().longValueExact());
+			} catch (ArithmeticException e) {
+				throw new CalculateException(value + " 超出了 DECIMAL64 的范围", e);
+			}
+		}
+	}
+
+	private void putHeader(ColumnType type, int scale, int size) {
+		ensure(MappedColumn.HEADER_SIZE);
+		buffer.put((byte) 'C').put((byte) 'A').put((byte) 'L').put((byte) 'C').put(MappedColumn.VERSION)
+				.put(type.getCode()).put((byte) scale).put((byte) 0).putLong(size);
+	}
+
+	private static boolean isIntegral(Object value) {
+		return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+	}
+
+	private static BigDecimal toBigDecimal(Object value) {
+		return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+	}
+
+	private void writeCsv(List<String> names, List<List<?>> columns) {
+		int size = columns.isEmpty() ? 0 : columns.get(0).size();
+		for (int c = 0; c < columns.size(); c++) {
+			if (columns.get(c).size() != size) {
+				throw new CalculateException("结果 {0} 和 {1} 的长度不同，分别为 {2}，{3}", names.get(0), names.get(c),
+						String.valueOf(size), String.valueOf(columns.get(c).size()));
+			}
+			if (c > 0) {
+				putByte((byte) ',');
+			}
+			putText(escape(names.get(c)));
+		}
+		putByte((byte) '\n');
+		for (int i = 0; i < size; i++) {
+			for (int c = 0; c < columns.size(); c++) {
+				if (c > 0) {
+					putByte((byte) ',');
+				}
+				List<?> column = columns.get(c);
+				if (column instanceof DoubleList) {
+					putText(Double.toString(((DoubleList) column).getDouble(i)));
+				} else {
+					putValue(column.get(i));
+				}
+			}
+			putByte((byte) '\n');
+		}
+	}
+
+	private void putValue(Object value) {
+		if (isIntegral(value)) {
+			putLong(((Number) value).longValue());
+		} else if (value instanceof BigDecimal) {
+			putText(((BigDecimal) value).toPlainString());
+		} else if (value != null) {
+			putText(escape(value.toString()));
+		}
+	}
+
+	/**
+	 * 直接写出整数的数字字符，不生成字符串
+	 */
+	private void putLong(long value) {
+		if (value == Long.MIN_VALUE) {
+			putText(Long.toString(value));
+			return;
+		}
+		ensure(MAX_LONG_CHARS);
+		if (value < 0) {
+			buffer.put((byte) '-');
+			value = -value;
+		}
+		long divisor = 1;
+		while (divisor <= value / 10) {
+			divisor *= 10;
+		}
+		for (; divisor > 0; divisor /= 10) {
+			buffer.put((byte) ('0' + value / divisor % 10));
+		}
+	}
+
+	private void putText(String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		if (channel != null && bytes.length > buffer.capacity()) {
+			flush();
+			writeToChannel(ByteBuffer.wrap(bytes));
+			return;
+		}
+		ensure(bytes.length);
+		buffer.put(bytes);
+	}
+
+	private void putByte(byte b) {
+		ensure(1);
+		buffer.put(b);
+	}
+
+	private static String escape(String text) {
+		if (text.indexOf(',') == -1 && text.indexOf('"') == -1 && text.indexOf('\n') == -1 && text.indexOf('\r') == -1) {
+			return text;
+		}
+		return '"' + text.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * 确保缓冲区还有指定的空间
+	 */
+	private void ensure(int length) {
+		if (buffer.remaining() >= length) {
+			return;
+		}
+		if (channel == null) {
+			throw new CalculateException("缓冲区空间不足，已经写入 " + buffer.position() + " 个字节");
+		}
+		flush();
+	}
+
+	private void flush() {
+		if (channel == null) {
+			return;
+		}
+		buffer.flip();
+		writeToChannel(buffer);
+		buffer.clear();
+	}
+
+	private void writeToChannel(ByteBuffer source) {
+		try {
+			while (source.hasRemaining()) {
+				written += channel.write(source);
+			}
+		} catch (IOException e) {
+			throw new CalculateException("导出结果失败", e);
+		}
+	}
+}
@@ -1,12 +1,19 @@
 package com.github.byw.result;
 
 import com.github.byw.exception.CalculateException;
+import com.github.byw.helper.NumberHelper;
+import com.github.byw.param.DoubleList;
 import com.github.byw.param.ParamManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.RandomAccess;
+import java.util.function.DoubleConsumer;
 
 /**
  * 默认结果管理
@@ -30,24 +37,16 @@ public class DefaultResultManager implements ResultManager {
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public List<BigDecimal> getNumResultList(String paramName) {
-		Object result = paramContext.get(paramName);
-		if (result == null) {
+		List<?> resultList = getResultList(paramName);
+		if (resultList == null) {
 			return null;
 		}
-		if (!(result instanceof List)) {
-			throw new CalculateException("结果类型不是 List");
+		List<BigDecimal> numList = new ArrayList<>(resultList.size());
+		for (int i = 0; i < resultList.size(); i++) {
+			numList.add(toBigDecimal(resultList, i));
 		}
-		List resultList = (List) result;
-
-		resultList = (List) resultList.stream().map(t -> {
-			if (!(t instanceof BigDecimal)) {
-				return new BigDecimal(t.toString());
-			}
-			return t;
-		}).collect(Collectors.toList());
-		return (List<BigDecimal>) resultList;
+		return numList;
 	}
 
 	@Override
@@ -72,6 +71,77 @@ public class DefaultResultManager implements ResultManager {
 		throw new CalculateException("paramName 不是 Boolean 类型");
 	}
 
+	@Override
+	public long getLong(String paramName) {
+		Object result = getRequiredResult(paramName);
+		if (result instanceof Long || result instanceof Integer || result instanceof Short || result instanceof Byte) {
+			return ((Number) result).longValue();
+		}
+		try {
+			return NumberHelper.toBigDecimal(result).longValueExact();
+		} catch (ArithmeticException e) {
+			throw new CalculateException("结果 " + paramName + " 不是 long 范围内的整数，真实值：" + result);
+		}
+	}
+
+	@Override
+	public double getDouble(String paramName) {
+		return NumberHelper.toDouble(getRequiredResult(paramName));
+	}
+
+	@Override
+	public double[] getDoubleArray(String paramName) {
+		List<?> resultList = getRequiredResultList(paramName);
+		double[] values = new double[resultList.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = NumberHelper.getDouble(resultList, i);
+		}
+		return values;
+	}
+
+	@Override
+	public void forEachNum(String paramName, DoubleConsumer consumer) {
+		List<?> resultList = getRequiredResultList(paramName);
+		for (int i = 0; i < resultList.size(); i++) {
+			consumer.accept(NumberHelper.getDouble(resultList, i));
+		}
+	}
+
+	@Override
+	public List<BigDecimal> getNumResultView(String paramName) {
+		return new NumResultView(getRequiredResultList(paramName));
+	}
+
+	@Override
+	public long exportColumns(List<String> paramNames, ExportFormat format, WritableByteChannel channel) {
+		return ColumnExportWriter.write(paramNames, getColumns(paramNames), format, channel);
+	}
+
+	@Override
+	public int exportColumns(List<String> paramNames, ExportFormat format, ByteBuffer buffer) {
+		return ColumnExportWriter.write(paramNames, getColumns(paramNames), format, buffer);
+	}
+
+	/**
+	 * 得到导出的原始结果列表
+	 *
+	 * @param paramNames 参数名称
+	 */
+	private List<List<?>> getColumns(List<String> paramNames) {
+		List<List<?>> columns = new ArrayList<>(paramNames.size());
+		for (String paramName : paramNames) {
+			Object result = paramContext.get(paramName);
+			if (result == null) {
+				throw new CalculateException("结果 " + paramName + " 不存在");
+			}
+			if (!(result instanceof List)) {
+				throw new CalculateException("结果 " + paramName + " 的类型不是 List");
+			}
+			columns.add((List<?>) result);
+		}
+		return columns;
+	}
+
 	/**
 	 * 得到原始num结果
 	 *
@@ -82,15 +152,75 @@ public class DefaultResultManager implements ResultManager {
 		if (result == null) {
 			return null;
 		}
-		if (result instanceof BigDecimal) {
-			return (BigDecimal) result;
-		}
-		BigDecimal bigDecimal;
 		try {
-			bigDecimal = new BigDecimal(result.toString());
-		} catch (NumberFormatException e) {
+			return NumberHelper.toBigDecimal(result);
+		} catch (CalculateException e) {
 			throw new CalculateException("参数 " + paramName + " 不是数值" + " 真实值：" + result);
 		}
-		return bigDecimal;
+	}
+
+	private Object getRequiredResult(String paramName) {
+		Object result = paramContext.get(paramName);
+		if (result == null) {
+			throw new CalculateException("结果 " + paramName + " 不存在");
+		}
+		return result;
+	}
+
+	/**
+	 * 得到结果列表
+	 *
+	 * @param paramName 参数名称
+	 * @return {@link List}，结果不存在时返回 null
+	 */
+	private List<?> getResultList(String paramName) {
+		Object result = paramContext.get(paramName);
+		if (result == null) {
+			return null;
+		}
+		if (!(result instanceof List)) {
+			throw new CalculateException("结果类型不是 List");
+		}
+		return (List<?>) result;
+	}
+
+	private List<?> getRequiredResultList(String paramName) {
+		List<?> resultList = getResultList(paramName);
+		if (resultList == null) {
+			throw new CalculateException("结果 " + paramName + " 不存在");
+		}
+		return resultList;
+	}
+
+	private static BigDecimal toBigDecimal(List<?> resultList, int index) {
+		if (resultList instanceof DoubleList) {
+			return BigDecimal.valueOf(((DoubleList) resultList).getDouble(index));
+		}
+		return NumberHelper.toBigDecimal(resultList.get(index));
+	}
+
+	/**
+	 * 数字类结果列表的只读视图
+	 *
+	 * @author byw
+	 * @date 2026/10/18
+	 */
+	private static class NumResultView extends AbstractList<BigDecimal> implements RandomAccess {
+
+		private final List<?> resultList;
+
+		private NumResultView(List<?> resultList) {
+			this.resultList = resultList;
+		}
+
+		@Override
+		public BigDecimal get(int index) {
+			return toBigDecimal(resultList, index);
+		}
+
+		@Override
+		public int size() {
+			return resultList.size();
+		}
 	}
 }
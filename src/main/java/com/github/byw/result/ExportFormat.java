@@ -0,0 +1,26 @@
+package com.github.byw.result;
+
+/**
+ * 列表结果的导出格式
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public enum ExportFormat {
+
+	/**
+	 * 二进制，按列依次写出，每一列都是一个完整的列文件（格式见 {@link com.github.byw.param.MappedColumn}），
+	 * 写入单独的文件时可以直接通过 MappedColumn 打开。
+	 * <p>
+	 * 列的类型按照结果决定，不会丢失精度：double 模式的结果是 FLOAT64，整数结果是 INT64，内存映射的列保持原来的类型，
+	 * 高精度模式的 BigDecimal 结果是 DECIMAL64（小数位数是列中最大的有效小数位数）。
+	 * 小数位数超过 18 位或者数值超出 long 范围的结果无法用 DECIMAL64 保存，导出时抛出 {@link com.github.byw.exception.CalculateException}
+	 */
+	BINARY,
+
+	/**
+	 * CSV，UTF-8 编码，第一行是列名，之后每行是同一个索引的各列结果，换行符为 \n。
+	 * 数值按照原始精度输出，BigDecimal 不使用科学计数法
+	 */
+	CSV
+}
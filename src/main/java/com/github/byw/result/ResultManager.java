@@ -1,7 +1,10 @@
 package com.github.byw.result;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import java.util.function.DoubleConsumer;
 
 /**
  * 结果管理
@@ -42,4 +45,65 @@ public interface ResultManager {
 	 * @return {@link Boolean}
 	 */
 	Boolean getBoolResult(String paramName);
+
+	/**
+	 * 得到 long 结果，结果不是整数时抛出 {@link com.github.byw.exception.CalculateException}
+	 *
+	 * @param paramName 参数名称
+	 * @return long
+	 */
+	long getLong(String paramName);
+
+	/**
+	 * 得到 double 结果
+	 *
+	 * @param paramName 参数名称
+	 * @return double
+	 */
+	double getDouble(String paramName);
+
+	/**
+	 * 得到数字类结果列表的 double 数组，每次调用都会返回新的数组
+	 *
+	 * @param paramName 参数名称
+	 * @return double[]，结果不存在时抛出 {@link com.github.byw.exception.CalculateException}
+	 */
+	double[] getDoubleArray(String paramName);
+
+	/**
+	 * 按索引顺序遍历数字类结果列表，不会复制列表，也不会产生装箱
+	 *
+	 * @param paramName 参数名称
+	 * @param consumer  数值的消费者
+	 */
+	void forEachNum(String paramName, DoubleConsumer consumer);
+
+	/**
+	 * 得到数字类结果列表的只读视图
+	 * 视图直接读取结果列表，不会复制；高精度模式下元素就是保存的 BigDecimal，double 模式下读取元素时才转换
+	 *
+	 * @param paramName 参数名称
+	 * @return {@link List}<{@link BigDecimal}>，结果不存在时抛出 {@link com.github.byw.exception.CalculateException}
+	 */
+	List<BigDecimal> getNumResultView(String paramName);
+
+	/**
+	 * 导出列表结果到通道，直接读取结果列表写出，不会生成中间的结果列表，通道不会被关闭
+	 *
+	 * @param paramNames 导出的结果名称，按顺序写出
+	 * @param format     导出格式
+	 * @param channel    通道
+	 * @return long 写入的字节数
+	 */
+	long exportColumns(List<String> paramNames, ExportFormat format, WritableByteChannel channel);
+
+	/**
+	 * 导出列表结果到缓冲区，从缓冲区当前的位置开始写入，空间不足时抛出 {@link com.github.byw.exception.CalculateException}
+	 *
+	 * @param paramNames 导出的结果名称，按顺序写出
+	 * @param format     导出格式
+	 * @param buffer     缓冲区
+	 * @return int 写入的字节数
+	 */
+	int exportColumns(List<String> paramNames, ExportFormat format, ByteBuffer buffer);
 }
@@ -0,0 +1,155 @@
+package com.github.byw.result;
+
+import com.github.byw.exception.CalculateException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 场景计算的结果
+ * <p>
+ * 每一行是一个场景，每一列是一个公式写入的参数，只保存公式的结果，不保存场景的参数上下文。
+ * 没有受到任何场景修改影响的结果（{@link #isShared(String)}）所有场景共用同一个值。
+ *
+ * @author byw
+ * @date 2026/10/18
+ */
+public class SweepResult {
+
+	/**
+	 * 列名（公式写入的参数），顺序和公式的顺序一致
+	 */
+	private final List<String> columnNames;
+
+	/**
+	 * key：列名 value：列的位置
+	 */
+	private final Map<String, Integer> columnIndexMap = new HashMap<>();
+
+	/**
+	 * 计算结果，第一维是场景，第二维是列。公式没有执行（例如不满足执行条件）时为 null
+	 */
+	private final Object[][] values;
+
+	/**
+	 * 所有场景共用的列
+	 */
+	private final Set<String> sharedColumnNames;
+
+	/**
+	 * 所有场景共用、只执行了一次的公式数量
+	 */
+	private final int sharedFormulaCount;
+
+	/**
+	 * 每个场景单独执行的公式数量之和
+	 */
+	private final long scenarioFormulaCount;
+
+	/**
+	 * 总耗时（纳秒）
+	 */
+	private final long elapsedNanos;
+
+	public SweepResult(List<String> columnNames, Object[][] values, Set<String> sharedColumnNames, int sharedFormulaCount,
+					   long scenarioFormulaCount, long elapsedNanos) {
+		this.columnNames = Collections.unmodifiableList(columnNames);
+		for (int i = 0; i < columnNames.size(); i++) {
+			columnIndexMap.put(columnNames.get(i), i);
+		}
+		this.values = values;
+		this.sharedColumnNames = Collections.unmodifiableSet(sharedColumnNames);
+		this.sharedFormulaCount = sharedFormulaCount;
+		this.scenarioFormulaCount = scenarioFormulaCount;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * 获取结果
+	 *
+	 * @param scenario 场景的位置，和传入的参数修改的顺序一致
+	 * @param name     参数名称
+	 * @return {@link Object}
+	 */
+	public Object get(int scenario, String name) {
+		return values[scenario][columnIndex(name)];
+	}
+
+	/**
+	 * 获取一个场景的所有结果
+	 *
+	 * @param scenario 场景的位置
+	 * @return {@link Map} key：参数名称 value：结果
+	 */
+	public Map<String, Object> getRow(int scenario) {
+		Map<String, Object> row = new LinkedHashMap<>();
+		for (int i = 0; i < columnNames.size(); i++) {
+			row.put(columnNames.get(i), values[scenario][i]);
+		}
+		return row;
+	}
+
+	/**
+	 * 获取所有场景中同一个参数的结果
+	 *
+	 * @param name 参数名称
+	 * @return {@link List} 顺序和场景的顺序一致
+	 */
+	public List<Object> getColumn(String name) {
+		int index = columnIndex(name);
+		List<Object> column = new ArrayList<>(values.length);
+		for (Object[] row : values) {
+			column.add(row[index]);
+		}
+		return column;
+	}
+
+	/**
+	 * 是否所有场景共用同一个结果（没有受到任何场景修改的影响）
+	 *
+	 * @param name 参数名称
+	 * @return boolean
+	 */
+	public boolean isShared(String name) {
+		columnIndex(name);
+		return sharedColumnNames.contains(name);
+	}
+
+	private int columnIndex(String name) {
+		Integer index = columnIndexMap.get(name);
+		if (index == null) {
+			throw new CalculateException(name + " 不是公式的结果");
+		}
+		return index;
+	}
+
+	public int getScenarioCount() {
+		return values.length;
+	}
+
+	public List<String> getColumnNames() {
+		return columnNames;
+	}
+
+	public int getSharedFormulaCount() {
+		return sharedFormulaCount;
+	}
+
+	public long getScenarioFormulaCount() {
+		return scenarioFormulaCount;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+	}
+}
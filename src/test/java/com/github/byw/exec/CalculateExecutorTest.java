@@ -1,21 +1,48 @@
 package com.github.byw.exec;
 
+import com.github.byw.exception.CalculateBudgetException;
 import com.github.byw.exception.CalculateException;
+import com.github.byw.exception.CalculateTimeoutException;
 import com.github.byw.exec.config.CalculateConfig;
 import com.github.byw.exec.config.FunctionConfig;
+import com.github.byw.exec.config.NumericMode;
+import com.github.byw.exec.exector.ExecutorManager;
+import com.github.byw.exec.exector.ListDataExecutor;
 import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.Formula;
+import com.github.byw.formula.FormulaAnalysis;
 import com.github.byw.formula.FormulaConditions;
 import com.github.byw.formula.FormulaManager;
+import com.github.byw.formula.FormulaStatement;
 import com.github.byw.log.LogOperator;
+import com.github.byw.log.NoopLogOperator;
+import com.github.byw.metrics.FormulaMetrics;
+import com.github.byw.metrics.HistogramMetricsListener;
+import com.github.byw.metrics.MetricsListener;
+import com.github.byw.param.DoubleList;
 import com.github.byw.param.ParamContext;
+import com.github.byw.param.ParamStream;
+import com.github.byw.result.BatchResult;
+import com.github.byw.result.BatchStatistics;
 import com.github.byw.result.ResultManager;
+import com.github.byw.result.SweepResult;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.ql.util.express.Operator;
 import org.apache.commons.collections4.CollectionUtils;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -312,6 +339,629 @@ class CalculateExecutorTest {
 		assertEquals(BigDecimal.valueOf(87), resultManager.getNumResult("小李的平均成绩", 0));
 	}
 
+	/**
+	 * 同一个执行器在多个线程、多次 exec 调用之间复用
+	 */
+	@Test
+	public void executor_reuse() {
+		CalculateFactory factory = CalculateFactory.createFactory();
+		CalculateExecutor executor = factory.createExecutor();
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("平均成绩 = (数学成绩 + 语文成绩 + 化学成绩)/3");
+		createStudentMessageList().parallelStream().forEach(studentMessage -> {
+			ParamContext param = factory.createParam();
+			param.addNumber("数学成绩", studentMessage.getMathScore());
+			param.addNumber("语文成绩", studentMessage.getChineseScore());
+			param.addNumber("化学成绩", studentMessage.getChemistrySore());
+			BigDecimal expected = studentMessage.getMathScore().add(studentMessage.getChineseScore()).add(studentMessage.getChemistrySore())
+					.divide(BigDecimal.valueOf(3), 0, BigDecimal.ROUND_HALF_UP);
+			assertEquals(expected, executor.exec(param, formulaManager).getNumResult("平均成绩", 0));
+		});
+	}
+
+	/**
+	 * 编译一次，多次执行
+	 */
+	@Test
+	public void compile_once_exec_many() {
+		CalculateFactory factory = CalculateFactory.createFactory();
+		CalculateExecutor executor = factory.createExecutor();
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("总成绩 = 数学成绩 + 语文成绩");
+		formulaManager.add("每次考试的总成绩_index = 每次考试的数学成绩_index + 每次考试的语文成绩_index");
+		CompiledFormulaSet plan = executor.compile(formulaManager);
+		for (StudentMessage studentMessage : createStudentMessageList()) {
+			ParamContext param = factory.createParam();
+			param.addNumber("数学成绩", studentMessage.getMathScore());
+			param.addNumber("语文成绩", studentMessage.getChineseScore());
+			param.addArray("每次考试的数学成绩", Lists.newArrayList(studentMessage.getMathScore(), studentMessage.getMathScore()));
+			param.addArray("每次考试的语文成绩", Lists.newArrayList(studentMessage.getChineseScore(), studentMessage.getChineseScore()));
+			ResultManager resultManager = plan.exec(param);
+			BigDecimal expected = studentMessage.getMathScore().add(studentMessage.getChineseScore());
+			assertEquals(0, expected.compareTo(resultManager.getNumResult("总成绩")));
+			assertEquals(0, expected.compareTo(resultManager.getNumResultList("每次考试的总成绩").get(1)));
+		}
+	}
+
+	/**
+	 * 列表公式只编译一次，执行时按索引绑定参数
+	 */
+	@Test
+	public void list_bind_by_index() {
+		CalculateFactory factory = CalculateFactory.createFactory();
+		CalculateExecutor executor = factory.createExecutor();
+		List<Integer> scoreList = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			scoreList.add(i);
+		}
+		ParamContext param = factory.createParam();
+		param.addArray("成绩", scoreList);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.addList(Lists.newArrayList("加分后成绩_index = 成绩_index + 1", "两倍成绩_index = 加分后成绩_index * 2"));
+		List<BigDecimal> result = executor.exec(param, formulaManager).getNumResultList("两倍成绩");
+		assertEquals(1000, result.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(0, BigDecimal.valueOf((i + 1) * 2L).compareTo(result.get(i)));
+		}
+		assertNull(param.getParamContext().get("成绩_索引0"));
+	}
+
+	/**
+	 * 互不依赖的公式并行执行
+	 */
+	@Test
+	public void parallel_formula() {
+		ForkJoinPool formulaPool = new ForkJoinPool(4);
+		try {
+			CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setFormulaPool(formulaPool));
+			FormulaManager formulaManager = factory.createFormulaManager();
+			formulaManager.add("数学加分 = 数学成绩 + 5");
+			formulaManager.add("语文加分 = 语文成绩 + 5");
+			formulaManager.add("总成绩 = 数学加分 + 语文加分");
+			formulaManager.add("数学加分 = 数学加分 * 2");
+			formulaManager.add("每次考试的总成绩_index = 每次考试的数学成绩_index + 每次考试的语文成绩_index");
+			formulaManager.add("最高总成绩 = listMax(每次考试的总成绩)");
+			CompiledFormulaSet plan = factory.createExecutor().compile(formulaManager);
+			for (StudentMessage studentMessage : createStudentMessageList()) {
+				ParamContext param = factory.createParam();
+				param.addNumber("数学成绩", studentMessage.getMathScore());
+				param.addNumber("语文成绩", studentMessage.getChineseScore());
+				param.addArray("每次考试的数学成绩", Lists.newArrayList(studentMessage.getMathScore(), BigDecimal.ZERO));
+				param.addArray("每次考试的语文成绩", Lists.newArrayList(studentMessage.getChineseScore(), BigDecimal.ZERO));
+				ResultManager resultManager = plan.exec(param);
+				BigDecimal total = studentMessage.getMathScore().add(studentMessage.getChineseScore());
+				assertEquals(0, total.add(BigDecimal.TEN).compareTo(resultManager.getNumResult("总成绩")));
+				assertEquals(0, studentMessage.getMathScore().add(BigDecimal.valueOf(5)).multiply(BigDecimal.valueOf(2))
+						.compareTo(resultManager.getNumResult("数学加分")));
+				assertEquals(0, total.compareTo(resultManager.getNumResult("最高总成绩")));
+			}
+		} finally {
+			formulaPool.shutdown();
+		}
+	}
+
+	/**
+	 * 列表公式分段并行计算，结果和按顺序计算一致
+	 */
+	@Test
+	public void parallel_list() {
+		List<Integer> scoreList = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			scoreList.add(i % 100);
+		}
+		ResultManager parallelResult = execForParallelList(true, scoreList);
+		ResultManager sequentialResult = execForParallelList(false, scoreList);
+		assertEquals(sequentialResult.getNumResultList("两倍成绩"), parallelResult.getNumResultList("两倍成绩"));
+		assertEquals(sequentialResult.getNumResultList("及格成绩"), parallelResult.getNumResultList("及格成绩"));
+		assertEquals(0, BigDecimal.valueOf(198).compareTo(parallelResult.getNumResultList("两倍成绩").get(99)));
+		assertEquals(0, BigDecimal.ZERO.compareTo(parallelResult.getNumResultList("及格成绩").get(59)));
+	}
+
+	private ResultManager execForParallelList(boolean parallelList, List<Integer> scoreList) {
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setParallelList(parallelList).setParallelListChunkSize(1000));
+		ParamContext param = factory.createParam();
+		param.addArray("成绩", scoreList);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.addList(Lists.newArrayList("加分后成绩_index = 成绩_index + 1", "两倍成绩_index = 加分后成绩_index * 2 - 2"));
+		formulaManager.add("及格成绩_index = 成绩_index", new FormulaConditions() {
+			@Override
+			public String getStartConditions() {
+				return "成绩_index >= 60";
+			}
+		});
+		return factory.createExecutor().exec(param, formulaManager);
+	}
+
+	/**
+	 * 批量执行
+	 */
+	@Test
+	public void exec_batch() {
+		CalculateFactory factory = CalculateFactory.createFactory();
+		CalculateExecutor executor = factory.createExecutor();
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("总成绩 = 数学成绩 + 语文成绩");
+		List<ParamContext> paramList = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			ParamContext param = factory.createParam();
+			param.addNumber("数学成绩", i);
+			param.addNumber("语文成绩", 100);
+			paramList.add(param);
+		}
+		BatchResult batchResult = executor.execBatch(formulaManager, paramList);
+		assertEquals(500, batchResult.getStatistics().getCount());
+		for (int i = 0; i < 500; i++) {
+			assertEquals(0, BigDecimal.valueOf(i + 100).compareTo(batchResult.getResultList().get(i).getNumResult("总成绩")));
+		}
+
+		AtomicInteger passCount = new AtomicInteger();
+		BatchStatistics statistics = executor.execBatch(formulaManager, paramList, (index, param, resultManager) -> {
+			if (resultManager.getNumResult("总成绩").compareTo(BigDecimal.valueOf(180)) >= 0) {
+				passCount.incrementAndGet();
+			}
+		});
+		assertEquals(500, statistics.getCount());
+		assertEquals(420, passCount.get());
+	}
+
+	/**
+	 * double 模式
+	 */
+	@Test
+	public void double_numeric_mode() {
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setNumericMode(NumericMode.DOUBLE));
+		ParamContext param = factory.createParam();
+		param.addArray("数学成绩", Lists.newArrayList(80, 90, 75));
+		param.addArray("语文成绩", Lists.newArrayList(new BigDecimal("70.5"), new BigDecimal("85"), new BigDecimal("60")));
+		param.addNumber("权重", 0.5);
+		assertTrue(param.getParamContext().get("数学成绩") instanceof DoubleList);
+
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.addList(Lists.newArrayList("加权成绩_index = (数学成绩_index + 语文成绩_index) * 权重", "平均成绩_index = 加权成绩_index / 1"));
+		formulaManager.add("最高成绩 = listMax(加权成绩)");
+		ResultManager resultManager = factory.createExecutor().exec(param, formulaManager);
+		assertTrue(param.getParamContext().get("加权成绩") instanceof DoubleList);
+		assertEquals(Lists.newArrayList(new BigDecimal("75.25"), new BigDecimal("87.5"), new BigDecimal("67.5")), resultManager.getNumResultList("平均成绩"));
+		assertEquals(0, new BigDecimal("87.5").compareTo(resultManager.getNumResult("最高成绩")));
+	}
+
+	/**
+	 * 关闭日志
+	 */
+	@Test
+	public void noop_log_operator() {
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setLogOperatorClass(NoopLogOperator.class));
+		ParamContext param = factory.createParam();
+		param.addArray("成绩", Lists.newArrayList(50, 70, 90));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("及格成绩_index = 成绩_index", new FormulaConditions() {
+			@Override
+			public String getStartConditions() {
+				return "成绩_index >= 60";
+			}
+		});
+		List<BigDecimal> result = factory.createExecutor().exec(param, formulaManager).getNumResultList("及格成绩");
+		assertEquals(Lists.newArrayList(BigDecimal.ZERO, BigDecimal.valueOf(70), BigDecimal.valueOf(90)), result);
+		assertFalse(new NoopLogOperator().isEnabled());
+	}
+
+	/**
+	 * 执行指标
+	 */
+	@Test
+	public void metrics_listener() {
+		HistogramMetricsListener listener = new HistogramMetricsListener();
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setMetricsListener(listener));
+		CalculateExecutor executor = factory.createExecutor();
+		for (int i = 0; i < 2; i++) {
+			ParamContext param = factory.createParam();
+			param.addNumber("计数", 0);
+			param.addArray("成绩", Lists.newArrayList(50, 70, 90));
+			FormulaManager formulaManager = factory.createFormulaManager();
+			formulaManager.add("计数 = 计数 + 1", new FormulaConditions() {
+				@Override
+				public String getStopConditions() {
+					return "计数 == 5";
+				}
+			});
+			formulaManager.add("加分后的成绩_index = 成绩_index + 5");
+			executor.exec(param, formulaManager);
+		}
+		FormulaMetrics loopMetrics = listener.getFormulaMetrics(new Formula("计数 = 计数 + 1", null));
+		assertEquals(2, loopMetrics.getCompileNanos().getCount());
+		assertEquals(2, loopMetrics.getEvaluateNanos().getCount());
+		assertEquals(2, loopMetrics.getIndexCount());
+		assertEquals(8, loopMetrics.getLoopIterations());
+		assertEquals(2, loopMetrics.getIterations().getCount());
+
+		FormulaMetrics listMetrics = listener.getFormulaMetrics(new Formula("加分后的成绩_index = 成绩_index + 5", null));
+		assertEquals(6, listMetrics.getIndexCount());
+		assertEquals(0, listMetrics.getLoopIterations());
+		assertEquals(0, listMetrics.getIterations().getCount());
+
+		assertEquals(2, listener.getExecNanos().getCount());
+		assertEquals(3, listener.getContextSize().getMax());
+		// 第二次执行的表达式全部命中编译缓存
+		assertTrue(listener.getCacheMissCount() > 0);
+		assertEquals(listener.getCacheMissCount(), listener.getCacheHitCount());
+		assertEquals(2, listener.getSlowestFormulas(10).size());
+
+		// 修改公式之后按照新的公式内容统计
+		Formula formula = new Formula("计数 = 计数 + 1", null);
+		listener.onEvaluate(formula, 1, 1, 0);
+		formula.setFormulaList(Lists.newArrayList("计数 = 计数 + 2"));
+		listener.onEvaluate(formula, 1, 1, 0);
+		assertEquals(3, loopMetrics.getEvaluateNanos().getCount());
+		assertEquals(1, listener.getFormulaMetrics(formula).getEvaluateNanos().getCount());
+	}
+
+	/**
+	 * 增量计算
+	 */
+	@Test
+	public void exec_incremental() {
+		HistogramMetricsListener listener = new HistogramMetricsListener();
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setMetricsListener(listener));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("数学总分 = 数学成绩 + 数学加分");
+		formulaManager.add("语文总分 = 语文成绩 + 语文加分");
+		formulaManager.add("总分 = 数学总分 + 语文总分");
+		formulaManager.add("优秀 = 总分 >= 180");
+		CompiledFormulaSet compiledFormulaSet = factory.createExecutor().compile(formulaManager);
+		assertTrue(compiledFormulaSet.isIncrementalSupported());
+
+		ParamContext param = factory.createParam();
+		param.addNumber("数学成绩", 90).addNumber("数学加分", 5).addNumber("语文成绩", 80).addNumber("语文加分", 0);
+		ResultManager resultManager = compiledFormulaSet.execIncremental(param);
+		assertEquals(new BigDecimal("175"), resultManager.getNumResult("总分"));
+		assertEquals(4, listener.getFormulaMetrics().stream().mapToLong(t -> t.getEvaluateNanos().getCount()).sum());
+
+		// 只修改语文成绩，数学总分沿用上一次的结果
+		param.addNumber("语文成绩", 90);
+		resultManager = compiledFormulaSet.execIncremental(param);
+		assertEquals(new BigDecimal("185"), resultManager.getNumResult("总分"));
+		assertTrue(resultManager.getBoolResult("优秀"));
+		assertEquals(1, listener.getFormulaMetrics(new Formula("数学总分 = 数学成绩 + 数学加分", null)).getEvaluateNanos().getCount());
+		assertEquals(2, listener.getFormulaMetrics(new Formula("语文总分 = 语文成绩 + 语文加分", null)).getEvaluateNanos().getCount());
+		assertEquals(2, listener.getFormulaMetrics(new Formula("优秀 = 总分 >= 180", null)).getEvaluateNanos().getCount());
+
+		// 没有变化时不执行任何公式
+		compiledFormulaSet.execIncremental(param);
+		assertEquals(7, listener.getFormulaMetrics().stream().mapToLong(t -> t.getEvaluateNanos().getCount()).sum());
+
+		FormulaManager selfUpdate = factory.createFormulaManager();
+		selfUpdate.add("计数 = 计数 + 1");
+		CompiledFormulaSet selfUpdateSet = factory.createExecutor().compile(selfUpdate);
+		assertFalse(selfUpdateSet.isIncrementalSupported());
+		assertThrows(CalculateException.class, () -> selfUpdateSet.execIncremental(factory.createParam().addNumber("计数", 0)));
+	}
+
+	/**
+	 * 流式执行
+	 */
+	@Test
+	public void exec_stream() {
+		CalculateFactory factory = CalculateFactory.createFactory();
+		CalculateExecutor executor = factory.createExecutor();
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("总成绩_index = 数学成绩_index + 语文成绩_index + 加分");
+
+		List<Integer> mathScores = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			mathScores.add(i);
+		}
+		// 语文成绩按照每页 7 个分页提供
+		List<List<Integer>> chineseScorePages = Lists.partition(Collections.nCopies(25, 100), 7);
+		ParamStream stream = new ParamStream(10)
+				.addIterator("数学成绩", mathScores.iterator())
+				.addChunks("语文成绩", chineseScorePages.iterator())
+				.addNumber("加分", 1);
+		List<BigDecimal> totalScores = new ArrayList<>();
+		List<Integer> chunkSizes = new ArrayList<>();
+		long count = executor.execStream(formulaManager, stream, (offset, size, resultManager) -> {
+			assertEquals(totalScores.size(), offset);
+			chunkSizes.add(size);
+			totalScores.addAll(resultManager.getNumResultList("总成绩"));
+		});
+		assertEquals(25, count);
+		assertEquals(Lists.newArrayList(10, 10, 5), chunkSizes);
+		for (int i = 0; i < 25; i++) {
+			assertEquals(0, BigDecimal.valueOf(i + 101).compareTo(totalScores.get(i)));
+		}
+
+		FormulaManager wholeList = factory.createFormulaManager();
+		wholeList.add("总成绩 = listSum(数学成绩)");
+		assertThrows(CalculateException.class, () -> executor.execStream(wholeList,
+				new ParamStream(10).addIterator("数学成绩", mathScores.iterator()), (offset, size, resultManager) -> {
+				}));
+	}
+
+	/**
+	 * 迭代计算的循环次数和最大循环次数
+	 */
+	@Test
+	public void iterative_loop() {
+		HistogramMetricsListener listener = new HistogramMetricsListener();
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setMetricsListener(listener)
+				.setLogOperatorClass(NoopLogOperator.class).setMaxIterations(5));
+		FormulaConditions conditions = new FormulaConditions() {
+			@Override
+			public String getStopConditions() {
+				return "成绩_index >= 90";
+			}
+		};
+		ParamContext param = factory.createParam();
+		param.addArray("成绩", Lists.newArrayList(80, 85));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("成绩_index = 成绩_index + 1", conditions);
+		CalculateExecutor executor = factory.createExecutor();
+		assertThrows(CalculateException.class, () -> executor.exec(param, formulaManager));
+
+		ParamContext param2 = factory.createParam();
+		param2.addArray("成绩", Lists.newArrayList(80, 85));
+		FormulaManager formulaManager2 = factory.createFormulaManager();
+		formulaManager2.add("成绩_index = 成绩_index + 1", new FormulaConditions() {
+			@Override
+			public String getStopConditions() {
+				return conditions.getStopConditions();
+			}
+
+			@Override
+			public Integer maxIterations() {
+				return 10;
+			}
+		});
+		List<BigDecimal> result = executor.exec(param2, formulaManager2).getNumResultList("成绩");
+		assertEquals(Lists.newArrayList(BigDecimal.valueOf(90), BigDecimal.valueOf(90)), result);
+		FormulaMetrics metrics = listener.getFormulaMetrics(new Formula("成绩_index = 成绩_index + 1", null));
+		// 每次执行公式报告一次所有索引的循环次数，超过最大循环次数的执行没有报告
+		assertEquals(1, metrics.getIterations().getCount());
+		assertEquals(13, metrics.getIterations().getSum());
+		assertEquals(13, metrics.getLoopIterations());
+	}
+
+	/**
+	 * 公式添加时解析，执行时复用解析结果
+	 */
+	@Test
+	public void formula_analysis() {
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig());
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("总成绩_index = 数学成绩_index + defaultZero(语文成绩_index)", new FormulaConditions() {
+			@Override
+			public String getStopConditions() {
+				return "数学成绩_index >= 0";
+			}
+		});
+		formulaManager.add("及格线 = 60");
+		Formula listFormula = formulaManager.getFormulaList().get(0);
+		FormulaAnalysis analysis = listFormula.getAnalysis();
+		assertTrue(analysis.isListFormula());
+		assertSame(analysis, listFormula.getAnalysis());
+		FormulaStatement statement = analysis.getStatements().get(0);
+		assertEquals("总成绩", statement.getResultName());
+		assertEquals(Lists.newArrayList("总成绩", "数学成绩", "语文成绩"), statement.getParameterNameList());
+		assertTrue(statement.isDefaultFunParam("语文成绩_index"));
+		assertFalse(statement.isDefaultFunParam("数学成绩"));
+		assertEquals(Lists.newArrayList("条件公式", "数学成绩"), analysis.getStopCondition().getParameterNameList());
+		assertNull(analysis.getStartCondition());
+		assertFalse(formulaManager.getFormulaList().get(1).getAnalysis().isListFormula());
+		assertThrows(CalculateException.class, () -> formulaManager.add("总成绩 = 数学成绩_index"));
+
+		ParamContext param = factory.createParam();
+		param.addArray("数学成绩", Lists.newArrayList(80, 100));
+		CalculateExecutor executor = factory.createExecutor();
+		ResultManager result = executor.exec(param, formulaManager);
+		assertEquals(Lists.newArrayList(BigDecimal.valueOf(80), BigDecimal.valueOf(100)), result.getNumResultList("总成绩"));
+	}
+
+	/**
+	 * 所有线程共用同一组执行器，列表公式和单值公式同时在多个线程中执行
+	 */
+	@Test
+	public void reentrant_executor() throws Exception {
+		CalculateConfig config = new CalculateConfig().setLogOperatorClass(NoopLogOperator.class);
+		ExecutorManager executorManager = new ExecutorManager(config);
+		CalculateExecutor executor = CalculateExecutor.getInstance(config, executorManager);
+		FormulaManager formulaManager = CalculateFactory.createFactory(config).createFormulaManager();
+		formulaManager.add("成绩_index = 成绩_index + 1", new FormulaConditions() {
+			@Override
+			public String getStopConditions() {
+				return "成绩_index >= 目标成绩_index";
+			}
+		});
+		formulaManager.add("总成绩 = listSum(成绩)");
+		CompiledFormulaSet compiledFormulaSet = executor.compile(formulaManager);
+		ForkJoinPool pool = new ForkJoinPool(8);
+		try {
+			pool.submit(() -> IntStream.range(0, 200).parallel().forEach(i -> {
+				assertSame(executorManager.get(ListDataExecutor.class), executorManager.get(ListDataExecutor.class));
+				ParamContext param = CalculateFactory.createFactory(config).createParam();
+				List<Integer> scores = new ArrayList<>();
+				List<Integer> targets = new ArrayList<>();
+				long expected = 0;
+				for (int j = 0; j <= i % 7; j++) {
+					scores.add(j);
+					targets.add(j + 1 + i % 5);
+					// 执行前判断一次结束条件，不满足时先执行一次再进入循环，循环中先执行后判断，所以至少执行两次
+					expected += Math.max(j + 2, j + 1 + i % 5);
+				}
+				param.addArray("成绩", scores);
+				param.addArray("目标成绩", targets);
+				ResultManager result = compiledFormulaSet.exec(param);
+				assertEquals(expected, result.getLong("总成绩"));
+			})).get();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * 异步执行、超时和取消
+	 */
+	@Test
+	public void exec_async() throws Exception {
+		List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+		CalculateConfig config = new CalculateConfig().setLogOperatorClass(NoopLogOperator.class).setAsyncExecutor(task -> {
+			Thread thread = new Thread(task);
+			threads.add(thread);
+			thread.start();
+		});
+		CalculateFactory factory = CalculateFactory.createFactory(config);
+		CalculateExecutor executor = factory.createExecutor();
+		ParamContext param = factory.createParam();
+		param.addArray("成绩", Lists.newArrayList(80, 90));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("总成绩_index = 成绩_index + 10");
+		List<BigDecimal> result = executor.execAsync(param, formulaManager).get(10, TimeUnit.SECONDS).getNumResultList("总成绩");
+		assertEquals(Lists.newArrayList(BigDecimal.valueOf(90), BigDecimal.valueOf(100)), result);
+
+		// 结束条件永远不会满足
+		FormulaManager endless = factory.createFormulaManager();
+		endless.add("计数 = 计数 + 1", new FormulaConditions() {
+			@Override
+			public String getStopConditions() {
+				return "计数 < 0";
+			}
+		});
+		ParamContext timeoutParam = factory.createParam();
+		timeoutParam.addNumber("计数", 1);
+		CompletableFuture<ResultManager> timeoutFuture = executor.execAsync(timeoutParam, endless, 50, TimeUnit.MILLISECONDS);
+		ExecutionException exception = assertThrows(ExecutionException.class, () -> timeoutFuture.get(10, TimeUnit.SECONDS));
+		assertTrue(exception.getCause() instanceof CalculateTimeoutException);
+
+		ParamContext cancelParam = factory.createParam();
+		cancelParam.addNumber("计数", 1);
+		CompletableFuture<ResultManager> cancelFuture = executor.execAsync(cancelParam, endless);
+		Thread.sleep(50);
+		assertTrue(cancelFuture.cancel(true));
+		Thread thread = threads.get(threads.size() - 1);
+		thread.join(10000);
+		assertFalse(thread.isAlive());
+	}
+
+	/**
+	 * 执行预算：循环次数、执行时间和参数上下文大小
+	 */
+	@Test
+	public void exec_budget() {
+		FormulaConditions untilTarget = new FormulaConditions() {
+			@Override
+			public String getStopConditions() {
+				return "成绩_index >= 目标成绩_index";
+			}
+		};
+		// 每个索引循环 4 次，一共循环 8 次
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setLogOperatorClass(NoopLogOperator.class)
+				.setMaxIterations(5).setMaxFormulaIterations(7L));
+		ParamContext param = factory.createParam();
+		param.addArray("成绩", Lists.newArrayList(80, 85));
+		param.addArray("目标成绩", Lists.newArrayList(85, 90));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("成绩_index = 成绩_index + 1", untilTarget);
+		CalculateBudgetException iterations = assertThrows(CalculateBudgetException.class, () -> factory.createExecutor().exec(param, formulaManager));
+		assertEquals("maxFormulaIterations", iterations.getBudget());
+
+		CalculateFactory timeFactory = CalculateFactory.createFactory(new CalculateConfig().setLogOperatorClass(NoopLogOperator.class)
+				.setMaxExecMillis(50L));
+		ParamContext timeParam = timeFactory.createParam();
+		timeParam.addNumber("计数", 1);
+		FormulaManager endless = timeFactory.createFormulaManager();
+		endless.add("计数 = 计数 + 1", new FormulaConditions() {
+			@Override
+			public String getStopConditions() {
+				return "计数 < 0";
+			}
+		});
+		CalculateTimeoutException timeout = assertThrows(CalculateTimeoutException.class, () -> timeFactory.createExecutor().exec(timeParam, endless));
+		assertEquals("maxExecMillis", timeout.getBudget());
+
+		CalculateFactory sizeFactory = CalculateFactory.createFactory(new CalculateConfig().setLogOperatorClass(NoopLogOperator.class)
+				.setParamTotalSize(1000000).setMaxListSize(1000).setMaxContextEntries(3));
+		FormulaManager fill = sizeFactory.createFormulaManager();
+		fill.add("默认值_index = 1");
+		CalculateBudgetException listSize = assertThrows(CalculateBudgetException.class,
+				() -> sizeFactory.createExecutor().exec(sizeFactory.createParam(), fill));
+		assertEquals("maxListSize", listSize.getBudget());
+
+		ParamContext entriesParam = sizeFactory.createParam();
+		entriesParam.addNumber("a", 1);
+		FormulaManager entries = sizeFactory.createFormulaManager();
+		entries.add("b = a + 1");
+		entries.add("c = b + 1");
+		entries.add("d = c + 1");
+		CalculateBudgetException contextEntries = assertThrows(CalculateBudgetException.class,
+				() -> sizeFactory.createExecutor().exec(entriesParam, entries));
+		assertEquals("maxContextEntries", contextEntries.getBudget());
+		assertEquals(4, entriesParam.getParamContext().size());
+	}
+
+	@Test
+	public void exec_sweep() {
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setLogOperatorClass(NoopLogOperator.class));
+		ParamContext base = factory.createParam();
+		base.addNumber("语文", 80);
+		base.addNumber("数学", 90);
+		base.addNumber("基数", 100);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("总分 = 语文 + 数学");
+		formulaManager.add("平均分 = 总分 / 2");
+		formulaManager.add("奖金 = 基数 * 2");
+		formulaManager.add("数学加分 = 数学 + 5");
+
+		List<Map<String, Integer>> overrides = Lists.newArrayList(ImmutableMap.of("语文", 100), ImmutableMap.of("语文", 70), ImmutableMap.of("基数", 50));
+		SweepResult result = factory.createExecutor().execSweep(formulaManager, base, overrides);
+		assertEquals(3, result.getScenarioCount());
+		assertEquals(Lists.newArrayList("总分", "平均分", "奖金", "数学加分"), result.getColumnNames());
+		assertEquals(190, ((Number) result.get(0, "总分")).intValue());
+		assertEquals(80, ((Number) result.get(1, "平均分")).intValue());
+		assertEquals(170, ((Number) result.get(2, "总分")).intValue());
+		assertEquals(100, ((Number) result.get(2, "奖金")).intValue());
+		assertEquals(200, ((Number) result.get(0, "奖金")).intValue());
+		assertTrue(result.isShared("数学加分"));
+		assertFalse(result.isShared("总分"));
+		// 每个公式都至少在一个场景中没有受到影响，所以都只在共用的参数上下文中执行一次，各个场景只重新执行受到影响的公式
+		assertEquals(4, result.getSharedFormulaCount());
+		assertEquals(5, result.getScenarioFormulaCount());
+		// 基础参数上下文不会被修改
+		assertFalse(base.getParamContext().containsKey("总分"));
+		assertEquals(80, ((Number) base.getParamContext().get("语文")).intValue());
+	}
+
+	@Test
+	public void exec_reuses_compiled_formulas() {
+		AtomicInteger compileCount = new AtomicInteger();
+		CalculateConfig config = new CalculateConfig().setMetricsListener(new MetricsListener() {
+			@Override
+			public void onCompile(Formula formula, long nanos) {
+				compileCount.incrementAndGet();
+			}
+		});
+		CalculateFactory factory = CalculateFactory.createFactory(config);
+		CalculateExecutor executor = factory.createExecutor();
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("b = a + 1");
+		for (int i = 0; i < 3; i++) {
+			ParamContext param = factory.createParam();
+			param.addNumber("a", i);
+			executor.exec(param, formulaManager);
+			assertEquals(i + 1, ((Number) param.getParamContext().get("b")).intValue());
+		}
+		assertEquals(1, compileCount.get());
+
+		// 添加公式之后重新编译
+		formulaManager.add("c = b + 1");
+		ParamContext param = factory.createParam();
+		param.addNumber("a", 1);
+		executor.exec(param, formulaManager);
+		assertEquals(3, ((Number) param.getParamContext().get("c")).intValue());
+		assertEquals(3, compileCount.get());
+
+		config.setRetainDecimal(0);
+		executor.exec(param, formulaManager);
+		assertEquals(5, compileCount.get());
+	}
+
 	private List<StudentMessage> createStudentMessageList() {
 		return Lists.newArrayList(new StudentMessage("小明", BigDecimal.valueOf(80), BigDecimal.valueOf(80), BigDecimal.valueOf(80))
 				, new StudentMessage("小红", BigDecimal.valueOf(80), BigDecimal.valueOf(90), BigDecimal.valueOf(70))
@@ -0,0 +1,65 @@
+package com.github.byw.exec;
+
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.param.ParamContext;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledFormulaSetTest {
+
+	/**
+	 * 通过回调返回结果时不保存已经计算完成的参数上下文
+	 */
+	@Test
+	public void batch_callback_releases_finished_params() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setFormulaPool(pool));
+			FormulaManager formulaManager = factory.createFormulaManager();
+			formulaManager.add("b = a + 1");
+			int total = 4096;
+			WeakReference<?>[] first = new WeakReference<?>[1];
+			Iterable<ParamContext> params = () -> new Iterator<ParamContext>() {
+				private int index;
+
+				@Override
+				public boolean hasNext() {
+					return index < total;
+				}
+
+				@Override
+				public ParamContext next() {
+					ParamContext param = factory.createParam();
+					param.addNumber("a", index);
+					if (index++ == 0) {
+						first[0] = new WeakReference<>(param);
+					}
+					return param;
+				}
+			};
+			AtomicBoolean released = new AtomicBoolean();
+			CompiledFormulaSet compiled = factory.createExecutor().compile(formulaManager);
+			long count = compiled.execBatch(params, (index, param, resultManager) -> {
+				assertEquals(index + 1, resultManager.getNumResult("b").intValue());
+				if (index == total - 1) {
+					for (int i = 0; i < 10 && first[0].get() != null; i++) {
+						System.gc();
+					}
+					released.set(first[0].get() == null);
+				}
+			}).getCount();
+			assertEquals(total, count);
+			assertTrue(released.get());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.github.byw.exec.exector;
+
+import com.github.byw.exec.CalculateExecutor;
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.exec.config.FunctionConfig;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.param.ParamContext;
+import com.ql.util.express.Operator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutorManagerTest {
+
+	@Test
+	public void config_changed_after_create() {
+		CalculateConfig config = new CalculateConfig();
+		CalculateFactory factory = CalculateFactory.createFactory(config);
+		CalculateExecutor executor = factory.createExecutor();
+		ParamContext param = factory.createParam();
+		param.addNumber("a", 1);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("b = a + 1");
+		executor.exec(param, formulaManager);
+
+		// 创建执行器之后添加的函数同样生效
+		config.setFunctionConfig(new FunctionConfig().addFunction("testFunction", new TestFunction()));
+		formulaManager.add("c = testFunction(a)");
+		executor.exec(param, formulaManager);
+		assertEquals(0, new BigDecimal(10086).compareTo((BigDecimal) param.getParamContext().get("c")));
+
+		config.getFunctionConfig().addFunction("otherFunction", new TestFunction());
+		formulaManager.add("d = otherFunction(a)");
+		executor.exec(param, formulaManager);
+		assertEquals(0, new BigDecimal(10086).compareTo((BigDecimal) param.getParamContext().get("d")));
+	}
+
+	@Test
+	public void registered_function_survives_rebuild() {
+		CalculateConfig config = new CalculateConfig();
+		ExecutorManager executorManager = new ExecutorManager(config);
+		executorManager.registerFunction("testFunction", new TestFunction());
+		config.setNativeExpression(!config.isNativeExpression());
+		CalculateExecutor executor = CalculateExecutor.getInstance(config, executorManager);
+		CalculateFactory factory = CalculateFactory.createFactory(config);
+		ParamContext param = factory.createParam();
+		param.addNumber("a", 1);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("b = testFunction(a)");
+		executor.exec(param, formulaManager);
+		assertEquals(0, new BigDecimal(10086).compareTo((BigDecimal) param.getParamContext().get("b")));
+	}
+
+	public static class TestFunction extends Operator {
+
+		@Override
+		public Object executeInner(Object[] list) throws Exception {
+			return BigDecimal.valueOf(10086);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.github.byw.exec.expression;
+
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.param.ParamContext;
+import com.github.byw.result.ResultManager;
+import com.google.common.collect.Lists;
+import com.ql.util.express.DefaultContext;
+import com.ql.util.express.Operator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeExpressionTest {
+
+	/**
+	 * 原生表达式和 QLExpress 的计算结果一致
+	 */
+	@Test
+	public void native_expression() {
+		List<String> formulaList = Lists.newArrayList("平均成绩 = (数学成绩 + 语文成绩 + 化学成绩) / 3"
+				, "加权成绩 = 数学成绩 * 0.5 + 语文成绩 * 0.3 - 化学成绩 * -0.2"
+				, "是否及格 = 平均成绩 >= 60 && !(数学成绩 < 60)"
+				, "总成绩_index = 每次考试的数学成绩_index + defaultZero(每次考试的附加分_index)");
+		ResultManager nativeResult = execForNativeExpression(true, formulaList);
+		ResultManager qlResult = execForNativeExpression(false, formulaList);
+		assertEquals(0, qlResult.getNumResult("平均成绩").compareTo(nativeResult.getNumResult("平均成绩")));
+		assertEquals(0, qlResult.getNumResult("加权成绩").compareTo(nativeResult.getNumResult("加权成绩")));
+		assertEquals(qlResult.getBoolResult("是否及格"), nativeResult.getBoolResult("是否及格"));
+		assertEquals(qlResult.getNumResultList("总成绩"), nativeResult.getNumResultList("总成绩"));
+		assertEquals(new BigDecimal("83.33"), nativeResult.getNumResult("平均成绩", 2));
+	}
+
+	private ResultManager execForNativeExpression(boolean nativeExpression, List<String> formulaList) {
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setNativeExpression(nativeExpression));
+		ParamContext param = factory.createParam();
+		param.addNumber("数学成绩", 90);
+		param.addNumber("语文成绩", 85);
+		param.addNumber("化学成绩", 75);
+		param.addArray("每次考试的数学成绩", Lists.newArrayList(80, 90, 70));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaList.forEach(formulaManager::add);
+		return factory.createExecutor().exec(param, formulaManager);
+	}
+
+	/**
+	 * QLExpress 不支持的写法原生表达式同样不支持，交给 QLExpress 处理（编译时报语法错误）
+	 */
+	@Test
+	public void unary_operator_same_as_ql() {
+		ExpressionCompiler compiler = new ExpressionCompiler(true);
+		for (String text : new String[]{"r = -a", "r = - -a", "r = -(a)", "r = 2 * -a"}) {
+			assertThrows(Exception.class, () -> compiler.compile(text), text);
+		}
+		assertFalse(compiler.compile("r = !!b") instanceof NativeCompiledExpression);
+
+		ExpressionCompiler qlCompiler = new ExpressionCompiler(false);
+		for (String text : new String[]{"r = a * -1", "r = -1.5 + a", "r = 3 + -2", "r = 1 - -1", "r = !b", "r = !(a > 1)"}) {
+			CompiledExpression expression = compiler.compile(text);
+			assertTrue(expression instanceof NativeCompiledExpression, text);
+			assertEquals(String.valueOf(execute(qlCompiler.compile(text))), String.valueOf(execute(expression)), text);
+		}
+	}
+
+	@Test
+	public void fallback_to_ql() {
+		ExpressionCompiler compiler = new ExpressionCompiler(true);
+		CompiledExpression expression = compiler.compile("r = a + 1");
+		assertTrue(expression instanceof NativeCompiledExpression);
+		DefaultContext<String, Object> context = new DefaultContext<>();
+		context.put("a", "x");
+		assertEquals("x1", expression.execute(context));
+	}
+
+	/**
+	 * 注册的函数可能有副作用，调用它的公式只交给 QLExpress 执行，函数只会被调用一次
+	 */
+	@Test
+	public void registered_function_run_by_ql() {
+		AtomicInteger calls = new AtomicInteger();
+		ExpressionCompiler compiler = new ExpressionCompiler(true);
+		compiler.addFunction("name", new Operator() {
+			@Override
+			public Object executeInner(Object[] list) {
+				calls.incrementAndGet();
+				return "x";
+			}
+		});
+		CompiledExpression expression = compiler.compile("r = name(1) + a");
+		assertFalse(expression instanceof NativeCompiledExpression);
+		DefaultContext<String, Object> context = new DefaultContext<>();
+		context.put("a", 1);
+		assertEquals("x1", expression.execute(context));
+		assertEquals(1, calls.get());
+
+		// 内置函数使用原生表达式
+		assertTrue(compiler.compile("r = listSum(b) + a") instanceof NativeCompiledExpression);
+	}
+
+	private static Object execute(CompiledExpression expression) {
+		DefaultContext<String, Object> context = new DefaultContext<>();
+		context.put("a", 10);
+		context.put("b", true);
+		return expression.execute(context);
+	}
+}
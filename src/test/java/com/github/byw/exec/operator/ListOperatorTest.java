@@ -0,0 +1,121 @@
+package com.github.byw.exec.operator;
+
+import com.github.byw.exception.CalculateException;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.param.DoubleList;
+import com.github.byw.param.ParamContext;
+import com.github.byw.result.ResultManager;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListOperatorTest {
+
+	/**
+	 * 超过一个分段的长度
+	 */
+	private static final int SIZE = ListOperator.CHUNK_SIZE * 3 + 7;
+
+	/**
+	 * 列表聚合和滑动窗口函数
+	 */
+	@Test
+	public void list_aggregate_operator() {
+		CalculateFactory factory = CalculateFactory.createFactory();
+		ParamContext param = factory.createParam();
+		param.addArray("成绩", Lists.newArrayList(80, 90, 70, 100));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("平均成绩 = listAvg(成绩)");
+		formulaManager.add("人数 = listCount(成绩)");
+		formulaManager.add("累计成绩 = prefixSum(成绩)");
+		formulaManager.add("最近两次总成绩 = rollingSum(成绩, 2)");
+		formulaManager.add("最近两次平均成绩 = rollingAvgParallel(成绩, 2)");
+		formulaManager.add("总成绩 = listSumParallel(成绩)");
+		ResultManager resultManager = factory.createExecutor().exec(param, formulaManager);
+
+		assertEquals(0, new BigDecimal("85").compareTo(resultManager.getNumResult("平均成绩")));
+		assertEquals(4, resultManager.getLong("人数"));
+		assertEquals(340, resultManager.getLong("总成绩"));
+		assertArrayEquals(new double[]{80, 170, 240, 340}, resultManager.getDoubleArray("累计成绩"), 0);
+		assertArrayEquals(new double[]{80, 170, 160, 170}, resultManager.getDoubleArray("最近两次总成绩"), 0);
+		assertArrayEquals(new double[]{80, 85, 80, 85}, resultManager.getDoubleArray("最近两次平均成绩"), 0);
+	}
+
+	/**
+	 * 并行版本和顺序版本分段的方式相同，结果完全相同
+	 */
+	@Test
+	public void parallel_same_as_sequential() throws Exception {
+		List<Integer> decimalList = new ArrayList<>(SIZE);
+		double[] values = new double[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			decimalList.add(i % 100);
+			values[i] = i % 100 * 0.1;
+		}
+		for (List<?> list : Lists.newArrayList(decimalList, new DoubleList(values))) {
+			assertEquals(new ListSum(false).executeInner(new Object[]{list}), new ListSum(true).executeInner(new Object[]{list}));
+			assertEquals(new ListAvg(false).executeInner(new Object[]{list}), new ListAvg(true).executeInner(new Object[]{list}));
+			assertEquals(new ListMax(false).executeInner(new Object[]{list}), new ListMax(true).executeInner(new Object[]{list}));
+			assertEquals(new ListMin(false).executeInner(new Object[]{list}), new ListMin(true).executeInner(new Object[]{list}));
+			assertEquals(new PrefixSum(false).executeInner(new Object[]{list}), new PrefixSum(true).executeInner(new Object[]{list}));
+			assertEquals(new RollingSum(false).executeInner(new Object[]{list, 5}), new RollingSum(true).executeInner(new Object[]{list, 5}));
+			assertEquals(new RollingAvg(false).executeInner(new Object[]{list, 5}), new RollingAvg(true).executeInner(new Object[]{list, 5}));
+		}
+	}
+
+	/**
+	 * 跨越分段边界的前缀和、滑动窗口和顺序累加的结果一致
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cross_chunk() throws Exception {
+		List<Integer> list = new ArrayList<>(SIZE);
+		for (int i = 0; i < SIZE; i++) {
+			list.add(i % 100);
+		}
+		List<BigDecimal> prefix = (List<BigDecimal>) new PrefixSum(true).executeInner(new Object[]{list});
+		List<BigDecimal> rolling = (List<BigDecimal>) new RollingSum(true).executeInner(new Object[]{list, 3});
+		long sum = 0;
+		for (int i = 0; i < SIZE; i++) {
+			sum += list.get(i);
+			assertEquals(0, BigDecimal.valueOf(sum).compareTo(prefix.get(i)), "索引 " + i);
+			long window = 0;
+			for (int j = Math.max(0, i - 2); j <= i; j++) {
+				window += list.get(j);
+			}
+			assertEquals(0, BigDecimal.valueOf(window).compareTo(rolling.get(i)), "索引 " + i);
+		}
+		assertEquals(0, BigDecimal.valueOf(sum).compareTo((BigDecimal) new ListSum(true).executeInner(new Object[]{list})));
+	}
+
+	@Test
+	public void result_type() throws Exception {
+		// 整数溢出 long 之后改为高精度累加
+		List<Long> longList = Lists.newArrayList(Long.MAX_VALUE, 1L);
+		assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE), new ListSum().executeInner(new Object[]{longList}));
+		assertEquals(BigDecimal.ZERO, new ListSum().executeInner(new Object[]{new ArrayList<>()}));
+		// double 列表的结果是 double
+		DoubleList doubleList = new DoubleList(new double[]{1.5, 2.5});
+		assertEquals(4.0, new ListSum().executeInner(new Object[]{doubleList}));
+		assertEquals(2.0, new ListAvg().executeInner(new Object[]{doubleList}));
+		assertTrue(new PrefixSum().executeInner(new Object[]{doubleList}) instanceof DoubleList);
+		// 最大值、最小值返回元素本身
+		assertEquals(new BigDecimal("90.5"), new ListMax().executeInner(new Object[]{Lists.newArrayList(80, new BigDecimal("90.5"), 90)}));
+		assertEquals(80, new ListMin().executeInner(new Object[]{Lists.newArrayList(80, new BigDecimal("90.5"), 90)}));
+		assertEquals(3, new ListCount().executeInner(new Object[]{Lists.newArrayList(1, 2, 3)}));
+	}
+
+	@Test
+	public void invalid_args() {
+		assertThrows(CalculateException.class, () -> new ListSum().executeInner(new Object[]{1}));
+		assertThrows(CalculateException.class, () -> new ListMax().executeInner(new Object[]{new ArrayList<>()}));
+		assertThrows(CalculateException.class, () -> new RollingSum().executeInner(new Object[]{Lists.newArrayList(1, 2)}));
+		assertThrows(CalculateException.class, () -> new RollingAvg().executeInner(new Object[]{Lists.newArrayList(1, 2), 0}));
+	}
+}
@@ -0,0 +1,27 @@
+package com.github.byw.formula;
+
+import com.github.byw.exception.CalculateException;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultFormulaManagerTest {
+
+	/**
+	 * 添加时解析公式，不合法的公式直接抛出异常，不会被添加
+	 */
+	@Test
+	public void invalid_formula_rejected_on_add() {
+		DefaultFormulaManager formulaManager = new DefaultFormulaManager();
+		formulaManager.add("总成绩_index = 数学成绩_index + 语文成绩_index");
+		assertNotNull(formulaManager.getFormulaList().get(0).getAnalysis());
+
+		assertThrows(CalculateException.class, () -> formulaManager.add("总成绩_index == 数学成绩_index"));
+		assertThrows(CalculateException.class, () -> formulaManager.add("总成绩_index 数学成绩_index"));
+		assertThrows(CalculateException.class, () -> formulaManager.add("总成绩 = 数学成绩_index"));
+		assertThrows(CalculateException.class, () -> formulaManager.add("{结果} = 数学成绩_index", "总成绩"));
+		assertThrows(CalculateException.class, () -> formulaManager.addList(Lists.newArrayList("平均成绩_index = 数学成绩_index / 2", "总成绩 = 数学成绩_index")));
+		assertEquals(1, formulaManager.getFormulaList().size());
+	}
+}
@@ -0,0 +1,51 @@
+package com.github.byw.formula;
+
+import com.github.byw.exec.CalculateExecutor;
+import com.github.byw.factory.CalculateFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormulaDependencyTest {
+
+	private static final FormulaConditions START_CONDITION = new FormulaConditions() {
+		@Override
+		public String getStartConditions() {
+			return "成绩_index > 60";
+		}
+	};
+
+	@Test
+	public void read_and_write() {
+		Formula formula = new Formula("总分 = listSum(成绩) + 附加分_index", null);
+		FormulaDependency dependency = FormulaDependency.analyze(formula);
+		assertEquals(1, dependency.getWriteSet().size());
+		assertTrue(dependency.getWriteSet().contains("总分"));
+		assertTrue(dependency.getReadSet().contains("成绩"));
+		assertTrue(dependency.getReadSet().contains("附加分"));
+		assertTrue(dependency.getWholeReadSet().contains("成绩"));
+		assertFalse(dependency.getWholeReadSet().contains("附加分"));
+	}
+
+	/**
+	 * 带条件的列表公式都会写入条件的结果，互相之间不能并行执行
+	 */
+	@Test
+	public void condition_result_is_written() {
+		FormulaDependency first = FormulaDependency.analyze(new Formula("奖励_index = 成绩_index * 2", START_CONDITION));
+		FormulaDependency second = FormulaDependency.analyze(new Formula("惩罚_index = 出勤_index * 2", START_CONDITION));
+		FormulaDependency withoutCondition = FormulaDependency.analyze(new Formula("合计_index = 出勤_index + 1", null));
+		assertTrue(first.getWriteSet().contains(FormulaStatement.CONDITION_RESULT_NAME));
+		assertTrue(second.dependsOn(first));
+		assertFalse(withoutCondition.getWriteSet().contains(FormulaStatement.CONDITION_RESULT_NAME));
+		assertFalse(withoutCondition.dependsOn(first));
+
+		// 条件的结果不影响增量计算
+		CalculateFactory factory = CalculateFactory.createFactory();
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("奖励_index = 成绩_index * 2", START_CONDITION);
+		formulaManager.add("惩罚_index = 出勤_index * 2", START_CONDITION);
+		CalculateExecutor executor = factory.createExecutor();
+		assertTrue(executor.compile(formulaManager).isIncrementalSupported());
+	}
+}
@@ -0,0 +1,132 @@
+package com.github.byw.param;
+
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.log.NoopLogOperator;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultParamTest {
+
+	private final CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setLogOperatorClass(NoopLogOperator.class));
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void fork_param() {
+		ParamContext base = factory.createParam();
+		base.addArray("成绩", Lists.newArrayList(80, 85));
+		base.addArray("总分", Lists.newArrayList(0, 0));
+		base.addNumber("加分", 5);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("总分_index = 成绩_index + 加分");
+
+		ParamContext fork = base.fork();
+		// 没有修改过的列表由父子参数上下文共用
+		assertSame(base.getParamContext().get("成绩"), fork.getParamContext().get("成绩"));
+		assertSame(base.getParamConfig("成绩"), fork.getParamConfig("成绩"));
+		fork.addNumber("加分", 10);
+		factory.createExecutor().exec(fork, formulaManager);
+		List<Number> forkResult = (List<Number>) fork.getParamContext().get("总分");
+		assertEquals(90, forkResult.get(0).intValue());
+		assertEquals(95, forkResult.get(1).intValue());
+		// 结果列表写入之前已经复制，父参数上下文不受影响
+		List<Number> baseResult = (List<Number>) base.getParamContext().get("总分");
+		assertEquals(0, baseResult.get(0).intValue());
+		assertEquals(5, ((Number) base.getParamContext().get("加分")).intValue());
+		assertSame(base.getParamContext().get("成绩"), fork.getParamContext().get("成绩"));
+	}
+
+	@Test
+	public void fork_remove_and_size() {
+		ParamContext base = factory.createParam();
+		base.addArray("成绩", Lists.newArrayList(80, 85));
+		base.addNumber("加分", 5);
+		ParamContext fork = base.fork();
+		fork.remove("加分");
+		fork.addNumber("人数", 2);
+
+		assertFalse(fork.getParamContext().containsKey("加分"));
+		assertNull(fork.getParamConfig("加分"));
+		assertEquals(2, fork.getParamContext().size());
+		assertTrue(base.getParamContext().containsKey("加分"));
+		assertFalse(base.getParamContext().containsKey("人数"));
+		assertEquals(2, base.getParamContext().size());
+
+		// 子参数上下文再次 fork 时沿着父参数上下文查找
+		ParamContext child = fork.fork();
+		assertFalse(child.getParamContext().containsKey("加分"));
+		assertEquals(2, ((Number) child.getParamContext().get("人数")).intValue());
+		assertSame(base.getParamContext().get("成绩"), child.getParamContext().get("成绩"));
+		child.addNumber("加分", 1);
+		assertEquals(3, child.getParamContext().size());
+	}
+
+	/**
+	 * fork 的参数数量按增量维护，和把同样的修改应用到完整复制的参数上下文上得到的数量一致
+	 */
+	@Test
+	public void fork_size_same_as_copy() {
+		ParamContext base = factory.createParam();
+		ParamContext copy = factory.createParam();
+		for (int i = 0; i < 10; i++) {
+			base.addNumber("参数" + i, i);
+			copy.addNumber("参数" + i, i);
+		}
+		ParamContext fork = base.fork();
+		Random random = new Random(42);
+		for (int step = 0; step < 500; step++) {
+			// 一半是父参数上下文中已有的参数，一半是新参数
+			String name = "参数" + random.nextInt(20);
+			if (step == 250) {
+				fork = fork.fork();
+			}
+			if (random.nextBoolean()) {
+				fork.addNumber(name, step);
+				copy.addNumber(name, step);
+			} else {
+				fork.remove(name);
+				copy.remove(name);
+			}
+			assertEquals(copy.getParamContext().size(), fork.getParamContext().size(), "第 " + step + " 步");
+			assertEquals(copy.getParamContext().containsKey(name), fork.getParamContext().containsKey(name));
+		}
+		assertEquals(10, base.getParamContext().size());
+	}
+
+	/**
+	 * fork 不修改父参数上下文，多个线程可以同时 fork 同一个参数上下文并各自计算
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void concurrent_fork() throws Exception {
+		ParamContext base = factory.createParam();
+		base.addArray("成绩", Lists.newArrayList(80, 85));
+		base.addArray("总分", Lists.newArrayList(0, 0));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("总分_index = 成绩_index + 加分");
+		ForkJoinPool pool = new ForkJoinPool(8);
+		try {
+			pool.submit(() -> IntStream.range(0, 200).parallel().forEach(i -> {
+				ParamContext fork = base.fork();
+				fork.addNumber("加分", i);
+				factory.createExecutor().exec(fork, formulaManager);
+				List<Number> result = (List<Number>) fork.getParamContext().get("总分");
+				assertEquals(80 + i, result.get(0).intValue());
+				assertEquals(85 + i, result.get(1).intValue());
+			})).get();
+		} finally {
+			pool.shutdown();
+		}
+		List<Number> baseResult = (List<Number>) base.getParamContext().get("总分");
+		assertEquals(Lists.newArrayList(0, 0), Lists.newArrayList(baseResult.get(0).intValue(), baseResult.get(1).intValue()));
+		assertFalse(base.getParamContext().containsKey("加分"));
+	}
+}
@@ -0,0 +1,58 @@
+package com.github.byw.param;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleListTest {
+
+	@Test
+	public void copy_and_set() {
+		DoubleList list = DoubleList.copyOf(Lists.newArrayList(80, new BigDecimal("90.5"), 70L));
+		assertEquals(3, list.size());
+		assertEquals(90.5, list.getDouble(1), 0);
+		assertEquals(Double.valueOf(80), list.get(0));
+
+		assertEquals(Double.valueOf(70), list.set(2, new BigDecimal("75.5")));
+		list.setDouble(0, 85);
+		assertEquals(Lists.newArrayList(85.0, 90.5, 75.5), list);
+
+		// 复制之后互不影响
+		DoubleList copy = DoubleList.copyOf(list);
+		copy.setDouble(0, 0);
+		assertEquals(85, list.getDouble(0), 0);
+		assertNotSame(list.getValues(), copy.getValues());
+	}
+
+	@Test
+	public void add_and_remove() {
+		DoubleList list = new DoubleList(2);
+		assertEquals(Lists.newArrayList(0.0, 0.0), list);
+		for (int i = 0; i < 10; i++) {
+			list.add(i);
+		}
+		list.add(0, -1);
+		assertEquals(13, list.size());
+		assertEquals(-1, list.getDouble(0), 0);
+		assertEquals(9, list.getDouble(12), 0);
+		assertTrue(list.getValues().length >= list.size());
+
+		assertEquals(Double.valueOf(-1), list.remove(0));
+		assertEquals(12, list.size());
+		assertEquals(0, list.getDouble(2), 0);
+	}
+
+	@Test
+	public void index_out_of_bounds() {
+		DoubleList list = new DoubleList(new double[]{1, 2});
+		assertThrows(IndexOutOfBoundsException.class, () -> list.getDouble(2));
+		assertThrows(IndexOutOfBoundsException.class, () -> list.setDouble(-1, 0));
+		assertThrows(IndexOutOfBoundsException.class, () -> list.add(3, 0));
+		list.remove(1);
+		// 数组长度大于列表长度时，也不能读取列表之外的数值
+		assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+	}
+}
@@ -0,0 +1,77 @@
+package com.github.byw.param;
+
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.exec.config.NumericMode;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.log.NoopLogOperator;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedParamViewTest {
+
+	private ParamContext createParam(NumericMode numericMode) {
+		CalculateConfig config = new CalculateConfig().setLogOperatorClass(NoopLogOperator.class).setNumericMode(numericMode);
+		return CalculateFactory.createFactory(config).createParam();
+	}
+
+	@Test
+	public void read_by_index() {
+		ParamContext param = createParam(NumericMode.DECIMAL);
+		param.addArray("成绩", Lists.newArrayList(80, 90));
+		param.addNumber("加分", 5);
+		IndexedParamView view = new IndexedParamView(param.getParamContext());
+
+		view.setIndex(1);
+		assertEquals(90, view.get("成绩_index"));
+		assertEquals(5, view.get("加分"));
+		assertTrue(view.containsKey("成绩_index"));
+		// 参数长度不足时当作参数不存在
+		view.setIndex(2);
+		assertNull(view.get("成绩_index"));
+		assertFalse(view.containsKey("成绩_index"));
+		assertNull(view.get("不存在_index"));
+		// 不会向参数上下文中写入拆分出来的参数
+		assertEquals(2, view.size());
+		assertFalse(param.getParamContext().containsKey("成绩_index"));
+	}
+
+	@Test
+	public void assign_in_current_index() {
+		ParamContext param = createParam(NumericMode.DECIMAL);
+		param.addArray("成绩", Lists.newArrayList(80, 90));
+		IndexedParamView view = new IndexedParamView(param.getParamContext());
+
+		view.setIndex(0);
+		view.put("成绩_index", 100);
+		view.put("人数", 2);
+		assertEquals(100, view.get("成绩_index"));
+		assertEquals(100, view.getAssigned("成绩_index"));
+		// _index 参数的赋值不会写回列表，其它参数直接写入参数上下文
+		assertEquals(Lists.newArrayList(80, 90), param.getParamContext().get("成绩"));
+		assertEquals(2, param.getParamContext().get("人数"));
+		// 同一个索引下赋值保留，切换索引后清空
+		view.setIndex(0);
+		assertEquals(100, view.get("成绩_index"));
+		view.setIndex(1);
+		assertNull(view.getAssigned("成绩_index"));
+		assertEquals(90, view.get("成绩_index"));
+	}
+
+	@Test
+	public void read_double_list() {
+		ParamContext param = createParam(NumericMode.DOUBLE);
+		param.addArray("成绩", Lists.newArrayList(80.5, 90));
+		IndexedParamView view = new IndexedParamView(param.getParamContext());
+
+		view.setIndex(0);
+		assertTrue(view.isDouble("成绩_index"));
+		assertEquals(80.5, view.getDouble("成绩_index"), 0);
+		assertFalse(view.isDouble("成绩"));
+		view.put("成绩_index", 1);
+		assertFalse(view.isDouble("成绩_index"));
+		view.setIndex(2);
+		assertFalse(view.isDouble("成绩_index"));
+	}
+}
@@ -0,0 +1,78 @@
+package com.github.byw.param;
+
+import com.github.byw.exception.CalculateException;
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedColumnTest {
+
+	@Test
+	public void write_and_open() throws IOException {
+		Path file = Files.createTempFile("column", ".col");
+		try {
+			assertEquals(3, MappedColumn.write(file, ColumnType.DECIMAL64, 2, Lists.newArrayList(1.25, 2, -3.5).iterator()));
+			MappedColumn column = MappedColumn.open(file);
+			assertEquals(ColumnType.DECIMAL64, column.getType());
+			assertEquals(2, column.getScale());
+			assertEquals(3, column.size());
+			assertEquals(125, column.getRawLong(0));
+			assertEquals(-3.5, column.getDouble(2), 0);
+			assertEquals(0, new BigDecimal("2").compareTo((BigDecimal) column.get(1)));
+			assertThrows(UnsupportedOperationException.class, () -> column.set(0, 1));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void open_invalid_file() throws IOException {
+		Path file = Files.createTempFile("column", ".col");
+		try {
+			Files.write(file, new byte[]{1, 2, 3});
+			assertThrows(CalculateException.class, () -> MappedColumn.open(file));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * 内存映射的列作为列表公式的参数
+	 */
+	@Test
+	public void mapped_param_context() throws IOException {
+		Path mathFile = Files.createTempFile("数学成绩", ".col");
+		Path chineseFile = Files.createTempFile("语文成绩", ".col");
+		try {
+			MappedColumn.write(mathFile, ColumnType.DECIMAL64, 1, Lists.newArrayList(80.5, 90, 70).iterator());
+			MappedColumn.write(chineseFile, ColumnType.INT64, 0, Lists.newArrayList(90, 90, 70).iterator());
+			CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setParamContextClass(MappedParamContext.class));
+			MappedParamContext param = (MappedParamContext) factory.createParam();
+			param.addColumn("数学成绩", mathFile).addColumn("语文成绩", chineseFile);
+			assertEquals(new BigDecimal("80.5"), ((List<?>) param.getParamContext().get("数学成绩")).get(0));
+
+			FormulaManager formulaManager = factory.createFormulaManager();
+			formulaManager.add("总成绩_index = 数学成绩_index + 语文成绩_index");
+			List<BigDecimal> result = factory.createExecutor().exec(param, formulaManager).getNumResultList("总成绩");
+			// DECIMAL64 和 INT64 相加的结果带有小数位（180.0），按数值比较
+			List<BigDecimal> expected = Lists.newArrayList(new BigDecimal("170.5"), BigDecimal.valueOf(180), BigDecimal.valueOf(140));
+			assertEquals(expected.size(), result.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(0, expected.get(i).compareTo(result.get(i)), "索引 " + i);
+			}
+		} finally {
+			Files.deleteIfExists(mathFile);
+			Files.deleteIfExists(chineseFile);
+		}
+	}
+}
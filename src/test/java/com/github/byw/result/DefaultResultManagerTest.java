@@ -0,0 +1,135 @@
+package com.github.byw.result;
+
+import com.github.byw.exception.CalculateException;
+import com.github.byw.exec.config.CalculateConfig;
+import com.github.byw.factory.CalculateFactory;
+import com.github.byw.formula.FormulaManager;
+import com.github.byw.param.ColumnType;
+import com.github.byw.param.MappedColumn;
+import com.github.byw.param.ParamContext;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultResultManagerTest {
+
+	/**
+	 * 导出列表结果
+	 */
+	@Test
+	public void export_columns() throws IOException {
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig());
+		ParamContext param = factory.createParam();
+		param.addArray("数学成绩", Lists.newArrayList(new BigDecimal("80.5"), BigDecimal.valueOf(90), BigDecimal.valueOf(70)));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("两倍成绩_index = 数学成绩_index * 2");
+		ResultManager resultManager = factory.createExecutor().exec(param, formulaManager);
+
+		ByteBuffer buffer = ByteBuffer.allocate(1024);
+		int length = resultManager.exportColumns(Lists.newArrayList("数学成绩", "两倍成绩"), ExportFormat.CSV, buffer);
+		assertEquals(length, buffer.position());
+		String csv = new String(buffer.array(), 0, length, StandardCharsets.UTF_8);
+		String[] lines = csv.split("\n");
+		assertEquals("数学成绩,两倍成绩", lines[0]);
+		assertEquals(4, lines.length);
+		assertEquals(0, new BigDecimal("161").compareTo(new BigDecimal(lines[1].split(",")[1])));
+		assertThrows(CalculateException.class, () -> resultManager.exportColumns(Lists.newArrayList("数学成绩"), ExportFormat.CSV, ByteBuffer.allocate(4)));
+
+		Path file = Files.createTempFile("两倍成绩", ".col");
+		try {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				assertEquals(MappedColumn.HEADER_SIZE + 3 * Double.BYTES, resultManager.exportColumns(Lists.newArrayList("两倍成绩"), ExportFormat.BINARY, channel));
+			}
+			MappedColumn column = MappedColumn.open(file);
+			assertEquals(ColumnType.DECIMAL64, column.getType());
+			assertEquals(3, column.size());
+			assertEquals(140, column.getDouble(2), 0);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * 高精度模式的结果导出为 DECIMAL64，整数结果导出为 INT64，通过 MappedColumn 读回之后精度不变
+	 */
+	@Test
+	public void export_binary_decimal_round_trip() throws IOException {
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig());
+		ParamContext param = factory.createParam();
+		// 18 位有效数字，超出了 double 的精度
+		param.addArray("金额", Lists.newArrayList(new BigDecimal("1234567890.12345678"), new BigDecimal("-0.5"), BigDecimal.ZERO));
+		param.addArray("数量", Lists.newArrayList(Long.MAX_VALUE, -1L, 0L));
+		param.addArray("超出范围", Lists.newArrayList(new BigDecimal("12345678901.123456789")));
+		param.addArray("小数过多", Lists.newArrayList(new BigDecimal("0.1234567890123456789")));
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("两倍金额_index = 金额_index * 2");
+		ResultManager resultManager = factory.createExecutor().exec(param, formulaManager);
+
+		Path file = Files.createTempFile("两倍金额", ".col");
+		try {
+			for (String name : new String[]{"两倍金额", "数量"}) {
+				try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+					resultManager.exportColumns(Lists.newArrayList(name), ExportFormat.BINARY, channel);
+				}
+				MappedColumn column = MappedColumn.open(file);
+				List<?> expected = (List<?>) param.getParamContext().get(name);
+				assertEquals(expected.size(), column.size());
+				for (int i = 0; i < column.size(); i++) {
+					assertEquals(0, new BigDecimal(expected.get(i).toString()).compareTo(new BigDecimal(column.get(i).toString())), name + " 索引 " + i);
+				}
+				if ("两倍金额".equals(name)) {
+					assertEquals(ColumnType.DECIMAL64, column.getType());
+					assertEquals(8, column.getScale());
+					assertEquals(new BigDecimal("2469135780.24691356"), column.get(0));
+				} else {
+					assertEquals(ColumnType.INT64, column.getType());
+					assertEquals(Long.MAX_VALUE, column.get(0));
+				}
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+		// 无法用 DECIMAL64 保存的结果直接抛出异常，不会静默丢失精度
+		assertThrows(CalculateException.class, () -> resultManager.exportColumns(Lists.newArrayList("超出范围"), ExportFormat.BINARY, ByteBuffer.allocate(1024)));
+		assertThrows(CalculateException.class, () -> resultManager.exportColumns(Lists.newArrayList("小数过多"), ExportFormat.BINARY, ByteBuffer.allocate(1024)));
+	}
+
+	/**
+	 * 类型化的结果读取
+	 */
+	@Test
+	public void typed_result_accessors() {
+		CalculateFactory factory = CalculateFactory.createFactory(new CalculateConfig().setParamTotalSize(3));
+		ParamContext param = factory.createParam();
+		param.addArray("数学成绩", Lists.newArrayList(new BigDecimal("80.5"), BigDecimal.valueOf(90), BigDecimal.valueOf(70)));
+		param.addNumber("人数", 3);
+		FormulaManager formulaManager = factory.createFormulaManager();
+		formulaManager.add("两倍成绩_index = 数学成绩_index * 2");
+		formulaManager.add("及格_index = 1");
+		ResultManager resultManager = factory.createExecutor().exec(param, formulaManager);
+
+		assertEquals(3, resultManager.getLong("人数"));
+		assertEquals(3.0, resultManager.getDouble("人数"), 0);
+		assertArrayEquals(new double[]{161, 180, 140}, resultManager.getDoubleArray("两倍成绩"), 0);
+		List<BigDecimal> view = resultManager.getNumResultView("及格");
+		assertEquals(BigDecimal.ONE, view.get(2));
+		assertThrows(UnsupportedOperationException.class, () -> view.set(0, BigDecimal.ZERO));
+		double[] sum = new double[1];
+		resultManager.forEachNum("两倍成绩", value -> sum[0] += value);
+		assertEquals(481, sum[0], 0);
+		assertThrows(CalculateException.class, () -> resultManager.getLong("数学成绩"));
+		assertThrows(CalculateException.class, () -> resultManager.getNumResultView("不存在"));
+		assertThrows(CalculateException.class, () -> resultManager.getDoubleArray("不存在"));
+	}
+}